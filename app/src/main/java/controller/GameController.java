@@ -24,6 +24,8 @@ public class GameController implements Game.GameStateListener {
     private final AtomicReference<String> lastProcessedJoinPlayer = new AtomicReference<>(""); // 最后处理的加入玩家
     private final AppExecutors executors = AppExecutors.getInstance(); // 执行器
 
+    private static final long AI_DECISION_BUDGET_MILLIS = 3000; // AI 每次决策的截止时间
+
     // 构造函数
     public GameController(GameView gameView) {
         this.gameView = gameView;
@@ -44,8 +46,15 @@ public class GameController implements Game.GameStateListener {
 
     // 创建单机游戏
     public void createSinglePlayerGame(String playerName, int aiCount, AIStrategy aiStrategy) {
+        createSinglePlayerGame(playerName, aiCount, () -> aiStrategy, false);
+    }
+
+    // 创建单机游戏，每个AI各用一个策略实例，可以开启预先思考
+    public void createSinglePlayerGame(String playerName, int aiCount, Supplier<? extends AIStrategy> strategies,
+                                       boolean pondering) {
         this.localPlayerName = playerName;
-        game = safeExecute(() -> GameFactory.createSinglePlayerGame(playerName, aiCount, aiStrategy), "创建单机游戏失败", null);
+        game = safeExecute(() -> GameFactory.createSinglePlayerGame(playerName, aiCount, strategies, pondering),
+                "创建单机游戏失败", null);
         if (game != null) {
             game.addGameStateListener(this);
             updateGameUI();
@@ -286,6 +295,7 @@ public class GameController implements Game.GameStateListener {
     // 游戏结束事件处理
     @Override
     public void onGameOver(Game game, Player winner) {
+        ponderAll(game);
         updateGameUI();
         gameView.showGameResult(winner);
     }
@@ -361,24 +371,49 @@ public class GameController implements Game.GameStateListener {
      * 如果下一个轮到 AI，自动执行它的回合。
      */
     private void maybeAutoPlayNext() {
+        final Game g = game;
+        final CancellationToken token = g.getDecisionToken(); // 游戏重置或结束时取消
+        ponderAll(g);
         executors.io().execute(() -> {
             try {
                 Thread.sleep(1500); // 稍作延迟让 UI 更新并让模型切换到下一位
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
+            if (token.isCancelled())
+                return;
 
-            Player cur = game.getCurrentPlayer();
+            Player cur = g.getCurrentPlayer();
             if (cur instanceof AIPlayer) {
                 AIPlayer ai = (AIPlayer) cur;
-                boolean played = ai.autoPlay(game);
-                if (!played) {
-                    game.pass();
-                }
+                long deadline = System.nanoTime() + AI_DECISION_BUDGET_MILLIS * 1_000_000L;
+                // 决策在后台线程上进行，不占用当前线程；到截止时间时策略返回已找到的最好出牌
+                ai.autoPlayAsync(g, deadline, token, executors.io())
+                        .thenAccept(played -> {
+                            if (!played && !token.isCancelled()) {
+                                g.pass();
+                            }
+                        })
+                        .exceptionally(e -> {
+                            if (!token.isCancelled())
+                                Log.e("AutoPlay error", String.valueOf(e.getMessage()));
+                            return null;
+                        });
             }
         });
     }
 
+    /**
+     * 让开启了预先思考的 AI 按最新局面重新开始预先思考（轮到自己或对局结束时停止）
+     */
+    private void ponderAll(Game g) {
+        for (Player p : g.getPlayers()) {
+            if (p instanceof AIPlayer) {
+                ((AIPlayer) p).ponder(g, executors.io());
+            }
+        }
+    }
+
     /**
      * 从主机发送的发牌消息重建客户端游戏状态。
      * 格式: playersCount:player,handSize,suit.rank;...|player2,...
@@ -417,7 +452,7 @@ public class GameController implements Game.GameStateListener {
                         continue;// 如果分割后的长度小于2，则跳过
                     int suit = Integer.parseInt(sr[0]);// 获取花色
                     int rank = Integer.parseInt(sr[1]);// 获取牌值
-                    hand.add(new Card(suit, rank));// 添加手牌
+                    hand.add(Card.of(suit, rank));// 添加手牌
                 }
                 p.setHand(hand);// 设置玩家手牌
             }
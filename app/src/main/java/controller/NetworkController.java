@@ -293,17 +293,12 @@ public class NetworkController implements NetworkManager.ConnectionListener, Net
                         String[] sr = tk.split("\\.");
                         int suit = Integer.parseInt(sr[0]);
                         int rank = Integer.parseInt(sr[1]);
-                        models.Card newCard = new models.Card(suit, rank);
+                        models.Card newCard = models.Card.of(suit, rank);
                         parsed.add(newCard);
-                        for (models.Card c : p.getHand())
-                            if (c.getSuit() == suit && c.getRank() == rank) {
-                                remove.add(c);
-                                break;
-                            }
+                        if (p.getHandSet().contains(newCard))
+                            remove.add(newCard);
                     }
-                    java.util.List<models.Card> newHand = new java.util.ArrayList<>(p.getHand());
-                    newHand.removeAll(remove);
-                    p.setHand(newHand);
+                    p.setHand(p.getHandSet().difference(models.CardSet.of(remove)));
                     removed.addAll(remove);
                     playedIdx = i;
                     break;
@@ -350,7 +345,7 @@ public class NetworkController implements NetworkManager.ConnectionListener, Net
 
             // 同步 lastPattern 与 passCount，防止客户端后续校验失配
             try {
-                models.PatternValidator validator = new models.PatternValidatorImpl();
+                models.PatternValidator validator = new models.HistogramPatternValidator();
                 models.CardPattern pat = validator.validate(parsed);
                 java.lang.reflect.Field lpF = g.getClass().getDeclaredField("lastPattern");
                 lpF.setAccessible(true);
@@ -390,7 +385,7 @@ public class NetworkController implements NetworkManager.ConnectionListener, Net
                 continue;
             int suit = Integer.parseInt(sr[0]);
             int rank = Integer.parseInt(sr[1]);
-            parsed.add(new models.Card(suit, rank));
+            parsed.add(models.Card.of(suit, rank));
         }
 
         // 1. 找到玩家
@@ -416,14 +411,7 @@ public class NetworkController implements NetworkManager.ConnectionListener, Net
             int suit = Integer.parseInt(sr[0]);
             int rank = Integer.parseInt(sr[1]);
             // toggle selection for card in hand
-            java.util.List<models.Card> hand = target.getHand();
-            for (int idx = 0; idx < hand.size(); idx++) {
-                models.Card c = hand.get(idx);
-                if (c.getSuit() == suit && c.getRank() == rank) {
-                    target.toggleCardSelection(idx);
-                    break;
-                }
-            }
+            target.toggleCardSelection(models.Card.of(suit, rank));
         }
 
         boolean ok = g.playSelected();
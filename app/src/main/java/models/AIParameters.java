@@ -0,0 +1,168 @@
+package models;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * {@link AdvancedAIStrategy} 的可调参数：封锁、用炸弹、激进出牌的各个阈值
+ *
+ * 参数按下标组成一个向量，{@link ParameterTuner} 在实数空间里调整，使用时四舍五入到整数并截断到取值范围。
+ * 可以保存为 properties 文件（键为参数名），读取时缺少的参数取默认值。实例不可变。
+ */
+public final class AIParameters {
+
+    /** 下家剩余张数不超过该值时进入封锁模式 */
+    public static final int BLOCK_NEXT_CARDS = 0;
+    /** 有对手剩余张数不超过该值时直接用炸弹 */
+    public static final int BOMB_OPPONENT_CARDS = 1;
+    /** 炸完之后剩下的牌不超过该手数时用炸弹 */
+    public static final int BOMB_MAX_PLAYS = 2;
+    /** 炸完之后剩下的牌不超过该手数、且控制牌足够时用炸弹 */
+    public static final int BOMB_CONTROL_PLAYS = 3;
+    /** 上一条要求的最少控制牌（A、2）张数 */
+    public static final int BOMB_MIN_CONTROLS = 4;
+    /** 有对手剩余张数不超过该值时激进出牌 */
+    public static final int AGGRESSIVE_OPPONENT_CARDS = 5;
+    /** 自己不超过该手数就能出完时激进出牌 */
+    public static final int AGGRESSIVE_MAX_PLAYS = 6;
+
+    private static final String[] NAMES = {
+            "blockNextCards", "bombOpponentCards", "bombMaxPlays", "bombControlPlays",
+            "bombMinControls", "aggressiveOpponentCards", "aggressiveMaxPlays"
+    };
+    private static final int[] DEFAULTS = {1, 2, 1, 2, 1, 3, 2};
+    private static final int[] MIN = {0, 0, 0, 0, 0, 0, 0};
+    private static final int[] MAX = {13, 13, 13, 13, 8, 13, 13};
+
+    /** 调参之前策略中写死的取值 */
+    public static final AIParameters DEFAULT = new AIParameters(DEFAULTS);
+
+    private final int[] values;
+
+    /**
+     * @param values 按下标排列的参数值
+     * @throws IllegalArgumentException 个数不对或超出取值范围
+     */
+    public AIParameters(int[] values) {
+        if (values.length != NAMES.length) {
+            throw new IllegalArgumentException("参数个数必须为" + NAMES.length + ": " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < MIN[i] || values[i] > MAX[i]) {
+                throw new IllegalArgumentException("参数" + NAMES[i] + "必须在" + MIN[i] + "-" + MAX[i] + "之间: " + values[i]);
+            }
+        }
+        this.values = values.clone();
+    }
+
+    /**
+     * 由实数向量创建：四舍五入并截断到取值范围
+     */
+    public static AIParameters fromVector(double[] vector) {
+        if (vector.length != NAMES.length) {
+            throw new IllegalArgumentException("参数个数必须为" + NAMES.length + ": " + vector.length);
+        }
+        int[] values = new int[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            values[i] = (int) Math.max(MIN[i], Math.min(MAX[i], Math.round(vector[i])));
+        }
+        return new AIParameters(values);
+    }
+
+    public double[] toVector() {
+        double[] vector = new double[values.length];
+        for (int i = 0; i < values.length; i++) vector[i] = values[i];
+        return vector;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    /* ---------- 参数的元信息 ---------- */
+
+    public static int size() {
+        return NAMES.length;
+    }
+
+    public static String name(int index) {
+        return NAMES[index];
+    }
+
+    public static int min(int index) {
+        return MIN[index];
+    }
+
+    public static int max(int index) {
+        return MAX[index];
+    }
+
+    /* ---------- 读写 ---------- */
+
+    /**
+     * 从 properties 中读取，值可以是小数（四舍五入）；缺少的参数取默认值
+     * @throws IllegalArgumentException 值不是数字
+     */
+    public static AIParameters fromProperties(Properties properties) {
+        double[] vector = DEFAULT.toVector();
+        for (int i = 0; i < NAMES.length; i++) {
+            String value = properties.getProperty(NAMES[i]);
+            if (value == null) continue;
+            try {
+                vector[i] = Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("参数" + NAMES[i] + "不是数字: " + value, e);
+            }
+        }
+        return fromVector(vector);
+    }
+
+    /** 写入 properties，已有的其他键保留 */
+    public void toProperties(Properties properties) {
+        for (int i = 0; i < NAMES.length; i++) {
+            properties.setProperty(NAMES[i], Integer.toString(values[i]));
+        }
+    }
+
+    public static AIParameters load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return fromProperties(properties);
+    }
+
+    public void save(File file) throws IOException {
+        Properties properties = new Properties();
+        toProperties(properties);
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "AdvancedAIStrategy parameters");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AIParameters && Arrays.equals(values, ((AIParameters) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("AIParameters{");
+        for (int i = 0; i < NAMES.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(NAMES[i]).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
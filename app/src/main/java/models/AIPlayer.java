@@ -5,10 +5,22 @@ import java.util.ArrayList;
 import java.util.logging.Logger;
 import java.util.Objects;
 import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class AIPlayer extends Player {
     private volatile AIStrategy strategy;
+    private final BeatsIndex beatsIndex = new BeatsIndex();  // 手牌的可压制索引，随出牌增量更新
+    private final HandAnalysis analysis = new HandAnalysis();  // 手牌的牌型分析，随出牌增量更新，附带在决策信息中
+    private volatile int endgameThreshold = DEFAULT_ENDGAME_THRESHOLD;
+    private final Ponderer ponderer = new Ponderer();  // 别人回合里的预先思考
+    private volatile boolean pondering;
+
+    /** 双方手牌都不超过该张数时启用残局求解 */
+    public static final int DEFAULT_ENDGAME_THRESHOLD = 6;
     private static final Logger LOG = Logger.getLogger(AIPlayer.class.getName());
+    private static final EndgameSolver ENDGAME_SOLVER = new EndgameSolver();  // 两人残局精确求解，所有AI共用一张置换表
 
     public AIPlayer(String name, AIStrategy strategy) {
         super(name , false);  // 创建一个AI玩家
@@ -17,15 +29,99 @@ public class AIPlayer extends Player {
 
     public AIStrategy getStrategy() { return strategy; }  // 获取策略
     public void setStrategy(AIStrategy strategy) { this.strategy = Objects.requireNonNull(strategy); }  // 设置策略
+    /** 为所有AI的残局求解设置残局库，为 null 时不查表 */
+    public static void setTablebase(Tablebase tablebase) { ENDGAME_SOLVER.setTablebase(tablebase); }
+    public int getEndgameThreshold() { return endgameThreshold; }
+    public void setEndgameThreshold(int threshold) { this.endgameThreshold = Math.max(threshold, 0); }  // 0 表示不使用残局求解
+    /** 是否在别人的回合预先思考；策略实例不能与其他 AIPlayer 共用 */
+    public boolean isPondering() { return pondering; }
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (!pondering) ponderer.cancel();
+    }
+    /** 轮到自己时用上预先思考结果的次数 */
+    public long getPonderHits() { return ponderer.getHits(); }
+    /** 轮到自己时没有可用的预先思考结果的次数 */
+    public long getPonderMisses() { return ponderer.getMisses(); }
 
     /**
      * Core AI decision method – thread‑safe, no side‑effects outside Player's own lock.
      */
     public List<Card> makeDecision(CardPattern lastPattern, List<Integer> othersCount) {
-        // snapshot hand for strategy (immutable)
-        List<Card> handSnapshot = getHand();  // 获取手牌快照
-        List<Card> decision = strategy.makeMove(new ArrayList<>(handSnapshot), lastPattern, othersCount);  // 做出决策
+        return makeDecision(lastPattern, othersCount, CardSet.EMPTY);
+    }
+
+    /**
+     * @param othersCount 其他玩家剩余张数，从下家开始按出牌顺序排列
+     * @param playedCards 本局已经打出的牌
+     */
+    public List<Card> makeDecision(CardPattern lastPattern, List<Integer> othersCount, CardSet playedCards) {
+        // snapshot hand for strategy (immutable bitmask, no list copy)
+        return makeDecision(new DecisionContext(getHandSet(), lastPattern, othersCount, playedCards));
+    }
+
+    /**
+     * @param context 本次决策的信息，其中的手牌应为当前手牌的快照
+     */
+    public List<Card> makeDecision(DecisionContext context) {
+        List<Card> decision = quickDecision(context);
+        List<Card> pondered = pondering ? ponderer.take(context) : null;  // 同时让预先思考停下
+        if (decision == null) {
+            decision = pondered != null ? pondered : strategy.makeMove(withAnalysis(context));  // 做出决策
+        }
+        return applyDecision(decision);
+    }
+
+    /**
+     * 异步决策：策略在 executor 上执行，到截止时间或被取消时停止搜索（见 {@link AIStrategy#makeMoveAsync}）
+     * @param deadlineNanos 截止时刻（{@link System#nanoTime()} 的取值）
+     * @return 选中的牌，pass 时为空列表；取消时以 {@link java.util.concurrent.CancellationException} 结束，不改变选中的牌
+     */
+    public CompletableFuture<List<Card>> makeDecisionAsync(DecisionContext context, long deadlineNanos,
+                                                           CancellationToken token, Executor executor) {
+        List<Card> quick = quickDecision(context);
+        CompletableFuture<List<Card>> decision;
+        if (pondering) { // 等预先思考停下（局面与预测一致时取其结果）之后再决策，不阻塞调用线程
+            decision = CompletableFuture.supplyAsync(() -> ponderer.take(context), executor)
+                    .thenCompose(pondered -> quick != null ? CompletableFuture.completedFuture(quick)
+                            : pondered != null ? CompletableFuture.completedFuture(pondered)
+                            : strategy.makeMoveAsync(withAnalysis(context), deadlineNanos, token, executor));
+        } else {
+            decision = quick != null ? CompletableFuture.completedFuture(quick)
+                    : strategy.makeMoveAsync(withAnalysis(context), deadlineNanos, token, executor);
+        }
+        return decision.thenApply(cards -> {
+            if (token.isCancelled()) throw new CancellationException("决策已取消");
+            return applyDecision(cards);
+        });
+    }
 
+    /**
+     * 不需要调用策略就能决定的情况：没有牌能压过上一手时不出（空列表），残局能算出必胜时用必胜走法；
+     * 其余情况返回 null
+     */
+    private List<Card> quickDecision(DecisionContext context) {
+        CardPattern lastPattern = context.getLastPattern();
+        if (lastPattern != null && !hasBeatingPlay(context.getHand().bits(), lastPattern)) {
+            return Collections.emptyList();
+        }
+        return solveEndgame(context);
+    }
+
+    /**
+     * 手牌没变过时附带增量维护的分析。附带的是在锁内复制的副本：
+     * 策略在锁外读它，期间手牌变化时 {@link #onHandChanged} 可能正在更新原来的分析
+     */
+    private DecisionContext withAnalysis(DecisionContext context) {
+        if (context.getAnalysis() != null) return context;
+        synchronized (analysis) {
+            if (analysis.hand() != context.getHand().bits()) return context;
+            return context.withAnalysis(new HandAnalysis().copyFrom(analysis));
+        }
+    }
+
+    /** 选中决策的牌，返回实际选中的牌 */
+    private List<Card> applyDecision(List<Card> decision) {
         if (decision == null || decision.isEmpty()) {
             clearSelections();
             return Collections.emptyList();
@@ -36,23 +132,66 @@ public class AIPlayer extends Player {
         return getSelectedCards();
     }
 
-    /* ---------- helpers ---------- */
-    private void selectCards(List<Card> cardsToSelect) {
-        clearSelections();  // 清空选中
-        for (Card target : cardsToSelect) {
-            int idx = indexOfCard(target);  // 获取目标卡牌的索引
-            if (idx >= 0) toggleCardSelection(idx);  // 如果索引大于等于0，则切换选中状态
-            else LOG.fine(() -> "AI could not find card: " + target.getDisplayName());  // 否则，记录日志
+    /**
+     * 手牌中是否有出牌能压过给定牌型；二分查找，不重新扫描手牌
+     */
+    public boolean hasBeatingPlay(CardPattern lastPattern) {
+        return hasBeatingPlay(getHandSet().bits(), lastPattern);
+    }
+
+    private boolean hasBeatingPlay(long hand, CardPattern lastPattern) {
+        synchronized (beatsIndex) {
+            if (beatsIndex.hand() != hand) beatsIndex.rebuild(hand);
+            return beatsIndex.hasBeating(lastPattern.getStrengthKey());
         }
     }
 
-    private int indexOfCard(Card target) {
-        List<Card> hand = getHand();  // 获取手牌
-        for (int i = 0; i < hand.size(); i++) {
-            Card c = hand.get(i);
-            if (c.getRank() == target.getRank() && c.getSuit() == target.getSuit()) return i;  // 如果卡牌的rank和suit与目标卡牌相同，则返回索引
+    @Override
+    protected void onHandChanged(long oldHand, long newHand) {
+        synchronized (beatsIndex) {
+            if (oldHand == beatsIndex.hand() && (newHand & ~oldHand) == 0L) {
+                beatsIndex.remove(oldHand & ~newHand);  // 只出了牌：删掉用到这些牌的候选
+            } else {
+                beatsIndex.rebuild(newHand);
+            }
+        }
+        synchronized (analysis) {
+            if (oldHand == analysis.hand() && (newHand & ~oldHand) == 0L) {
+                analysis.remove(oldHand & ~newHand);  // 只重算出掉的牌涉及的点数和花色
+            } else {
+                analysis.reset(newHand);
+            }
+        }
+    }
+
+    /**
+     * 只剩一个对手且其手牌可以完全推断（看不到的牌恰好都在对手手中）、
+     * 双方张数都不超过阈值时精确求解；必胜时返回必胜走法（pass 为空列表），否则返回 null 交给策略
+     */
+    private List<Card> solveEndgame(DecisionContext context) {
+        int threshold = endgameThreshold;
+        CardSet hand = context.getHand();
+        List<Integer> othersCount = context.getOthersCount();
+        if (othersCount.size() != 1) return null;
+        int opponentCount = othersCount.get(0);
+        if (hand.size() > threshold || opponentCount > threshold) return null;
+
+        long opponent = context.unseen();
+        if (Long.bitCount(opponent) != opponentCount) return null;
+
+        int lastKey = context.getLastKey();
+        if (!ENDGAME_SOLVER.isWin(hand.bits(), opponent, lastKey)) return null;
+        long move = ENDGAME_SOLVER.bestMove(hand.bits(), opponent, lastKey);
+        return move == EndgameSolver.PASS ? Collections.emptyList() : CardSet.ofBits(move).toList();
+    }
+
+    /* ---------- helpers ---------- */
+    private void selectCards(List<Card> cardsToSelect) {
+        CardSet wanted = CardSet.of(cardsToSelect);
+        CardSet selected = selectCards(wanted);  // 按位掩码一次性选中
+        if (!selected.equals(wanted)) {
+            LOG.fine(() -> "AI could not find cards: " + wanted.difference(selected));  // 否则，记录日志
         }
-        return -1;  // 否则，返回-1
     }
 
     /**
@@ -63,18 +202,53 @@ public class AIPlayer extends Player {
     public boolean autoPlay(Game game) {
         if (game == null) return false;
 
-        // 获取其他玩家手牌数量
-        List<Integer> othersCount = new ArrayList<>();
-        for (Player p : game.getPlayers()) {
-            if (p != this) {
-                othersCount.add(p.getHand().size());
-            }
-        }
-
-        // 做出决策
-        makeDecision(game.getLastPattern(), othersCount);
+        // 做出决策，策略可以通过记牌器查询已出的牌和 pass 记录
+        makeDecision(contextFor(game));
 
         // 尝试出牌
         return game.playSelected();
     }
+
+    /**
+     * 异步执行AI自动出牌：决策在 executor 上进行，限定截止时间；
+     * token 被取消（例如游戏重置或结束）时不再出牌，返回的 future 以取消结束
+     * @param deadlineNanos 截止时刻（{@link System#nanoTime()} 的取值）
+     * @return 是否成功出牌
+     */
+    public CompletableFuture<Boolean> autoPlayAsync(Game game, long deadlineNanos, CancellationToken token,
+                                                   Executor executor) {
+        if (game == null) return CompletableFuture.completedFuture(false);
+        return makeDecisionAsync(contextFor(game), deadlineNanos, token, executor)
+                .thenApply(cards -> game.playSelected(token));
+    }
+
+    /**
+     * 别人的回合里开始预先思考：预测轮到自己时的局面并在 executor 上提前搜索，作废之前的预先思考；
+     * 没有开启时不做事；已经轮到自己时保留现有的预测；不在对局中时作废预先思考
+     */
+    public void ponder(Game game, Executor executor) {
+        if (!pondering || game == null) return;
+        List<Player> players = game.getPlayers();
+        int self = players.indexOf(this);
+        int current = players.indexOf(game.getCurrentPlayer());
+        if (game.getState() != Game.State.PLAYING || self < 0 || current < 0 || getCardCount() == 0) {
+            ponderer.cancel();
+            return;
+        }
+        if (current == self) return; // 留着预测给这次决策用
+        int toMove = (current - self + players.size()) % players.size();
+        ponderer.start(strategy, contextFor(game), toMove, executor, game.getDecisionToken());
+    }
+
+    /** 当前对局中自己的决策信息 */
+    private DecisionContext contextFor(Game game) {
+        // 获取其他玩家手牌数量，从下家开始按出牌顺序排列
+        List<Player> players = game.getPlayers();
+        int self = players.indexOf(this);
+        List<Integer> othersCount = new ArrayList<>();
+        for (int i = 1; i < players.size(); i++) {
+            othersCount.add(players.get((self + i) % players.size()).getCardCount());
+        }
+        return new DecisionContext(getHandSet(), game.getLastPattern(), othersCount, game.getCardTracker(), self);
+    }
 }
@@ -1,6 +1,10 @@
 package models;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * AI策略接口，定义AI玩家的决策行为
@@ -15,7 +19,87 @@ public interface AIStrategy {
      * @return 选择要出的牌，若不出则返回空列表
      */
     List<Card> makeMove(List<Card> aiHand, CardPattern lastPattern, List<Integer> otherPlayersCardCount);
-    
+
+    /**
+     * 以位掩码形式接收手牌的版本，默认转换为有序列表后调用 {@link #makeMove(List, CardPattern, List)}
+     *
+     * @param aiHand AI玩家的手牌
+     * @param lastPattern 上一个玩家出的牌型，若为null则表示可以自由出牌
+     * @param otherPlayersCardCount 其他玩家的手牌数量
+     * @return 选择要出的牌，若不出则返回空列表
+     */
+    default List<Card> makeMove(CardSet aiHand, CardPattern lastPattern, List<Integer> otherPlayersCardCount) {
+        return makeMove(aiHand.toList(), lastPattern, otherPlayersCardCount);
+    }
+
+    /**
+     * 额外知道本局已出牌的版本，需要推断对手手牌的策略（如 {@link MonteCarloAIStrategy}）会用到，
+     * 默认忽略已出的牌
+     *
+     * @param aiHand AI玩家的手牌
+     * @param playedCards 本局已经打出的牌
+     * @param lastPattern 上一个玩家出的牌型，若为null则表示可以自由出牌
+     * @param otherPlayersCardCount 其他玩家的手牌数量，从下家开始按出牌顺序排列
+     * @return 选择要出的牌，若不出则返回空列表
+     */
+    default List<Card> makeMove(CardSet aiHand, CardSet playedCards, CardPattern lastPattern,
+                                List<Integer> otherPlayersCardCount) {
+        return makeMove(aiHand, lastPattern, otherPlayersCardCount);
+    }
+
+    /**
+     * 带完整决策信息的版本，可以通过 {@link DecisionContext#getTracker()} 查询记牌器；
+     * {@link AIPlayer} 调用的是这个方法，默认转调 {@link #makeMove(CardSet, CardSet, CardPattern, List)}
+     *
+     * @param context 本次决策的信息
+     * @return 选择要出的牌，若不出则返回空列表
+     */
+    default List<Card> makeMove(DecisionContext context) {
+        return makeMove(context.getHand(), context.getPlayedCards(), context.getLastPattern(),
+                context.getOthersCount());
+    }
+
+    /**
+     * 限定截止时间、可以取消的版本：搜索类策略到截止时间或被取消时停止搜索，返回已经找到的最好出牌；
+     * 默认忽略这两个参数，转调 {@link #makeMove(DecisionContext)}
+     *
+     * @param context 本次决策的信息
+     * @param deadlineNanos 截止时刻（{@link System#nanoTime()} 的取值），{@link Long#MAX_VALUE} 表示不限
+     * @param token 取消标记
+     * @return 选择要出的牌，若不出则返回空列表
+     */
+    default List<Card> makeMove(DecisionContext context, long deadlineNanos, CancellationToken token) {
+        return makeMove(context);
+    }
+
+    /**
+     * 异步版本：在 executor 上执行 {@link #makeMove(DecisionContext, long, CancellationToken)}
+     * 取消时返回的 future 立即以 {@link CancellationException} 结束，后台的搜索由策略自行尽快停止
+     *
+     * @param executor 执行决策的线程池
+     * @return 决策结果，若不出则为空列表
+     */
+    default CompletableFuture<List<Card>> makeMoveAsync(DecisionContext context, long deadlineNanos,
+                                                        CancellationToken token, Executor executor) {
+        CompletableFuture<List<Card>> future = new CompletableFuture<>();
+        Runnable onCancel = () -> future.cancel(false);
+        token.onCancel(onCancel);
+        future.whenComplete((cards, error) -> token.removeCallback(onCancel));
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) return;
+                try {
+                    future.complete(makeMove(context, deadlineNanos, token));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * 获取策略名称
      */
@@ -11,9 +11,45 @@ import java.util.stream.Collectors;
  * 3. 增强的牌型评估和风险判断机制
  */
 public class AdvancedAIStrategy implements AIStrategy {
-    private final PatternValidator validator = new PatternValidatorImpl();
+    private final PatternValidator validator;
+    private final AIParameters parameters;
+    private final HandDecomposer decomposer = new HandDecomposer(); // 缓存随手牌变少继续复用
+    private final MoveList plan = new MoveList(16);
+    private long plannedHand = -1L; // plan 对应的手牌
+    private final HandAnalysis ownAnalysis = new HandAnalysis(); // 决策信息没有附带分析时自己分析
+    private HandAnalysis analysis = ownAnalysis; // 本次决策读取的分析
+    private final ControlAnalyzer control = new ControlAnalyzer();
+    private final HandEvaluator evaluator = HandEvaluator.shared();
+    private final MoveList winningSequence = new MoveList(16);
     private boolean shouldBlock = false; // 跟踪是否需要封锁下家
 
+    public AdvancedAIStrategy() {
+        this(new HistogramPatternValidator());
+    }
+
+    /**
+     * @param validator 判定同花顺候选能否按同花顺出的验证器
+     */
+    public AdvancedAIStrategy(PatternValidator validator) {
+        this(validator, AIParameters.DEFAULT);
+    }
+
+    /**
+     * @param parameters 封锁、用炸弹、激进出牌的阈值
+     */
+    public AdvancedAIStrategy(AIParameters parameters) {
+        this(new HistogramPatternValidator(), parameters);
+    }
+
+    public AdvancedAIStrategy(PatternValidator validator, AIParameters parameters) {
+        this.validator = Objects.requireNonNull(validator);
+        this.parameters = Objects.requireNonNull(parameters);
+    }
+
+    public AIParameters getParameters() {
+        return parameters;
+    }
+
     @Override
     public String getName() {
         return "Advanced AI";
@@ -32,18 +68,56 @@ public class AdvancedAIStrategy implements AIStrategy {
         if (handSnapshot == null || handSnapshot.isEmpty())
             return Collections.emptyList();
 
-        handSnapshot.sort(null);
+        return decide(ownAnalysis.reset(CardSet.maskOf(handSnapshot)), lastPattern, othersCount);
+    }
+
+    /**
+     * 位掩码版本：直接分析位掩码，不展开成列表
+     */
+    @Override
+    public List<Card> makeMove(CardSet hand, CardPattern lastPattern, List<Integer> othersCount) {
+        if (hand == null || hand.isEmpty())
+            return Collections.emptyList();
+        return decide(ownAnalysis.reset(hand.bits()), lastPattern, othersCount);
+    }
+
+    /**
+     * 剩下的牌能用对手压不住的大牌依次出完时直接按这个顺序出，否则按常规策略决策；
+     * 决策信息附带了手牌分析（{@link AIPlayer} 增量维护）时直接使用，不再重新分析
+     */
+    @Override
+    public List<Card> makeMove(DecisionContext context) {
+        CardSet hand = context.getHand();
+        List<Integer> othersCount = context.getOthersCount();
+        if (!hand.isEmpty() && !othersCount.isEmpty()) {
+            control.reset(context.unseen(), Collections.max(othersCount));
+            if (control.findWinningSequence(hand.bits(), context.getLastKey(), winningSequence)) {
+                return winningSequence.toCards(0);
+            }
+        }
+        HandAnalysis shared = context.getAnalysis();
+        if (shared != null && !hand.isEmpty()) {
+            return decide(shared, context.getLastPattern(), othersCount);
+        }
+        return AIStrategy.super.makeMove(context);
+    }
+
+    /**
+     * 在分析好的手牌上做出决策，之后各个选牌方法都从 analysis 中读取
+     */
+    private List<Card> decide(HandAnalysis hand, CardPattern lastPattern, List<Integer> othersCount) {
+        analysis = hand;
 
         // 更新封锁状态
         updateBlockStatus(othersCount);
 
         // 首轮出牌策略
         if (lastPattern == null) {
-            return firstMove(handSnapshot);
+            return firstMove();
         }
 
         // 跟牌策略
-        return followMove(handSnapshot, lastPattern, othersCount);
+        return followMove(lastPattern, othersCount);
     }
 
     /**
@@ -57,80 +131,75 @@ public class AdvancedAIStrategy implements AIStrategy {
 
         // 获取下家的手牌数量（假设下家是othersCount列表中的第一个元素）
         int nextPlayerCards = othersCount.get(0);
-        shouldBlock = nextPlayerCards == 1;
+        shouldBlock = nextPlayerCards <= parameters.get(AIParameters.BLOCK_NEXT_CARDS);
     }
 
     /**
-     * 首轮出牌策略 - 优化五张牌型的主动出牌
+     * 首轮出牌策略 - 按最优拆分出牌，不拆散三带二、顺子等整体牌型
      */
-    private List<Card> firstMove(List<Card> hand) {
-        // 1. 尝试寻找高价值的五张牌型
-        List<Card> fiveCardPattern = findBestFiveCardPattern(hand);
-        if (!fiveCardPattern.isEmpty()) {
-            return fiveCardPattern;
+    private List<Card> firstMove() {
+        long bits = decompose();
+
+        // 1. 持有方块3时必须带上它，出拆分中包含方块3的那一手
+        if ((bits & MoveGenerator.DIAMOND_THREE) != 0L) {
+            return plan.toCards(planIndexContaining(MoveGenerator.DIAMOND_THREE));
         }
 
-        // 2. 常规逻辑：检查方块3及对子
-        int idx = indexOfCard(hand, Card.DIAMOND, Card.THREE);
-        if (idx >= 0) {
-            Card d3 = hand.get(idx);
-            List<Card> pair3 = cardsWithRank(hand, Card.THREE, 2);
-            if (!pair3.isEmpty())
-                return pair3;
-            List<Card> straight = findStraightIncluding(hand, d3);
-            if (!straight.isEmpty())
-                return straight;
-            List<Card> potentialSingle = findPotentialSingle(hand);
-            if (!potentialSingle.isEmpty())
-                return potentialSingle;
-            return List.of(d3);
+        // 2. 尝试拆分中价值最高的五张牌型
+        List<Card> fiveCardPattern = findBestFiveCardPattern();
+        if (!fiveCardPattern.isEmpty()) {
+            return fiveCardPattern;
         }
 
-        return List.of(hand.get(0));
+        // 3. 出包含最小牌的那一手（对子不会被拆成单张）
+        return plan.toCards(planIndexContaining(Long.lowestOneBit(bits)));
     }
 
-    private List<Card> findPotentialSingle(List<Card> hand) {
-        // 统计每种点数的牌出现次数
-        Map<Integer, Integer> rankCount = new HashMap<>();
-        for (Card card : hand) {
-            rankCount.put(card.getRank(), rankCount.getOrDefault(card.getRank(), 0) + 1);
+    /**
+     * 求出手牌的最优拆分，结果放在 plan 中；同一手牌只拆一次
+     * @return 手牌位掩码
+     */
+    private long decompose() {
+        long bits = analysis.hand();
+        if (bits != plannedHand) {
+            decomposer.decompose(bits, plan);
+            plannedHand = bits;
         }
+        return bits;
+    }
 
-        // 优先选择有同点数其他牌的单牌
-        for (Card card : hand) {
-            if (rankCount.get(card.getRank()) > 1) {
-                return List.of(card);
-            }
+    private int planIndexContaining(long card) {
+        for (int i = 0; i < plan.size(); i++) {
+            if ((plan.cards(i) & card) != 0L) return i;
         }
-
-        return Collections.emptyList();
+        throw new IllegalStateException("拆分结果未覆盖全部手牌");
     }
 
     /**
      * 跟牌策略 - 增强封锁逻辑
      */
-    private List<Card> followMove(List<Card> hand, CardPattern last, List<Integer> othersCount) {
+    private List<Card> followMove(CardPattern last, List<Integer> othersCount) {
         // 如果是AI主动出牌（lastPattern由AI自己打出），且处于封锁模式
         if (last != null && shouldBlock) {
-            return makeBlockMove(hand, othersCount);
+            return makeBlockMove();
         }
 
         // 正常跟牌逻辑
         switch (last.getPatternType()) {
             case CardPattern.SINGLE:
-                return beatSingle(hand, last.getHighestCard(), othersCount);
+                return beatSingle(last.getHighestCard(), othersCount);
             case CardPattern.PAIR:
-                return beatPair(hand, last, othersCount);
+                return beatPair(last, othersCount);
             case CardPattern.STRAIGHT:
-                return beatStraight(hand, last, othersCount);
+                return beatStraight(last, othersCount);
             case CardPattern.FLUSH:
-                return beatFlush(hand, last, othersCount);
+                return beatFlush(last, othersCount);
             case CardPattern.THREE_WITH_PAIR:
-                return beatThreeWithPair(hand, last, othersCount);
+                return beatThreeWithPair(last, othersCount);
             case CardPattern.BOMB:
-                return beatBomb(hand, last, othersCount);
+                return beatBomb(last, othersCount);
             case CardPattern.FLUSH_STRAIGHT:
-                return beatFlushStraight(hand, last, othersCount);
+                return beatFlushStraight(last);
             default:
                 return Collections.emptyList();
         }
@@ -139,28 +208,27 @@ public class AdvancedAIStrategy implements AIStrategy {
     /**
      * 封锁模式下的出牌策略
      */
-    private List<Card> makeBlockMove(List<Card> hand, List<Integer> othersCount) {
+    private List<Card> makeBlockMove() {
         // 1. 优先出多张牌型
-        List<Card> fiveCardPattern = findBestFiveCardPattern(hand);
+        List<Card> fiveCardPattern = findBestFiveCardPattern();
         if (!fiveCardPattern.isEmpty()) {
             return fiveCardPattern;
         }
 
         // 2. 尝试出对子
-        List<List<Card>> pairs = sortedPairs(hand);
+        MoveList pairs = analysis.pairs();
         if (!pairs.isEmpty()) {
-            return pairs.get(pairs.size() - 1); // 最大的对子
+            return pairs.toCards(pairs.size() - 1); // 最大的对子
         }
 
         // 3. 尝试出三条（如果规则允许）
-        List<List<Card>> threes = findThrees(hand);
-        if (!threes.isEmpty()) {
-            return threes.get(0); // 最大的三条
+        if (analysis.threeCount() > 0) {
+            return CardSet.ofBits(analysis.three(0)).toList(); // 最大的三条
         }
 
         // 4. 只能出单张时，出最大的单张
-        if (!hand.isEmpty()) {
-            return List.of(hand.get(hand.size() - 1)); // 最大的单牌
+        if (analysis.hand() != 0L) {
+            return toCards(Long.highestOneBit(analysis.hand())); // 最大的单牌
         }
 
         return Collections.emptyList();
@@ -169,148 +237,110 @@ public class AdvancedAIStrategy implements AIStrategy {
     /**
      * 应对单牌的策略 - 增强封锁逻辑
      */
-    private List<Card> beatSingle(List<Card> hand, Card target, List<Integer> othersCount) {
-        CardPattern targetPattern = new CardPattern(CardPattern.SINGLE, List.of(target), target);
-        List<Card> potentialBeats = new ArrayList<>();
-
-        for (Card c : hand) {
-            CardPattern cardPattern = new CardPattern(CardPattern.SINGLE, List.of(c), c);
-            if (cardPattern.canBeat(targetPattern)) {
-                potentialBeats.add(c);
-            }
-        }
+    private List<Card> beatSingle(Card target, List<Integer> othersCount) {
+        long potentialBeats = analysis.hand() & -(2L << target.getId()); // 比目标大的单牌
 
-        if (!potentialBeats.isEmpty()) {
+        if (potentialBeats != 0L) {
             // 封锁模式：出最大的单牌
             if (shouldBlock) {
-                return Collections.singletonList(potentialBeats.get(potentialBeats.size() - 1));
+                return toCards(Long.highestOneBit(potentialBeats));
             }
 
             // 正常模式：选择最优单牌
-            return Collections.singletonList(chooseBestSingle(potentialBeats, hand, othersCount));
+            return toCards(chooseBestSingle(potentialBeats, othersCount));
         }
 
-        return fallbackPowerPlays(hand, othersCount);
+        return fallbackPowerPlays(othersCount);
     }
 
     /**
      * 应对对子的策略 - 增强封锁逻辑
      */
-    private List<Card> beatPair(List<Card> hand, CardPattern tgt, List<Integer> othersCount) {
-        List<List<Card>> pairs = sortedPairs(hand);
-        pairs.sort(Comparator.comparing(l -> l.get(1)));
+    private List<Card> beatPair(CardPattern tgt, List<Integer> othersCount) {
+        MoveList pairs = analysis.pairs();
 
         // 封锁模式：优先选择较大的对子
-        if (shouldBlock && !pairs.isEmpty()) {
-            for (int i = pairs.size() - 1; i >= 0; i--) {
-                List<Card> pair = pairs.get(i);
-                CardPattern pairPattern = new CardPattern(CardPattern.PAIR, pair, pair.get(1));
-                if (pairPattern.canBeat(tgt)) {
-                    return pair;
-                }
-            }
+        if (shouldBlock) {
+            int i = highestBeating(pairs, tgt);
+            if (i >= 0) return pairs.toCards(i);
         }
 
         // 正常模式：选择刚好能大过的最小对子
-        for (List<Card> pair : pairs) {
-            CardPattern pairPattern = new CardPattern(CardPattern.PAIR, pair, pair.get(1));
-            if (pairPattern.canBeat(tgt)) {
-                return pair;
-            }
-        }
+        int i = lowestBeating(pairs, tgt);
+        if (i >= 0) return pairs.toCards(i);
 
-        return fallbackPowerPlays(hand, othersCount);
+        return fallbackPowerPlays(othersCount);
     }
 
     /**
      * 应对顺子的策略 - 增强封锁逻辑
      */
-    private List<Card> beatStraight(List<Card> hand, CardPattern tgt, List<Integer> othersCount) {
-        List<List<Card>> straights = sortedStraights(hand);
-        straights.sort(Comparator.comparing(s -> s.get(4)));
+    private List<Card> beatStraight(CardPattern tgt, List<Integer> othersCount) {
+        MoveList straights = analysis.straights();
 
         // 封锁模式：优先选择较大的顺子
-        if (shouldBlock && !straights.isEmpty()) {
-            for (int i = straights.size() - 1; i >= 0; i--) {
-                List<Card> straight = straights.get(i);
-                CardPattern straightPattern = new CardPattern(CardPattern.STRAIGHT, straight, straight.get(4));
-                if (straightPattern.canBeat(tgt)) {
-                    return straight;
-                }
-            }
+        if (shouldBlock) {
+            int i = highestBeating(straights, tgt);
+            if (i >= 0) return straights.toCards(i);
         }
 
         // 正常模式：选择中间大小的顺子
-        for (List<Card> straight : straights) {
-            CardPattern straightPattern = new CardPattern(CardPattern.STRAIGHT, straight, straight.get(4));
-            if (straightPattern.canBeat(tgt)) {
-                return straight;
-            }
-        }
+        int i = lowestBeating(straights, tgt);
+        if (i >= 0) return straights.toCards(i);
 
-        return fallbackPowerPlays(hand, othersCount);
+        return fallbackPowerPlays(othersCount);
     }
 
     /**
      * 应对同花的策略
      */
-    private List<Card> beatFlush(List<Card> hand, CardPattern tgt, List<Integer> othersCount) {
-        List<List<Card>> flushes = sortedFlushes(hand);
-        flushes.sort(Comparator.comparing(s -> s.get(4)));
-
-        for (List<Card> flush : flushes) {
-            CardPattern flushPattern = new CardPattern(CardPattern.FLUSH, flush, flush.get(4));
-            if (flushPattern.canBeat(tgt)) {
-                return flush;
-            }
-        }
+    private List<Card> beatFlush(CardPattern tgt, List<Integer> othersCount) {
+        MoveList flushes = analysis.flushes();
+        int i = lowestBeating(flushes, tgt);
+        if (i >= 0) return flushes.toCards(i);
 
-        return fallbackPowerPlays(hand, othersCount);
+        return fallbackPowerPlays(othersCount);
     }
 
     /**
      * 应对三带二的策略
      */
-    private List<Card> beatThreeWithPair(List<Card> hand, CardPattern tgt, List<Integer> othersCount) {
-        for (List<Card> t : threeWithPairs(hand)) {
-            CardPattern twpPattern = new CardPattern(CardPattern.THREE_WITH_PAIR, t, t.get(2));
-            if (twpPattern.canBeat(tgt)) {
-                return t;
-            }
-        }
+    private List<Card> beatThreeWithPair(CardPattern tgt, List<Integer> othersCount) {
+        MoveList threeWithPairs = analysis.threeWithPairs();
+        int i = lowestBeating(threeWithPairs, tgt);
+        if (i >= 0) return threeWithPairs.toCards(i);
 
-        return fallbackPowerPlays(hand, othersCount);
+        return fallbackPowerPlays(othersCount);
     }
 
     /**
      * 应对炸弹的策略
      */
-    private List<Card> beatBomb(List<Card> hand, CardPattern tgt, List<Integer> othersCount) {
-        List<List<Card>> bombs = sortedBombs(hand);
+    private List<Card> beatBomb(CardPattern tgt, List<Integer> othersCount) {
+        MoveList bombs = analysis.bombs();
 
-        for (List<Card> b : bombs) {
-            CardPattern bombPattern = new CardPattern(CardPattern.BOMB, b, b.get(3));
-            if (bombPattern.canBeat(tgt)) {
+        for (int i = 0; i < bombs.size(); i++) {
+            if (CardPattern.beats(bombs.key(i), tgt.getStrengthKey())) {
                 // 封锁模式下更倾向于使用炸弹
-                if (shouldBlock || shouldUseBomb(othersCount)) {
-                    return b;
+                if (shouldBlock || shouldUseBomb(bombs.cards(i), othersCount)) {
+                    return bombs.toCards(i);
                 }
             }
         }
 
-        return findAnyFlushStraight(hand);
+        return findAnyFlushStraight();
     }
 
     /**
      * 应对同花顺的策略
      */
-    private List<Card> beatFlushStraight(List<Card> hand, CardPattern tgt, List<Integer> othersCount) {
-        List<List<Card>> flushStraights = sortedFlushStraights(hand);
+    private List<Card> beatFlushStraight(CardPattern tgt) {
+        MoveList flushStraights = analysis.flushStraights();
 
-        for (List<Card> fs : flushStraights) {
-            CardPattern fsPattern = new CardPattern(CardPattern.FLUSH_STRAIGHT, fs, fs.get(4));
-            if (fsPattern.canBeat(tgt)) {
-                return fs;
+        for (int i = 0; i < flushStraights.size(); i++) {
+            if (isFlushStraight(flushStraights.cards(i))
+                    && CardPattern.beats(flushStraights.key(i), tgt.getStrengthKey())) {
+                return flushStraights.toCards(i);
             }
         }
 
@@ -320,298 +350,148 @@ public class AdvancedAIStrategy implements AIStrategy {
     /**
      * 当无法跟牌时的备选策略
      */
-    private List<Card> fallbackPowerPlays(List<Card> hand, List<Integer> othersCount) {
-        // 尝试使用炸弹
-        List<Card> bomb = findAnyBomb(hand);
-        if (!bomb.isEmpty() && shouldUseBomb(othersCount)) {
-            return bomb;
+    private List<Card> fallbackPowerPlays(List<Integer> othersCount) {
+        // 尝试使用炸弹（点数最小的一个）
+        MoveList bombs = analysis.bombs();
+        if (!bombs.isEmpty() && shouldUseBomb(bombs.cards(0), othersCount)) {
+            return bombs.toCards(0);
         }
 
         // 尝试使用同花顺
-        List<Card> flushStraight = findAnyFlushStraight(hand);
-        if (!flushStraight.isEmpty()) {
-            return flushStraight;
-        }
-
-        return Collections.emptyList();
+        return findAnyFlushStraight();
     }
 
     /**
-     * 判断是否应该使用炸弹
+     * 判断是否应该使用炸弹：有对手快出完时用；
+     * 否则看炸完之后（自己拿到出牌权）剩下的牌是否很快就能出完，或稍多几手但还有控制牌
+     * （默认参数下为一手出完，或两手出完且有控制牌）
      */
-    private boolean shouldUseBomb(List<Integer> othersCount) {
+    private boolean shouldUseBomb(long bomb, List<Integer> othersCount) {
         if (othersCount == null || othersCount.isEmpty())
             return false;
 
         // 当其他玩家手牌很少时，倾向于使用炸弹
         for (int count : othersCount) {
-            if (count <= 2)
+            if (count <= parameters.get(AIParameters.BOMB_OPPONENT_CARDS))
                 return true;
         }
 
-        return false;
+        long rest = analysis.hand() & ~bomb;
+        if (rest == 0L)
+            return true;
+        int eval = evaluator.evaluate(rest);
+        int plays = HandEvaluator.playsOf(eval);
+        return plays <= parameters.get(AIParameters.BOMB_MAX_PLAYS)
+                || (plays <= parameters.get(AIParameters.BOMB_CONTROL_PLAYS)
+                    && HandEvaluator.controlsOf(eval) >= parameters.get(AIParameters.BOMB_MIN_CONTROLS));
     }
 
     /**
-     * 寻找最优的五张牌型（按优先级：同花顺 > 炸弹 > 同花 > 顺子）
+     * 从最优拆分中寻找价值最高的五张牌型（按优先级：同花顺 > 炸弹 > 三带二 > 同花 > 顺子），
+     * 同档次时出较小的一手
      */
-    private List<Card> findBestFiveCardPattern(List<Card> hand) {
-        // 1. 检查同花顺
-        List<Card> flushStraight = findAnyFlushStraight(hand);
-        if (!flushStraight.isEmpty()) {
-            return flushStraight;
-        }
-
-        // 2. 检查炸弹（四张相同点数 + 任意一张）
-        List<Card> bomb = findAnyBomb(hand);
-        if (bomb.size() == 4) {
-            List<Card> fullBomb = new ArrayList<>(bomb);
-            // 找一张最小的单牌搭配炸弹
-            for (Card c : hand) {
-                if (!bomb.contains(c)) {
-                    fullBomb.add(c);
-                    return fullBomb;
-                }
+    private List<Card> findBestFiveCardPattern() {
+        if (analysis.size() < 5) return Collections.emptyList();
+        decompose();
+
+        int best = -1;
+        for (int i = 0; i < plan.size(); i++) {
+            if (Long.bitCount(plan.cards(i)) != 5) continue;
+            if (best < 0 || fiveCardRank(plan.patternType(i)) > fiveCardRank(plan.patternType(best))) {
+                best = i; // plan 按强度键升序，同档次保留先出现的较小者
             }
         }
-
-        // 3. 检查同花
-        List<List<Card>> flushes = sortedFlushes(hand);
-        if (!flushes.isEmpty()) {
-            return flushes.get(0);
-        }
-
-        // 4. 检查顺子
-        List<List<Card>> straights = sortedStraights(hand);
-        if (!straights.isEmpty()) {
-            return straights.get(0);
-        }
-
-        return Collections.emptyList();
+        return best < 0 ? Collections.emptyList() : plan.toCards(best);
     }
 
-    // 以下是辅助方法，用于手牌分析和牌型识别
-
-    private int indexOfCard(List<Card> hand, int suit, int rank) {
-        for (int i = 0; i < hand.size(); i++) {
-            Card c = hand.get(i);
-            if (c.getSuit() == suit && c.getRank() == rank)
-                return i;
+    private static int fiveCardRank(int patternType) {
+        switch (patternType) {
+            case CardPattern.FLUSH_STRAIGHT: return 5;
+            case CardPattern.BOMB: return 4;
+            case CardPattern.THREE_WITH_PAIR: return 3;
+            case CardPattern.FLUSH: return 2;
+            case CardPattern.STRAIGHT: return 1;
+            default: return 0;
         }
-        return -1;
     }
 
-    private List<Card> cardsWithRank(List<Card> hand, int rank, int count) {
-        List<Card> out = new ArrayList<>();
-        for (Card c : hand)
-            if (c.getRank() == rank && out.size() < count)
-                out.add(c);
-        return out.size() == count ? out : Collections.emptyList();
-    }
+    // 以下是辅助方法，在 analysis 的候选牌型上选牌
 
-    private List<Card> findStraightIncluding(List<Card> hand, Card must) {
-        for (int i = 0; i <= hand.size() - 5; i++) {
-            List<Card> sub = hand.subList(i, i + 5);
-            if (sub.contains(must) && validator.validate(sub).getPatternType() == CardPattern.STRAIGHT)
-                return new ArrayList<>(sub);
-        }
-        return Collections.emptyList();
-    }
-
-    private List<List<Card>> sortedPairs(List<Card> hand) {
-        List<List<Card>> res = new ArrayList<>();
-        for (int i = 0; i < hand.size() - 1; i++)
-            for (int j = i + 1; j < hand.size(); j++)
-                if (hand.get(i).getRank() == hand.get(j).getRank())
-                    res.add(List.of(hand.get(i), hand.get(j)));
-        res.sort(Comparator.comparing(l -> l.get(1)));
-        return res;
-    }
-
-    private List<List<Card>> sortedStraights(List<Card> hand) {
-        List<List<Card>> out = new ArrayList<>();
-        for (int i = 0; i <= hand.size() - 5; i++) {
-            List<Card> sub = hand.subList(i, i + 5);
-            if (validator.validate(sub).getPatternType() == CardPattern.STRAIGHT)
-                out.add(new ArrayList<>(sub));
-        }
-        out.sort(Comparator.comparing(l -> l.get(4)));
-        return out;
-    }
-
-    private List<List<Card>> sortedFlushes(List<Card> hand) {
-        Map<Integer, List<Card>> bySuit = new HashMap<>();
-        for (Card c : hand)
-            bySuit.computeIfAbsent(c.getSuit(), k -> new ArrayList<>()).add(c);
-        List<List<Card>> res = new ArrayList<>();
-        for (List<Card> suitList : bySuit.values())
-            if (suitList.size() >= 5) {
-                suitList.sort(null);
-                res.add(suitList.subList(0, 5));
-            }
-        res.sort(Comparator.comparing(l -> l.get(4)));
-        return res;
-    }
-
-    private List<List<Card>> threeWithPairs(List<Card> hand) {
-        List<List<Card>> res = new ArrayList<>();
-        Map<Integer, List<Card>> byRank = new HashMap<>();
-
-        // 按点数分组
-        for (Card c : hand)
-            byRank.computeIfAbsent(c.getRank(), k -> new ArrayList<>()).add(c);
-
-        // 找出所有三条和对子的组合
-        for (Map.Entry<Integer, List<Card>> e : byRank.entrySet()) {
-            if (e.getValue().size() >= 3) {
-                List<Card> three = e.getValue().subList(0, 3);
-                for (Map.Entry<Integer, List<Card>> pairEntry : byRank.entrySet()) {
-                    if (pairEntry.getKey() != e.getKey() && pairEntry.getValue().size() >= 2) {
-                        List<Card> pair = pairEntry.getValue().subList(0, 2);
-                        List<Card> fullHouse = new ArrayList<>(three);
-                        fullHouse.addAll(pair);
-                        res.add(fullHouse);
-                    }
-                }
-            }
+    /** 候选按强度升序排列，返回第一个能压过 tgt 的下标，没有时为 -1 */
+    private static int lowestBeating(MoveList candidates, CardPattern tgt) {
+        for (int i = 0; i < candidates.size(); i++) {
+            if (CardPattern.beats(candidates.key(i), tgt.getStrengthKey())) return i;
         }
-
-        return res;
+        return -1;
     }
 
-    private List<List<Card>> sortedBombs(List<Card> hand) {
-        List<List<Card>> res = new ArrayList<>();
-        Map<Integer, List<Card>> byRank = new HashMap<>();
-
-        // 按点数分组
-        for (Card c : hand)
-            byRank.computeIfAbsent(c.getRank(), k -> new ArrayList<>()).add(c);
-
-        // 找出所有四条
-        for (List<Card> group : byRank.values()) {
-            if (group.size() >= 4) {
-                res.add(group.subList(0, 4));
-            }
+    /** 返回最后一个能压过 tgt 的下标，没有时为 -1 */
+    private static int highestBeating(MoveList candidates, CardPattern tgt) {
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            if (CardPattern.beats(candidates.key(i), tgt.getStrengthKey())) return i;
         }
-
-        res.sort(Comparator.comparing(l -> l.get(3)));
-        return res;
+        return -1;
     }
 
-    private List<List<Card>> sortedFlushStraights(List<Card> hand) {
-        List<List<Card>> res = new ArrayList<>();
-        Map<Integer, List<Card>> bySuit = new HashMap<>();
-
-        // 按花色分组
-        for (Card c : hand)
-            bySuit.computeIfAbsent(c.getSuit(), k -> new ArrayList<>()).add(c);
-
-        // 检查每个花色是否存在同花顺
-        for (List<Card> suitList : bySuit.values()) {
-            if (suitList.size() >= 5) {
-                suitList.sort(null);
-                for (int i = 0; i <= suitList.size() - 5; i++) {
-                    List<Card> sub = suitList.subList(i, i + 5);
-                    if (validator.validate(sub).getPatternType() == CardPattern.FLUSH_STRAIGHT) {
-                        res.add(new ArrayList<>(sub));
-                    }
-                }
-            }
+    /** 按花色顺序找第一个同花顺（每个花色取点数最小的一手） */
+    private List<Card> findAnyFlushStraight() {
+        MoveList flushStraights = analysis.flushStraights();
+        int found = -1;
+        for (int i = 0; i < flushStraights.size(); i++) {
+            if (!isFlushStraight(flushStraights.cards(i))) continue;
+            if (found < 0 || suitOf(flushStraights, i) < suitOf(flushStraights, found)) found = i;
         }
-
-        res.sort(Comparator.comparing(l -> l.get(4)));
-        return res;
+        return found < 0 ? Collections.<Card>emptyList() : flushStraights.toCards(found);
     }
 
-    private List<Card> findAnyBomb(List<Card> hand) {
-        Map<Integer, List<Card>> byRank = new HashMap<>();
-        for (Card c : hand)
-            byRank.computeIfAbsent(c.getRank(), k -> new ArrayList<>()).add(c);
-        for (List<Card> group : byRank.values()) {
-            if (group.size() >= 4) {
-                return group.subList(0, 4);
-            }
-        }
-        return Collections.emptyList();
+    private static int suitOf(MoveList candidates, int i) {
+        return PatternCode.highestIdOf(candidates.code(i)) & 3;
     }
 
-    private List<Card> findAnyFlushStraight(List<Card> hand) {
-        Map<Integer, List<Card>> bySuit = new HashMap<>();
-        for (Card c : hand)
-            bySuit.computeIfAbsent(c.getSuit(), k -> new ArrayList<>()).add(c);
-        for (List<Card> suitList : bySuit.values()) {
-            if (suitList.size() >= 5) {
-                suitList.sort(null);
-                for (int i = 0; i <= suitList.size() - 5; i++) {
-                    List<Card> sub = suitList.subList(i, i + 5);
-                    if (validator.validate(sub).getPatternType() == CardPattern.FLUSH_STRAIGHT) {
-                        return sub;
-                    }
-                }
-            }
-        }
-        return Collections.emptyList();
+    /** 同花顺候选是否被验证器判定为同花顺 */
+    private boolean isFlushStraight(long run) {
+        return validator.validate(CardSet.ofBits(run)).getPatternType() == CardPattern.FLUSH_STRAIGHT;
     }
 
-    /**
-     * 找出所有三条
-     */
-    private List<List<Card>> findThrees(List<Card> hand) {
-        List<List<Card>> res = new ArrayList<>();
-        Map<Integer, List<Card>> byRank = new HashMap<>();
-
-        // 按点数分组
-        for (Card c : hand)
-            byRank.computeIfAbsent(c.getRank(), k -> new ArrayList<>()).add(c);
-
-        // 找出所有三条
-        for (List<Card> group : byRank.values()) {
-            if (group.size() >= 3) {
-                res.add(group.subList(0, 3));
-            }
-        }
-
-        res.sort(Comparator.comparing(l -> l.get(2)));
-        return res;
+    private static List<Card> toCards(long bit) {
+        return Collections.singletonList(Card.byId(Long.numberOfTrailingZeros(bit)));
     }
 
     /**
      * 选择最优的单牌 - 考虑牌型组合潜力和风险评估
+     * @param potentialBeats 能压过目标的单牌
+     * @return 选中的一张牌（单个位）
      */
-    private Card chooseBestSingle(List<Card> potentialBeats, List<Card> hand, List<Integer> othersCount) {
-        Map<Integer, Integer> rankCount = new HashMap<>();
-        for (Card card : hand) {
-            rankCount.put(card.getRank(), rankCount.getOrDefault(card.getRank(), 0) + 1);
-        }
-
+    private long chooseBestSingle(long potentialBeats, List<Integer> othersCount) {
         // 优先选择有对子或三条潜力的牌
-        for (Card card : potentialBeats) {
-            if (rankCount.get(card.getRank()) > 1) {
-                return card;
+        for (long m = potentialBeats; m != 0L; m &= m - 1) {
+            if (analysis.rankCount(Long.numberOfTrailingZeros(m) >>> 2) > 1) {
+                return Long.lowestOneBit(m);
             }
         }
 
         // 如果其他玩家手牌很少，尽量出大牌压制
         if (shouldPlayAggressively(othersCount)) {
-            return potentialBeats.get(potentialBeats.size() - 1);
+            return Long.highestOneBit(potentialBeats);
         }
 
         // 否则选择最小的可打牌，保留大牌优势
-        return potentialBeats.get(0);
+        return Long.lowestOneBit(potentialBeats);
     }
 
     /**
-     * 判断是否应该采取激进策略
+     * 判断是否应该采取激进策略：有对手快出完，或者自己几手（默认两手）之内就能出完
      */
     private boolean shouldPlayAggressively(List<Integer> othersCount) {
         if (othersCount == null || othersCount.isEmpty())
             return false;
 
         for (int count : othersCount) {
-            if (count <= 3)
+            if (count <= parameters.get(AIParameters.AGGRESSIVE_OPPONENT_CARDS))
                 return true;
         }
 
-        return false;
+        return HandEvaluator.playsOf(evaluator.evaluate(analysis.hand()))
+                <= parameters.get(AIParameters.AGGRESSIVE_MAX_PLAYS);
     }
-}
\ No newline at end of file
+}
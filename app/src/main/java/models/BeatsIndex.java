@@ -0,0 +1,94 @@
+package models;
+
+/**
+ * 一手牌的「可压制」索引：手牌中所有合法出牌按强度键升序排好，
+ * 由于强度键的最高位是牌型大类，同一大类的候选在列表中连续且有序，
+ * 于是「能压过 X 的最小出牌」「有没有牌能压过 X」都只需一次二分查找
+ *
+ * 出牌后用 {@link #remove(long)} 删掉含有已出牌的候选即可，剩余候选仍然有序，无需重新生成。
+ * 非线程安全，由持有者负责同步。
+ */
+public final class BeatsIndex {
+
+    /** 炸弹档次在强度键中的下界：五张大类 | 档次 4 */
+    private static final int FIRST_BOMB_KEY = 3 << 12 | 4 << 8;
+
+    private final MoveList moves = new MoveList();
+    private long hand;
+
+    public BeatsIndex() {
+    }
+
+    public BeatsIndex(long hand) {
+        rebuild(hand);
+    }
+
+    /** 为新的手牌重新生成索引 */
+    public void rebuild(long hand) {
+        this.hand = hand;
+        MoveGenerator.generate(hand, moves);
+        moves.sortByStrength();
+    }
+
+    /**
+     * 手牌中移除了一些牌（例如出牌之后），删除所有用到这些牌的候选
+     * @param removed 被移除的牌
+     */
+    public void remove(long removed) {
+        if ((hand & removed) == 0L) return;
+        hand &= ~removed;
+        moves.removeIntersecting(removed);
+    }
+
+    /** 当前索引对应的手牌 */
+    public long hand() {
+        return hand;
+    }
+
+    /** 全部候选，按强度键升序 */
+    public MoveList moves() {
+        return moves;
+    }
+
+    /**
+     * 能压过给定强度键的最小出牌
+     * @param lastKey 要压的牌型的强度键
+     * @return 在 {@link #moves()} 中的下标，没有则返回 -1
+     */
+    public int cheapestBeating(int lastKey) {
+        int family = lastKey >>> 12;
+        // 同一大类中第一个更大的键
+        int i = lowerBound(lastKey + 1);
+        if (i < moves.size() && (moves.key(i) >>> 12) == family) {
+            return i;
+        }
+        // 单张、对子还可以用炸弹（及更大的五张牌型）来压
+        if (family != 3) {
+            int b = lowerBound(FIRST_BOMB_KEY);
+            if (b < moves.size()) return b;
+        }
+        return -1;
+    }
+
+    /** 能压过给定牌型的最小出牌在 {@link #moves()} 中的下标，没有则返回 -1 */
+    public int cheapestBeating(CardPattern last) {
+        return cheapestBeating(last.getStrengthKey());
+    }
+
+    /** 是否有出牌能压过给定强度键 */
+    public boolean hasBeating(int lastKey) {
+        return cheapestBeating(lastKey) >= 0;
+    }
+
+    /** 第一个强度键不小于 key 的候选下标 */
+    private int lowerBound(int key) {
+        int lo = 0;
+        int hi = moves.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (moves.key(mid) < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,62 @@
+package models;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 取消标记：由发起方（如 {@link Game}）取消，正在进行的决策轮询 {@link #isCancelled()} 后尽快停止
+ *
+ * 取消只能发生一次，之后注册的回调立即执行。线程安全。
+ */
+public final class CancellationToken {
+
+    /** 永远不会被取消的标记，{@link #cancel()} 对它无效 */
+    public static final CancellationToken NONE = new CancellationToken(false);
+
+    private final boolean cancellable;
+    private final CopyOnWriteArrayList<Runnable> callbacks = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this(true);
+    }
+
+    private CancellationToken(boolean cancellable) {
+        this.cancellable = cancellable;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** 取消并执行已注册的回调；重复调用无效 */
+    public void cancel() {
+        if (!cancellable) return;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+        }
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+        callbacks.clear();
+    }
+
+    /**
+     * 注册取消时执行的回调；已经取消时立即执行
+     */
+    public void onCancel(Runnable callback) {
+        if (!cancellable) return;
+        synchronized (this) {
+            if (!cancelled) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /** 移除不再需要的回调（例如决策已经完成） */
+    public void removeCallback(Runnable callback) {
+        callbacks.remove(callback);
+    }
+}
@@ -1,9 +1,10 @@
 package models;
 
 /**
- * 创建每一张扑克牌实例
+ * 扑克牌；52 张牌各只有一个不可变实例，可以直接用 == 比较
+ * 选中状态不属于牌本身，由 Player 记录
  */
-public class Card implements Comparable<Card> {
+public final class Card implements Comparable<Card> {
     // 花色：方块(0)、梅花(1)、红桃(2)、黑桃(3)
     public static final int DIAMOND = 0;//方块
     public static final int CLUB = 1;//梅花
@@ -25,15 +26,48 @@ public class Card implements Comparable<Card> {
     public static final int ACE = 11;
     public static final int TWO = 12;
     
-    private int suit; // 花色
-    private int rank; // 点数
-    private boolean selected; // 是否被选中
-    
-    //点数和花色，是否被选中，三个属性构成一张牌
-    public Card(int suit, int rank) {
+    /** 52 张牌的唯一实例，按编号（rank * 4 + suit）索引 */
+    private static final Card[] CARDS = new Card[52];
+
+    static {
+        for (int id = 0; id < CARDS.length; id++) {
+            CARDS[id] = new Card(id & 3, id >>> 2);
+        }
+    }
+
+    private final int suit; // 花色
+    private final int rank; // 点数
+    private final int id; // 编号
+    private final String displayName; // 预先生成的显示名称
+
+    //点数和花色两个属性构成一张牌；实例不可变且全局唯一，通过 of / byId 获取
+    private Card(int suit, int rank) {
         this.suit = suit;
         this.rank = rank;
-        this.selected = false;
+        this.id = CardSet.id(suit, rank);
+        this.displayName = buildDisplayName(suit, rank);
+    }
+
+    /**
+     * 获取指定花色和点数的牌
+     * @throws IllegalArgumentException 花色或点数越界
+     */
+    public static Card of(int suit, int rank) {
+        if (suit < DIAMOND || suit > SPADE || rank < THREE || rank > TWO) {
+            throw new IllegalArgumentException("非法的牌: suit=" + suit + ", rank=" + rank);
+        }
+        return CARDS[CardSet.id(suit, rank)];
+    }
+
+    /**
+     * 按编号（rank * 4 + suit，0~51）获取牌
+     * @throws IllegalArgumentException 编号越界
+     */
+    public static Card byId(int id) {
+        if (id < 0 || id >= CARDS.length) {
+            throw new IllegalArgumentException("非法的牌编号: " + id);
+        }
+        return CARDS[id];
     }
     
     //----------------辅助函数---------------------
@@ -48,20 +82,19 @@ public class Card implements Comparable<Card> {
         return rank;
     }
 
-    //获取是否被选中
-    public boolean isSelected() {
-        return selected;
-    }
-
-    //设置是否被选中
-    public void setSelected(boolean selected) {
-        this.selected = selected;
+    //获取牌的编号（rank * 4 + suit，0~51），与 CardSet 的位序一致
+    public int getId() {
+        return id;
     }
     
     /**
      * 获取卡牌的显示名称
      */
     public String getDisplayName() {
+        return displayName;
+    }
+
+    private static String buildDisplayName(int suit, int rank) {
         String suitStr;
         switch (suit) {
             case DIAMOND: suitStr = "♦"; break;
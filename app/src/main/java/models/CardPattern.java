@@ -18,9 +18,15 @@ public class CardPattern {
     public static final int BOMB = 6;          // 炸弹（四带一），可以打除了同花顺以外的任何牌型，这个牌型可以打对子和单张
     public static final int FLUSH_STRAIGHT = 7; // 同花顺（五张），同一花色的顺子，这个牌型可以打对子和单张
 
+    // 强度键中的牌型大类：只有同一大类之间才能比较（炸弹、同花顺例外，可以压单张和对子）
+    private static final int FAMILY_SINGLE = 1;
+    private static final int FAMILY_PAIR = 2;
+    private static final int FAMILY_FIVE = 3;
+
     private int patternType;      // 牌型类型
     private List<Card> cards;     // 牌型包含的牌
     private Card highestCard;     // 牌型中最大的牌
+    private final int strengthKey; // 预先计算的强度键
     
     /**
      * 创建一个牌型实例
@@ -32,6 +38,7 @@ public class CardPattern {
         this.patternType = patternType;
         this.cards = cards;
         this.highestCard = highestCard;
+        this.strengthKey = highestCard == null ? 0 : strengthKey(patternType, highestCard.getId());
     }
     
     /**
@@ -54,6 +61,52 @@ public class CardPattern {
     public Card getHighestCard() {
         return highestCard;
     }
+
+    /**
+     * 获取强度键，无效牌型为 0
+     * 同一大类内键越大牌越大，可直接用于排序；能否压过对方见 {@link #beats(int, int)}
+     */
+    public int getStrengthKey() {
+        return strengthKey;
+    }
+
+    /**
+     * 计算强度键：大类(4位) | 档次(4位) | 档内大小(8位)
+     * 单张、对子、顺子按最大牌比较（先点数后花色）；
+     * 同花、同花顺先比最大牌的花色再比点数；三带二、炸弹只比点数；
+     * 五张牌型的档次依次为 顺子 < 同花 < 三带二 < 炸弹 < 同花顺
+     *
+     * @param patternType 牌型类型
+     * @param highestId 牌型中最大牌的编号（rank * 4 + suit）
+     * @return 强度键，无效牌型返回 0
+     */
+    public static int strengthKey(int patternType, int highestId) {
+        int rank = highestId >>> 2;
+        int suit = highestId & 3;
+        switch (patternType) {
+            case SINGLE: return FAMILY_SINGLE << 12 | highestId;
+            case PAIR: return FAMILY_PAIR << 12 | highestId;
+            case STRAIGHT: return FAMILY_FIVE << 12 | 1 << 8 | highestId;
+            case FLUSH: return FAMILY_FIVE << 12 | 2 << 8 | suit * 13 + rank;
+            case THREE_WITH_PAIR: return FAMILY_FIVE << 12 | 3 << 8 | rank;
+            case BOMB: return FAMILY_FIVE << 12 | 4 << 8 | rank;
+            case FLUSH_STRAIGHT: return FAMILY_FIVE << 12 | 5 << 8 | suit * 13 + rank;
+            default: return 0;
+        }
+    }
+
+    /**
+     * 用强度键判断 key 对应的牌型能否压过 otherKey 对应的牌型
+     * 同一大类直接比较大小；不同大类时只有炸弹和同花顺能压单张、对子
+     */
+    public static boolean beats(int key, int otherKey) {
+        int family = key >>> 12;
+        int otherFamily = otherKey >>> 12;
+        if (family == otherFamily) {
+            return key > otherKey;
+        }
+        return family == FAMILY_FIVE && otherFamily != FAMILY_FIVE && ((key >>> 8) & 0xF) >= 4;
+    }
     
     /**
      * 判断此牌型是否能够打过另一个牌型
@@ -67,138 +120,7 @@ public class CardPattern {
         if (patternType == INVALID || other.patternType == INVALID) {
             throw new IllegalArgumentException("比较的牌型必须有效");
         }
-        
-
-        //规则1：比较单张牌的牌型
-        if(patternType == SINGLE && other.patternType == SINGLE){
-            //单张能打出去的条件是：
-            //1.对面是单张
-            //2.我的单张点数最大的牌比对面单张的点数最大的牌大，点数相同，则比较花色
-            if(highestCard.getRank() > other.highestCard.getRank()){
-                return true;
-            }else if(highestCard.getRank() == other.highestCard.getRank()){
-                if(highestCard.getSuit() > other.highestCard.getSuit()){
-                    return true;
-                }else{
-                    return false;
-                }
-            }
-            return false;
-        }
-
-        //规则2：比较对子的牌型
-        if(patternType == PAIR && other.patternType == PAIR){
-            //对子能打出去的条件是：
-            //1.对面是对子
-            //2.我的对子点数最大的牌比对面单张的点数最大的牌大，点数相同，则比较花色
-            if(highestCard.getRank() > other.highestCard.getRank()){
-                return true;
-            }else if(highestCard.getRank() == other.highestCard.getRank()){
-                if(highestCard.getSuit() > other.highestCard.getSuit()){
-                    return true;
-                }else{
-                    return false;
-                }
-            }
-            return false;
-        }
-
-
-        //规则3：比较顺子的牌型
-        if(patternType == STRAIGHT && other.patternType == STRAIGHT){
-            //顺子能打出去的条件是：
-            //1.对面是顺子
-            //2.我的顺子点数最大的牌比对面顺子的点数最大的牌大 或者 我的顺子点数最大的牌比对面顺子的点数最大的牌点数相同，但是我的顺子最大牌的花色比对面顺子的最大牌的花色大
-            if(highestCard.getRank() > other.highestCard.getRank()){
-                return true;
-            }else if(highestCard.getRank() == other.highestCard.getRank()){
-                if(highestCard.getSuit() > other.highestCard.getSuit()){
-                    return true;
-                }else{
-                    return false;
-                }
-            }
-            return false;
-        }
-
-        //规则4：比较同花的牌型
-        if(patternType == FLUSH && (other.patternType == FLUSH || other.patternType == STRAIGHT)){
-            //同花能打出去的条件是：
-            //1.对面是顺子或者同花
-            //2.我的同花最大牌的花色比对面同花的最大牌的花色大，或者，我的同花最大牌的花色和对面同花的最大牌的花色相同，我的同花点数最大的牌比对面同花的点数最大的牌大
-            if (other.patternType == STRAIGHT){
-                return true;
-            }else{
-                if (highestCard.getSuit() > other.highestCard.getSuit()){
-                    return true;
-                }else if (highestCard.getSuit() == other.highestCard.getSuit()){
-                    if (highestCard.getRank() > other.highestCard.getRank()){
-                        return true;
-                    }else{
-                        return false;
-                    }
-                }else{
-                    return false;
-                }
-            }
-        }
-
-
-        //规则5：比较三带二的牌型
-        if(patternType == THREE_WITH_PAIR && (other.patternType == THREE_WITH_PAIR || other.patternType == STRAIGHT || other.patternType == FLUSH)){
-            //三带二能打出去的条件是：
-            //1.对面是顺子，同花或者三带二
-            //2.三带二大于顺子和同花，并且，不需要任何条件，如果对面是三带二，我方是三带二，则比较三张牌中最大的牌的点数
-            if(other.patternType == STRAIGHT || other.patternType == FLUSH){
-                return true;
-            }else{
-                if (highestCard.getRank() > other.highestCard.getRank()){
-                    return true;
-                }else{
-                    return false;
-                }
-            }
-        }
-        
-        //规则6：比较炸弹的牌型
-        if(patternType == BOMB && other.patternType != FLUSH_STRAIGHT){
-            //炸弹能打出去的条件是：
-            //1.对面是除了同花顺以外的任何牌型
-            //2.炸弹大于同花顺和炸弹以外的任何牌型，并且，不需要任何条件，如果对面是炸弹，我方是炸弹，则比较四张牌中最大的牌的点数
-           if(other.patternType != BOMB){
-                return true;
-           }else{
-                if (highestCard.getRank() > other.highestCard.getRank()){
-                    return true;
-                }else{
-                    return false;
-                }
-           }
-        }
-        
-        // 规则7: 同花顺 > 任何其他牌型
-        if (patternType == FLUSH_STRAIGHT) {
-            //同花顺能打出去的条件是：
-            //1.对面是任何牌型
-            //2.同花顺大于除了同花顺以外的任何牌型，并且，不需要任何条件，如果对面是同花顺，我方是同花顺，则比较五张牌中最大的牌的花色，如果花色相同，则比较五张牌中最大的牌的点数
-            if(other.patternType != FLUSH_STRAIGHT){
-                return true;
-            }else{
-                if (highestCard.getSuit() > other.highestCard.getSuit()){
-                    return true;
-                }else if (highestCard.getSuit() == other.highestCard.getSuit()){
-                    if (highestCard.getRank() > other.highestCard.getRank()){
-                        return true;
-                    }else{
-                        return false;
-                    }
-                }
-            }
-        }
-        
-        //你出的牌型不符合规则
-        System.out.println("你出的牌型不符合规则");
-        return false;
+        return beats(strengthKey, other.strengthKey);
     }
     
     /**
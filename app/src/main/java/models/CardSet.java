@@ -0,0 +1,217 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 以 52 位 long 位掩码表示的一组牌（手牌、已出的牌、未见的牌等）
+ * 第 id 位表示 id = rank * 4 + suit 的那张牌，位序与 Card#compareTo 一致，
+ * 因此遍历结果天然有序，求并/差/计数都是一次位运算。实例不可变，可在线程间共享。
+ */
+public final class CardSet implements Iterable<Card> {
+
+    /** 52 张牌全部置位的掩码 */
+    public static final long FULL_MASK = (1L << 52) - 1;
+
+    public static final CardSet EMPTY = new CardSet(0L);
+    public static final CardSet FULL = new CardSet(FULL_MASK);
+
+    private final long bits;
+
+    private CardSet(long bits) {
+        this.bits = bits & FULL_MASK;
+    }
+
+    /* ---------- 构造 ---------- */
+
+    public static CardSet ofBits(long bits) {
+        if (bits == 0L) return EMPTY;
+        return new CardSet(bits);
+    }
+
+    public static CardSet of(Collection<Card> cards) {
+        return ofBits(maskOf(cards));
+    }
+
+    /* ---------- 位掩码工具（供热点代码直接在 long 上运算） ---------- */
+
+    /** 牌的编号：rank * 4 + suit，取值 0~51 */
+    public static int id(int suit, int rank) {
+        return (rank << 2) | suit;
+    }
+
+    public static long bit(Card card) {
+        return 1L << card.getId();
+    }
+
+    public static long maskOf(Collection<Card> cards) {
+        long m = 0L;
+        if (cards == null) return m;
+        for (Card c : cards) m |= 1L << c.getId();
+        return m;
+    }
+
+    /** 某个点数的四张牌所占的 4 位 */
+    public static long rankMask(int rank) {
+        return 0xFL << (rank << 2);
+    }
+
+    /** 某个花色的 13 张牌所占的位 */
+    public static long suitMask(int suit) {
+        return 0x0001_1111_1111_1111L << suit;
+    }
+
+    /** 掩码中某个点数的张数 */
+    public static int rankCount(long bits, int rank) {
+        return Long.bitCount((bits >>> (rank << 2)) & 0xF);
+    }
+
+    /** 掩码中某个点数持有的花色（低 4 位，第 suit 位表示该花色） */
+    public static int suitsOfRank(long bits, int rank) {
+        return (int) ((bits >>> (rank << 2)) & 0xF);
+    }
+
+    /** 掩码中某个花色持有的点数（低 13 位，第 rank 位表示该点数） */
+    public static int ranksOfSuit(long bits, int suit) {
+        int ranks = 0;
+        long m = (bits >>> suit) & 0x0001_1111_1111_1111L;
+        while (m != 0) {
+            int b = Long.numberOfTrailingZeros(m);
+            ranks |= 1 << (b >>> 2);
+            m &= m - 1;
+        }
+        return ranks;
+    }
+
+    /** 掩码中出现过的点数（低 13 位） */
+    public static int rankPresence(long bits) {
+        long m = bits | (bits >>> 1);
+        m |= m >>> 2;
+        return ranksOfSuit(m, Card.DIAMOND);
+    }
+
+    /* ---------- 查询 ---------- */
+
+    public long bits() {
+        return bits;
+    }
+
+    public int size() {
+        return Long.bitCount(bits);
+    }
+
+    public boolean isEmpty() {
+        return bits == 0L;
+    }
+
+    public boolean contains(Card card) {
+        return (bits & bit(card)) != 0L;
+    }
+
+    public boolean contains(int suit, int rank) {
+        return (bits & (1L << id(suit, rank))) != 0L;
+    }
+
+    public boolean containsAll(CardSet other) {
+        return (other.bits & ~bits) == 0L;
+    }
+
+    public int rankCount(int rank) {
+        return rankCount(bits, rank);
+    }
+
+    public int suitCount(int suit) {
+        return Long.bitCount(bits & suitMask(suit));
+    }
+
+    public int suitsOfRank(int rank) {
+        return suitsOfRank(bits, rank);
+    }
+
+    public int ranksOfSuit(int suit) {
+        return ranksOfSuit(bits, suit);
+    }
+
+    /** 最小的牌；空集合时抛出 NoSuchElementException */
+    public Card lowest() {
+        if (bits == 0L) throw new NoSuchElementException("空牌组");
+        return Card.byId(Long.numberOfTrailingZeros(bits));
+    }
+
+    /** 最大的牌；空集合时抛出 NoSuchElementException */
+    public Card highest() {
+        if (bits == 0L) throw new NoSuchElementException("空牌组");
+        return Card.byId(63 - Long.numberOfLeadingZeros(bits));
+    }
+
+    /* ---------- 集合运算 ---------- */
+
+    public CardSet union(CardSet other) {
+        return ofBits(bits | other.bits);
+    }
+
+    public CardSet difference(CardSet other) {
+        return ofBits(bits & ~other.bits);
+    }
+
+    public CardSet intersect(CardSet other) {
+        return ofBits(bits & other.bits);
+    }
+
+    public CardSet with(Card card) {
+        return ofBits(bits | bit(card));
+    }
+
+    public CardSet without(Card card) {
+        return ofBits(bits & ~bit(card));
+    }
+
+    /* ---------- 视图 ---------- */
+
+    /** 按从小到大顺序返回一个新的可修改列表 */
+    public List<Card> toList() {
+        List<Card> out = new ArrayList<>(size());
+        for (long m = bits; m != 0; m &= m - 1) {
+            out.add(Card.byId(Long.numberOfTrailingZeros(m)));
+        }
+        return out;
+    }
+
+    @Override
+    public Iterator<Card> iterator() {
+        return new Iterator<Card>() {
+            private long rest = bits;
+
+            @Override
+            public boolean hasNext() {
+                return rest != 0L;
+            }
+
+            @Override
+            public Card next() {
+                if (rest == 0L) throw new NoSuchElementException();
+                int id = Long.numberOfTrailingZeros(rest);
+                rest &= rest - 1;
+                return Card.byId(id);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CardSet && ((CardSet) o).bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
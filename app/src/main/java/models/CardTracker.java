@@ -0,0 +1,179 @@
+package models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 记牌器：监听 {@link Game} 的出牌和 pass 事件，用位掩码记录还没打出的牌、每个座位打出的牌，
+ * 以及每个座位 pass 过的牌型
+ *
+ * 座位编号即玩家在 {@link Game#getPlayers()} 中的下标。查询都是 O(1) 的位运算，
+ * 例如「黑桃2 是否还没出」「除自己手牌外最大的未出单张」。
+ * 事件在游戏线程中更新，查询可以在任意线程进行（方法同步，单个掩码为 volatile）。
+ */
+public final class CardTracker implements Game.GameStateListener {
+
+    private static final int INITIAL_PASS_CAPACITY = 32;
+
+    private volatile long remaining = CardSet.FULL_MASK; // 尚未打出的牌
+    private long[] playedBySeat = new long[Playout.MAX_SEATS];
+    private int seats;
+
+    private int trickKey;          // 当前一轮需要压过的强度键，0 表示自由出牌
+    private int trickOwner = -1;   // 打出当前牌型的座位
+    private int passesInTrick;
+
+    /* pass 历史：每次 pass 的座位和当时需要压过的强度键，用于推断对手手牌 */
+    private int[] passSeats = new int[INITIAL_PASS_CAPACITY];
+    private int[] passKeys = new int[INITIAL_PASS_CAPACITY];
+    private int passCount;
+    /** 每个座位在各大类牌型上 pass 过的最小强度键，下标为 [座位][大类]，0 表示没有 */
+    private int[][] lowestPassedKey = new int[Playout.MAX_SEATS][4];
+
+    /* ---------- 事件 ---------- */
+
+    @Override
+    public synchronized void onGameStarted(Game g) {
+        reset(g.getPlayers().size());
+    }
+
+    @Override
+    public synchronized void onCardsPlayed(Game g, Player p, List<Card> cards, CardPattern pattern) {
+        recordPlay(g.getPlayers().indexOf(p), CardSet.of(cards).bits(), pattern.getStrengthKey());
+    }
+
+    @Override
+    public synchronized void onPlayerPassed(Game g, Player p) {
+        recordPass(g.getPlayers().indexOf(p));
+    }
+
+    @Override
+    public void onGameOver(Game g, Player winner) {
+    }
+
+    /** 开始新的一局 */
+    public synchronized void reset(int seats) {
+        if (seats < 0) {
+            throw new IllegalArgumentException("座位数不能为负: " + seats);
+        }
+        if (seats > playedBySeat.length) {
+            playedBySeat = new long[seats];
+            lowestPassedKey = new int[seats][4];
+        }
+        this.seats = seats;
+        remaining = CardSet.FULL_MASK;
+        Arrays.fill(playedBySeat, 0L);
+        trickKey = 0;
+        trickOwner = -1;
+        passesInTrick = 0;
+        passCount = 0;
+        for (int[] row : lowestPassedKey) Arrays.fill(row, 0);
+    }
+
+    /** 记录 seat 打出一手牌 */
+    public synchronized void recordPlay(int seat, long cards, int strengthKey) {
+        if (seat < 0 || seat >= seats) return;
+        remaining &= ~cards;
+        playedBySeat[seat] |= cards;
+        trickKey = strengthKey;
+        trickOwner = seat;
+        passesInTrick = 0;
+    }
+
+    /** 记录 seat 选择 pass（需要压过的牌型取自最近一次出牌） */
+    public synchronized void recordPass(int seat) {
+        if (seat < 0 || seat >= seats || trickKey == 0) return;
+        if (passCount == passSeats.length) {
+            passSeats = Arrays.copyOf(passSeats, passCount * 2);
+            passKeys = Arrays.copyOf(passKeys, passCount * 2);
+        }
+        passSeats[passCount] = seat;
+        passKeys[passCount] = trickKey;
+        passCount++;
+
+        int family = trickKey >>> 12;
+        int lowest = lowestPassedKey[seat][family];
+        if (lowest == 0 || trickKey < lowest) lowestPassedKey[seat][family] = trickKey;
+
+        if (++passesInTrick >= seats - 1) { // 其他人都 pass，一轮结束
+            trickKey = 0;
+            trickOwner = -1;
+            passesInTrick = 0;
+        }
+    }
+
+    /* ---------- 查询 ---------- */
+
+    /** 尚未打出的牌（包括自己的手牌） */
+    public CardSet getRemaining() {
+        return CardSet.ofBits(remaining);
+    }
+
+    /** 已经打出的牌 */
+    public CardSet getPlayedCards() {
+        return CardSet.ofBits(CardSet.FULL_MASK & ~remaining);
+    }
+
+    /** 某张牌是否还没有打出 */
+    public boolean isOut(Card card) {
+        return (remaining & CardSet.bit(card)) != 0L;
+    }
+
+    /** 除自己手牌外看不到的牌 */
+    public long unseen(long ownHand) {
+        return remaining & ~ownHand;
+    }
+
+    /** 除自己手牌外最大的未出单张，没有时返回 null */
+    public Card highestUnseen(long ownHand) {
+        long unseen = remaining & ~ownHand;
+        return unseen == 0L ? null : Card.byId(63 - Long.numberOfLeadingZeros(unseen));
+    }
+
+    /** 除自己手牌外某点数还没出的张数 */
+    public int unseenOfRank(long ownHand, int rank) {
+        return Long.bitCount(remaining & ~ownHand & CardSet.rankMask(rank));
+    }
+
+    public int getSeatCount() {
+        return seats;
+    }
+
+    /** 某座位打出过的牌 */
+    public synchronized long playedBy(int seat) {
+        return playedBySeat[seat];
+    }
+
+    /** 当前一轮需要压过的强度键，0 表示自由出牌 */
+    public synchronized int getTrickKey() {
+        return trickKey;
+    }
+
+    /** 打出当前牌型的座位，自由出牌时为 -1 */
+    public synchronized int getTrickOwner() {
+        return trickOwner;
+    }
+
+    /**
+     * 某座位在给定大类（1 单张、2 对子、3 五张）上 pass 过的最小强度键，没有时为 0；
+     * 这通常意味着该座位没有能压过它的同类牌型
+     */
+    public synchronized int lowestPassedKey(int seat, int family) {
+        return lowestPassedKey[seat][family];
+    }
+
+    /** 本局 pass 的总次数 */
+    public synchronized int getPassCount() {
+        return passCount;
+    }
+
+    /** 第 i 次 pass 的座位 */
+    public synchronized int passSeat(int i) {
+        return passSeats[i];
+    }
+
+    /** 第 i 次 pass 时需要压过的强度键 */
+    public synchronized int passKey(int i) {
+        return passKeys[i];
+    }
+}
@@ -0,0 +1,239 @@
+package models;
+
+import java.util.Arrays;
+
+/**
+ * 控制牌分析：根据看不到的牌判断自己的哪些出牌没有对手能压（「大牌」），
+ * 并检查剩余手牌能否全部用大牌领出、最后一手随意出完——能的话就是必胜的出牌顺序
+ *
+ * 看不到的牌当作在同一个对手手中（最保守），再按对手最多的张数排除对子、五张牌型。
+ * {@link #reset} 只对看不到的牌做一次位运算，求出每个大类中对手能打出的最大强度键，
+ * 之后判断一手牌是不是大牌只需比较强度键。
+ * 非线程安全，每个线程（或每个策略实例）各用一个，可反复 {@link #reset} 复用。
+ */
+public final class ControlAnalyzer {
+
+    /** 炸弹档次在强度键中的下界：五张大类 | 档次 4 */
+    private static final int FIRST_BOMB_KEY = 3 << 12 | 4 << 8;
+
+    /** 失败局面缓存的大小（2 的幂） */
+    private static final int FAIL_SLOTS = 512;
+
+    private long unseen;
+    private int maxSingle; // 对手能打出的最大单张的强度键，0 表示没有
+    private int maxPair;
+    private int maxFive;
+
+    private final MoveList moves = new MoveList();
+    private boolean[] boss = new boolean[64];
+    private final int[] path = new int[52];
+    private int pathLength;
+    private long orphans;       // 不在任何大类出牌中的牌，只能放进最后一手
+    private boolean diamondRule; // 持有方块3的自由出牌：第一手必须带上它
+    private final long[] failed = new long[FAIL_SLOTS];
+
+    /**
+     * 设置看不到的牌
+     * @param unseen 对手可能持有的牌
+     * @param maxOpponentCards 对手中最多的手牌张数
+     * @return this
+     */
+    public ControlAnalyzer reset(long unseen, int maxOpponentCards) {
+        this.unseen = unseen;
+        int available = Math.min(maxOpponentCards, Long.bitCount(unseen));
+        maxSingle = available >= 1 ? topSingle(unseen) : 0;
+        maxPair = available >= 2 ? topPair(unseen) : 0;
+        maxFive = available >= 5 ? topFive(unseen) : 0;
+        return this;
+    }
+
+    public long unseen() {
+        return unseen;
+    }
+
+    /** 强度键为 key 的出牌是否没有对手能压 */
+    public boolean isBoss(int key) {
+        switch (key >>> 12) {
+            case 1:
+                return maxSingle <= key && maxFive < FIRST_BOMB_KEY;
+            case 2:
+                return maxPair <= key && maxFive < FIRST_BOMB_KEY;
+            default:
+                return maxFive <= key;
+        }
+    }
+
+    /**
+     * 寻找必胜的出牌顺序：除最后一手外每一手都是大牌（对手只能 pass，自己继续自由出牌）
+     * @param hand 自己的手牌
+     * @param lastKey 需要压过的强度键，0 表示自由出牌；非 0 时第一手必须压过它
+     * @param out 找到时按出牌顺序写入，会先被清空
+     * @return 是否找到
+     */
+    public boolean findWinningSequence(long hand, int lastKey, MoveList out) {
+        out.clear();
+        if (hand == 0L) return false;
+        MoveGenerator.generate(hand, moves);
+        if (boss.length < moves.size()) boss = new boolean[moves.size()];
+        long bossCover = 0L;
+        for (int i = 0; i < moves.size(); i++) {
+            boss[i] = isBoss(moves.key(i));
+            if (boss[i]) bossCover |= moves.cards(i);
+        }
+        orphans = hand & ~bossCover;
+        Arrays.fill(failed, 0L);
+
+        if (lastKey == 0) {
+            diamondRule = (hand & MoveGenerator.DIAMOND_THREE) != 0L;
+            pathLength = 0;
+            if (!cover(hand, true)) return false;
+        } else {
+            diamondRule = false;
+            int first = -1;
+            for (int i = 0; i < moves.size() && first < 0; i++) {
+                long move = moves.cards(i);
+                if (!CardPattern.beats(moves.key(i), lastKey)) continue;
+                if (move == hand) {
+                    pathLength = 0;
+                } else if (boss[i]) {
+                    // 压过之后自由出牌，方块3还在手中时同样要先出它
+                    boolean rule = (hand & ~move & MoveGenerator.DIAMOND_THREE) != 0L;
+                    if (rule != diamondRule) {
+                        diamondRule = rule;
+                        Arrays.fill(failed, 0L); // 失败缓存的结果与方块3规则有关
+                    }
+                    pathLength = 0;
+                    if (!cover(hand & ~move, true)) continue;
+                } else {
+                    continue;
+                }
+                first = i;
+            }
+            if (first < 0) return false;
+            out.add(moves, first);
+        }
+        appendPath(out);
+        return true;
+    }
+
+    /**
+     * 把 rest 拆成若干大类出牌加至多一手任意出牌，结果记在 path 中
+     * 每次只尝试包含最小一张牌的出牌，避免同一拆分按不同顺序重复搜索
+     */
+    private boolean cover(long rest, boolean anyLeft) {
+        if (rest == 0L) return true;
+        if (!anyLeft && (rest & orphans) != 0L) return false;
+        long state = rest | (anyLeft ? 1L << 62 : 0L);
+        int slot = (int) (state ^ state >>> 29) & (FAIL_SLOTS - 1);
+        if (failed[slot] == state) return false;
+
+        long low = Long.lowestOneBit(rest);
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.cards(i);
+            if ((move & low) == 0L || (move & ~rest) != 0L) continue;
+            boolean last = !boss[i];
+            if (last && (!anyLeft || (rest & orphans & ~move) != 0L)) continue;
+            // 带方块3的第一手不是大牌时，只有一手出完才行
+            if (diamondRule && last && (move & MoveGenerator.DIAMOND_THREE) != 0L && move != rest) continue;
+            path[pathLength++] = i;
+            if (cover(rest & ~move, anyLeft && !last)) return true;
+            pathLength--;
+        }
+        failed[slot] = state;
+        return false;
+    }
+
+    /** 按出牌顺序写出 path：带方块3的一手最先，大牌其次，最后一手放在最后 */
+    private void appendPath(MoveList out) {
+        int last = -1;
+        for (int p = 0; p < pathLength; p++) {
+            if (diamondRule && (moves.cards(path[p]) & MoveGenerator.DIAMOND_THREE) != 0L) {
+                out.add(moves, path[p]);
+            }
+        }
+        for (int p = 0; p < pathLength; p++) {
+            int i = path[p];
+            if (diamondRule && (moves.cards(i) & MoveGenerator.DIAMOND_THREE) != 0L) continue;
+            if (boss[i]) {
+                out.add(moves, i);
+            } else {
+                last = i;
+            }
+        }
+        if (last >= 0) out.add(moves, last);
+    }
+
+    /* ---------- 一组牌能打出的最大牌型（{@link HandSampler} 共用），没有时为 0 ---------- */
+
+    static int topSingle(long cards) {
+        if (cards == 0L) return 0;
+        return CardPattern.strengthKey(CardPattern.SINGLE, 63 - Long.numberOfLeadingZeros(cards));
+    }
+
+    static int topPair(long cards) {
+        for (int rank = Card.TWO; rank >= Card.THREE; rank--) {
+            long group = cards & CardSet.rankMask(rank);
+            if (Long.bitCount(group) >= 2) {
+                return CardPattern.strengthKey(CardPattern.PAIR, 63 - Long.numberOfLeadingZeros(group));
+            }
+        }
+        return 0;
+    }
+
+    /** 构造每类五张牌型中最大的一手，用 {@link HistogramPatternValidator#classify} 取强度键 */
+    static int topFive(long cards) {
+        int best = 0;
+        int ranks = CardSet.rankPresence(cards);
+
+        for (int rank = Card.TWO; rank >= Card.THREE; rank--) { // 炸弹、三带二只比点数
+            long group = cards & CardSet.rankMask(rank);
+            int count = Long.bitCount(group);
+            if (count < 3) continue;
+            long others = cards & ~CardSet.rankMask(rank);
+            if (count == 4 && others != 0L) {
+                best = Math.max(best, keyOf(group | Long.lowestOneBit(others)));
+            }
+            long triple = count == 4 ? group & ~Long.lowestOneBit(group) : group;
+            for (int pairRank = Card.THREE; pairRank <= Card.TWO; pairRank++) {
+                long pairGroup = others & CardSet.rankMask(pairRank);
+                if (Long.bitCount(pairGroup) >= 2) {
+                    best = Math.max(best, keyOf(triple | lowest(pairGroup, 2)));
+                    break;
+                }
+            }
+        }
+
+        for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) { // 同花：最大一张加最小四张
+            long suited = cards & CardSet.suitMask(suit);
+            if (Long.bitCount(suited) >= 5) {
+                long top = Long.highestOneBit(suited);
+                best = Math.max(best, keyOf(top | lowest(suited & ~top, 4)));
+            }
+        }
+
+        for (int start = Card.TWO - 4; start >= Card.THREE; start--) { // 顺子：最高的连续五个点数各取最大花色
+            if (((ranks >>> start) & 0x1F) != 0x1F) continue;
+            long straight = 0L;
+            for (int rank = start; rank < start + 5; rank++) {
+                straight |= Long.highestOneBit(cards & CardSet.rankMask(rank));
+            }
+            best = Math.max(best, keyOf(straight));
+            break;
+        }
+        return best;
+    }
+
+    private static long lowest(long cards, int n) {
+        long result = 0L;
+        for (long m = cards; n > 0 && m != 0L; m &= m - 1, n--) {
+            result |= Long.lowestOneBit(m);
+        }
+        return result;
+    }
+
+    private static int keyOf(long move) {
+        int code = HistogramPatternValidator.classify(move);
+        return PatternCode.isValid(code)
+                ? CardPattern.strengthKey(PatternCode.typeOf(code), PatternCode.highestIdOf(code)) : 0;
+    }
+}
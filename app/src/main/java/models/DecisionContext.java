@@ -0,0 +1,140 @@
+package models;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 一次出牌决策能看到的全部信息：自己的手牌、需要压过的牌型、其他玩家的张数，
+ * 以及（在对局中时）本局的 {@link CardTracker}
+ *
+ * 由 {@link AIPlayer} 在每次决策时创建，传给 {@link AIStrategy#makeMove(DecisionContext)}。
+ * 已出的牌在创建时取快照，之后记牌器继续更新也不影响本次决策。
+ * 手牌的 {@link HandAnalysis} 由 {@link AIPlayer} 随出牌增量维护，通过 {@link #withAnalysis} 附带给策略。
+ */
+public final class DecisionContext {
+
+    private final CardSet hand;
+    private final CardPattern lastPattern;
+    private final List<Integer> othersCount;
+    private final CardSet playedCards;
+    private final CardTracker tracker;
+    private final int seat;
+    private final HandAnalysis analysis;
+    private final int lastOffset; // 预测局面中出牌者的位置，TRACKED 表示按记牌器计算
+
+    private static final int TRACKED = Integer.MIN_VALUE;
+
+    /**
+     * @param othersCount 其他玩家剩余张数，从下家开始按出牌顺序排列
+     * @param playedCards 本局已经打出的牌，不知道时传 {@link CardSet#EMPTY}
+     */
+    public DecisionContext(CardSet hand, CardPattern lastPattern, List<Integer> othersCount, CardSet playedCards) {
+        this(hand, lastPattern, othersCount, playedCards, null, -1, null, TRACKED);
+    }
+
+    /**
+     * @param tracker 本局的记牌器
+     * @param seat 自己在记牌器中的座位
+     */
+    public DecisionContext(CardSet hand, CardPattern lastPattern, List<Integer> othersCount,
+                           CardTracker tracker, int seat) {
+        this(hand, lastPattern, othersCount, tracker.getPlayedCards(), tracker, seat, null, TRACKED);
+    }
+
+    private DecisionContext(CardSet hand, CardPattern lastPattern, List<Integer> othersCount,
+                            CardSet playedCards, CardTracker tracker, int seat, HandAnalysis analysis,
+                            int lastOffset) {
+        this.hand = Objects.requireNonNull(hand);
+        this.lastPattern = lastPattern;
+        this.othersCount = othersCount == null ? Collections.<Integer>emptyList() : othersCount;
+        this.playedCards = Objects.requireNonNull(playedCards);
+        this.tracker = tracker;
+        this.seat = seat;
+        this.analysis = analysis;
+        this.lastOffset = lastOffset;
+    }
+
+    /**
+     * 附带手牌分析的副本，其余信息不变
+     * @param analysis 手牌分析，只在其手牌与本次决策的手牌一致时使用
+     */
+    public DecisionContext withAnalysis(HandAnalysis analysis) {
+        return new DecisionContext(hand, lastPattern, othersCount, playedCards, tracker, seat, analysis, lastOffset);
+    }
+
+    /**
+     * 预测的后续局面（{@link Ponderer} 使用）：手牌和记牌器（pass 记录）不变，
+     * 需要压的牌型、各家张数、已出的牌和出牌者按预测给出
+     * @param lastOffset 打出该牌型的座位相对自己的位置，自由出牌时为 -1
+     */
+    DecisionContext predicted(CardPattern lastPattern, List<Integer> othersCount, CardSet playedCards,
+                              int lastOffset) {
+        return new DecisionContext(hand, lastPattern, othersCount, playedCards, tracker, seat, null,
+                lastPattern == null ? -1 : lastOffset);
+    }
+
+    public CardSet getHand() {
+        return hand;
+    }
+
+    /** 需要压过的牌型，null 表示自由出牌 */
+    public CardPattern getLastPattern() {
+        return lastPattern;
+    }
+
+    /** 需要压过的强度键，0 表示自由出牌 */
+    public int getLastKey() {
+        return lastPattern == null ? 0 : lastPattern.getStrengthKey();
+    }
+
+    /** 其他玩家剩余张数，从下家开始按出牌顺序排列 */
+    public List<Integer> getOthersCount() {
+        return othersCount;
+    }
+
+    public CardSet getPlayedCards() {
+        return playedCards;
+    }
+
+    /** 看不到的牌：既不在自己手中也没有打出 */
+    public long unseen() {
+        return CardSet.FULL_MASK & ~hand.bits() & ~playedCards.bits();
+    }
+
+    /** 本局的记牌器，不在对局中决策时为 null */
+    public CardTracker getTracker() {
+        return tracker;
+    }
+
+    /** 自己在记牌器中的座位，没有记牌器时为 -1 */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * 与本次决策的手牌一致的手牌分析，没有附带或手牌已经变化时为 null；
+     * 分析由持有者维护，决策期间只读
+     */
+    public HandAnalysis getAnalysis() {
+        HandAnalysis current = analysis;
+        return current != null && current.hand() == hand.bits() ? current : null;
+    }
+
+    /**
+     * 打出当前牌型的玩家相对自己的位置：1 为下家，依此类推，0 为自己（只在别人的回合中出现）。
+     * 没有记牌器时按上家（othersCount.size()）处理；自由出牌时返回 -1
+     */
+    public int lastPlayerOffset() {
+        if (lastPattern == null) return -1;
+        if (lastOffset != TRACKED) return lastOffset;
+        int seats = othersCount.size() + 1;
+        if (tracker != null && seat >= 0) {
+            int owner = tracker.getTrickOwner();
+            if (owner >= 0 && tracker.getSeatCount() == seats) {
+                return (owner - seat + seats) % seats;
+            }
+        }
+        return seats - 1;
+    }
+}
@@ -28,10 +28,11 @@ public final class Deck {
 
     /** ---------- 公共 API ---------- */
 
-    /** 使用随机种子洗牌 */
+    /** 使用随机种子洗牌；先恢复初始顺序，所以同一种子总是得到同样的牌序 */
     public void shuffle(long seed) {
         lock.writeLock().lock();
         try {
+            initializeCards();
             Collections.shuffle(cards, new Random(seed));
         } finally {
             lock.writeLock().unlock();
@@ -79,6 +80,39 @@ public final class Deck {
         }
     }
 
+    /**
+     * 以位掩码形式发牌；发牌顺序与 {@link #dealCards(int)} 相同，
+     * 但每位玩家的手牌只是一个 long，不产生列表复制
+     */
+    public List<CardSet> dealCardSets(int numPlayers) {
+        if (numPlayers <= 0 || numPlayers > cards.size()) {
+            throw new IllegalArgumentException("玩家数量必须在 1~52 之间");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int perPlayer = cards.size() / numPlayers;
+            long[] masks = new long[numPlayers];
+
+            // 轮流发牌
+            int idx = 0;
+            for (int round = 0; round < perPlayer; round++) {
+                for (int i = 0; i < numPlayers; i++) {
+                    masks[i] |= CardSet.bit(cards.get(idx++));
+                }
+            }
+
+            List<CardSet> hands = new ArrayList<>(numPlayers);
+            for (long m : masks) {
+                hands.add(CardSet.ofBits(m));
+            }
+            return List.copyOf(hands);
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     /**
      * 获取当前牌堆的只读快照
      */
@@ -93,14 +127,14 @@ public final class Deck {
 
     /** ---------- 私有辅助 ---------- */
 
-    /** 初始化 52 张牌（需在写锁内调用） */
+    /** 填入 52 张牌的共享实例（需在写锁内调用） */
     private void initializeCards() {
         lock.writeLock().lock();
         try {
             cards.clear();
             for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) {
                 for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
-                    cards.add(new Card(suit, rank));
+                    cards.add(Card.of(suit, rank));
                 }
             }
         } finally {
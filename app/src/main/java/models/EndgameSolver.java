@@ -0,0 +1,279 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 两人残局精确求解器：双方手牌都已知时，用 negamax + alpha-beta 剪枝求出必胜走法
+ *
+ * 局面由两个座位的手牌、轮到谁出牌和需要压过的强度键决定：两人对局中一方 pass 后
+ * 就轮到上一手的出牌者自由出牌。出牌按强度从大到小尝试（能一手出完的最先），pass 放在最后。
+ * 值只有胜负两种，窗口固定为 (负, 胜)，找到一个必胜走法即剪枝，每个局面的结果都是精确值。
+ *
+ * 局面用 {@link Zobrist} 增量哈希，结果存入共享的 {@link TranspositionTable}，同一局面经由不同出牌顺序
+ * 到达时直接复用。张数较多时根节点的各个出牌分给 ForkJoinPool 并行求解，各线程共用同一张表。
+ * 设置了 {@link Tablebase} 时，双方张数都很少的自由出牌局面直接查表。
+ * 每个线程使用自己预先分配的 {@link MoveList}，搜索过程中不创建对象。线程安全。
+ */
+public final class EndgameSolver {
+
+    /** 表示 pass 的出牌位掩码 */
+    public static final long PASS = 0L;
+
+    /** 默认置换表大小 */
+    public static final long DEFAULT_TABLE_BYTES = 4L << 20;
+
+    private static final int WIN = 1;
+    private static final int LOSS = -1;
+
+    /** 双方剩余总张数不少于该值时根节点并行求解，张数少时并行的开销得不偿失 */
+    private static final int PARALLEL_MIN_CARDS = 14;
+
+    private final TranspositionTable table;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Searcher> searchers = new ThreadLocal<Searcher>() {
+        @Override
+        protected Searcher initialValue() {
+            return new Searcher();
+        }
+    };
+    private final LongAdder nodes = new LongAdder();
+    private volatile Tablebase tablebase;
+
+    public EndgameSolver() {
+        this(new TranspositionTable(DEFAULT_TABLE_BYTES), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param table 置换表，可以在多个求解器之间共享
+     * @param pool 根节点并行求解用的线程池，为 null 时只在调用线程中求解
+     */
+    public EndgameSolver(TranspositionTable table, ForkJoinPool pool) {
+        this.table = Objects.requireNonNull(table);
+        this.pool = pool;
+    }
+
+    /**
+     * 轮到出牌的一方是否必胜
+     * @param hand 轮到出牌一方的手牌
+     * @param opponent 对手的手牌
+     * @param lastKey 需要压过的强度键（由对手打出），0 表示自由出牌
+     */
+    public boolean isWin(long hand, long opponent, int lastKey) {
+        Searcher searcher = searchers.get();
+        int value = searcher.search(hand, opponent, 0, lastKey, rootHash(hand, opponent, lastKey), 0);
+        searcher.flushNodes();
+        return value == WIN;
+    }
+
+    /**
+     * 求出最佳出牌
+     * @param hand 轮到出牌一方的手牌
+     * @param opponent 对手的手牌
+     * @param lastKey 需要压过的强度键（由对手打出），0 表示自由出牌
+     * @return 必胜的出牌位掩码，{@link #PASS} 表示 pass；必败时返回最强的一手（没有可出的牌时为 pass）
+     */
+    public long bestMove(long hand, long opponent, int lastKey) {
+        Tablebase tb = tablebase;
+        if (tb != null && tb.covers(hand, opponent, lastKey) && tb.isWin(hand, opponent)) {
+            return tb.bestMove(hand, opponent);
+        }
+
+        MoveList moves = new MoveList();
+        generate(hand, lastKey, moves);
+        long hash = rootHash(hand, opponent, lastKey);
+
+        int options = moves.size() + (lastKey != 0 ? 1 : 0);
+        boolean parallel = pool != null && options > 1
+                && Long.bitCount(hand | opponent) >= PARALLEL_MIN_CARDS;
+        if (parallel) {
+            List<ForkJoinTask<Integer>> tasks = new ArrayList<>(options);
+            for (int i = moves.size() - 1; i >= 0; i--) {
+                tasks.add(pool.submit(new RootMove(hand, opponent, lastKey, hash, moves.cards(i), moves.key(i))));
+            }
+            if (lastKey != 0) {
+                tasks.add(pool.submit(new RootMove(hand, opponent, lastKey, hash, PASS, 0)));
+            }
+            for (int t = 0; t < tasks.size(); t++) { // 按从强到弱的顺序取第一个必胜走法
+                if (tasks.get(t).join() == WIN) {
+                    for (int rest = t + 1; rest < tasks.size(); rest++) tasks.get(rest).cancel(false);
+                    return t < moves.size() ? moves.cards(moves.size() - 1 - t) : PASS;
+                }
+            }
+        } else {
+            Searcher searcher = searchers.get();
+            for (int i = moves.size() - 1; i >= 0; i--) {
+                if (searcher.playValue(hand, opponent, lastKey, hash, moves.cards(i), moves.key(i)) == WIN) {
+                    searcher.flushNodes();
+                    return moves.cards(i);
+                }
+            }
+            if (lastKey != 0 && searcher.playValue(hand, opponent, lastKey, hash, PASS, 0) == WIN) {
+                searcher.flushNodes();
+                return PASS;
+            }
+            searcher.flushNodes();
+        }
+        return moves.isEmpty() ? PASS : moves.cards(moves.size() - 1);
+    }
+
+    /** 设置残局库，为 null 时不查表 */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    /** 累计搜索的节点数 */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /* ---------- 搜索 ---------- */
+
+    /** 根节点出牌方记为座位 0，对手为座位 1 */
+    private static long rootHash(long hand, long opponent, int lastKey) {
+        return Zobrist.cards(0, hand) ^ Zobrist.cards(1, opponent)
+                ^ Zobrist.lastPattern(lastKey) ^ Zobrist.toMove(0);
+    }
+
+    /** 生成合法出牌并按强度键升序排列；自由出牌且持有方块3时必须带上它 */
+    private static void generate(long hand, int lastKey, MoveList out) {
+        long must = lastKey == 0 ? hand & MoveGenerator.DIAMOND_THREE : 0L;
+        MoveGenerator.generate(hand, lastKey, must, out);
+        out.sortByStrength();
+    }
+
+    /**
+     * 单个线程的搜索状态
+     */
+    private final class Searcher {
+        /** 每一步至少出一张牌或 pass，而 pass 之后必然出牌，所以深度不超过总张数的两倍 */
+        private final MoveList[] plies = new MoveList[2 * 52 + 2];
+        private long nodeCount;
+
+        /** 座位 0 打出 move（PASS 表示 pass）之后，座位 0 的胜负 */
+        int playValue(long hand, long opponent, int lastKey, long hash, long move, int key) {
+            if (move == PASS) {
+                return -search(hand, opponent, 1, 0, Zobrist.afterPass(hash, 0, lastKey, 0, 1), 1);
+            }
+            long rest = hand & ~move;
+            if (rest == 0L) return WIN;
+            return -search(rest, opponent, 1, key, Zobrist.afterPlay(hash, 0, move, lastKey, key, 1), 1);
+        }
+
+        /**
+         * @param h0 座位 0 的手牌
+         * @param h1 座位 1 的手牌
+         * @param toMove 轮到出牌的座位
+         * @param lastKey 需要压过的强度键，0 表示自由出牌
+         * @param hash 局面的 Zobrist 哈希值
+         * @return 轮到出牌一方的胜负
+         */
+        int search(long h0, long h1, int toMove, int lastKey, long hash, int ply) {
+            nodeCount++;
+            long hand = toMove == 0 ? h0 : h1;
+            long opponent = toMove == 0 ? h1 : h0;
+            Tablebase tb = tablebase;
+            if (tb != null && tb.covers(hand, opponent, lastKey)) {
+                return tb.isWin(hand, opponent) ? WIN : LOSS;
+            }
+
+            long data = table.probe(hash);
+            if (data != 0L && TranspositionTable.boundOf(data) == TranspositionTable.EXACT) {
+                return TranspositionTable.valueOf(data);
+            }
+
+            int other = 1 - toMove;
+            int depth = Long.bitCount(h0 | h1);
+            MoveList moves = movesAt(ply);
+            generate(hand, lastKey, moves);
+
+            // 能一手出完直接获胜
+            for (int i = 0; i < moves.size(); i++) {
+                if (moves.cards(i) == hand) {
+                    table.store(hash, hand, WIN, depth, TranspositionTable.EXACT);
+                    return WIN;
+                }
+            }
+
+            for (int i = moves.size() - 1; i >= 0; i--) { // 从强到弱
+                long move = moves.cards(i);
+                int key = moves.key(i);
+                long rest = hand & ~move;
+                long child = Zobrist.afterPlay(hash, toMove, move, lastKey, key, other);
+                int value = toMove == 0
+                        ? -search(rest, h1, other, key, child, ply + 1)
+                        : -search(h0, rest, other, key, child, ply + 1);
+                if (value == WIN) { // 已达窗口上界，剪枝
+                    table.store(hash, move, WIN, depth, TranspositionTable.EXACT);
+                    return WIN;
+                }
+            }
+            if (lastKey != 0) { // pass：对手重新自由出牌
+                long child = Zobrist.afterPass(hash, toMove, lastKey, 0, other);
+                if (-search(h0, h1, other, 0, child, ply + 1) == WIN) {
+                    table.store(hash, PASS, WIN, depth, TranspositionTable.EXACT);
+                    return WIN;
+                }
+            }
+            table.store(hash, PASS, LOSS, depth, TranspositionTable.EXACT);
+            return LOSS;
+        }
+
+        void flushNodes() {
+            nodes.add(nodeCount);
+            nodeCount = 0;
+        }
+
+        private MoveList movesAt(int ply) {
+            MoveList moves = plies[ply];
+            if (moves == null) {
+                moves = plies[ply] = new MoveList(32);
+            }
+            return moves;
+        }
+    }
+
+    /**
+     * 并行求解根节点的一个出牌
+     */
+    private final class RootMove extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final long hand;
+        private final long opponent;
+        private final int lastKey;
+        private final long hash;
+        private final long move;
+        private final int key;
+
+        RootMove(long hand, long opponent, int lastKey, long hash, long move, int key) {
+            this.hand = hand;
+            this.opponent = opponent;
+            this.lastKey = lastKey;
+            this.hash = hash;
+            this.move = move;
+            this.key = key;
+        }
+
+        @Override
+        protected Integer compute() {
+            Searcher searcher = searchers.get();
+            int value = searcher.playValue(hand, opponent, lastKey, hash, move, key);
+            searcher.flushNodes();
+            return value;
+        }
+    }
+}
@@ -32,18 +32,21 @@ public final class Game {
     } // 等待发牌，发牌中，游戏进行中，游戏结束
 
     private final CopyOnWriteArrayList<Player> players = new CopyOnWriteArrayList<>(); // 玩家列表
-    private final CopyOnWriteArrayList<GameStateListener> listeners = new CopyOnWriteArrayList<>(); // 监听器列表
+    private final CardTracker tracker = new CardTracker(); // 记牌器，作为第一个监听器，先于其他监听器更新
+    private final CopyOnWriteArrayList<GameStateListener> listeners =
+            new CopyOnWriteArrayList<>(Collections.singletonList(tracker)); // 监听器列表
 
     private final ReentrantLock lock = new ReentrantLock(); // 锁
 
     private final Deck deck = new Deck(); // 牌堆
-    private final PatternValidator validator = new PatternValidatorImpl(); // 牌型验证器
+    private final PatternValidator validator = new HistogramPatternValidator(); // 牌型验证器（无分配快速实现）
 
     private volatile State state = State.WAITING; // 当前状态
     private volatile int currentIdx = 0; // 当前玩家索引
     private volatile int lastIdx = -1; // 上一轮玩家索引
     private volatile CardPattern lastPattern; // 上一轮牌型
     private volatile int passCount = 0; // pass次数
+    private volatile CancellationToken decisionToken = new CancellationToken(); // 进行中的AI决策的取消标记
 
     private boolean autoFillBots = true; // 是否自动填充机器人
 
@@ -57,10 +60,18 @@ public final class Game {
     }
 
     public void startGame() {
+        startGame(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 用给定的种子洗牌并开始游戏，同样的种子和玩家数发出同样的牌（用于可复现的自我对局）
+     */
+    public void startGame(long seed) {
         lock.lock();
         try {
             ensurePlayerCount(); // 确保玩家数量
-            deal(); // 发牌
+            renewDecisionToken(); // 取消上一局遗留的决策
+            deal(seed); // 发牌
             initRound(); // 初始化一轮游戏
             fire(l -> l.onGameStarted(this)); // 通知监听器游戏开始，对于每个监听器 l，调用其 onGameStarted 方法，传入当前游戏实例 this 作为参数
         } finally {
@@ -70,8 +81,18 @@ public final class Game {
 
     // 出牌
     public boolean playSelected() {
+        return playSelected(CancellationToken.NONE);
+    }
+
+    /**
+     * 出牌，token 已被取消时不出。在锁内检查，重置、重新开始或结束游戏（都会取消决策标记）之后不会再打出旧的决策
+     * @param token 做出这次决策时的取消标记，通常是 {@link #getDecisionToken()}
+     */
+    public boolean playSelected(CancellationToken token) {
         lock.lock();
         try {
+            if (token.isCancelled())
+                return false;
             Player p = current(); // 获取当前玩家
             List<Card> sel = p.getSelectedCards(); // 获取当前玩家选中的牌
             if (sel.isEmpty())
@@ -131,10 +152,11 @@ public final class Game {
     }
 
     // 发牌
-    private void deal() {
+    private void deal(long seed) {
         state = State.DEALING; // 设置状态为发牌中
-        deck.shuffle(); // 洗牌
-        List<List<Card>> hands = deck.dealCards(players.size()); // 发牌
+        deck.shuffle(seed); // 洗牌
+        tracker.reset(players.size());
+        List<CardSet> hands = deck.dealCardSets(players.size()); // 发牌
         for (int i = 0; i < players.size(); i++)
             players.get(i).setHand(hands.get(i)); // 设置玩家手牌
     }
@@ -186,9 +208,17 @@ public final class Game {
 
     private void finish(Player winner) {
         state = State.GAME_OVER; // 设置状态为游戏结束
+        renewDecisionToken(); // 结束进行中的AI决策
         fire(l -> l.onGameOver(this, winner)); // 通知监听器游戏结束
     }
 
+    /** 取消当前的决策标记并换一个新的，之后开始的决策使用新标记 */
+    private void renewDecisionToken() {
+        CancellationToken old = decisionToken;
+        decisionToken = new CancellationToken();
+        old.cancel();
+    }
+
     private void allPassReset() {
         currentIdx = lastIdx; // 当前玩家索引设置为上一轮玩家索引
         lastPattern = null; // 上一轮牌型设置为空
@@ -243,6 +273,24 @@ public final class Game {
         return lastPattern;
     }
 
+    /** 本局已经打出的所有牌 */
+    public CardSet getPlayedCards() {
+        return tracker.getPlayedCards();
+    }
+
+    /**
+     * 当前的AI决策取消标记：游戏重新开始、重置或结束时被取消，
+     * 异步决策（{@link AIPlayer#autoPlayAsync}）应在开始前取得它
+     */
+    public CancellationToken getDecisionToken() {
+        return decisionToken;
+    }
+
+    /** 本局的记牌器，由游戏事件自动更新 */
+    public CardTracker getCardTracker() {
+        return tracker;
+    }
+
     public void setAutoFillBots(boolean b) {
         autoFillBots = b;
     } // 设置是否自动填充机器人
@@ -301,10 +349,12 @@ public final class Game {
         lock.lock();
         try {
             state = State.WAITING;
+            renewDecisionToken();
             currentIdx = 0;
             lastIdx = -1;
             lastPattern = null;
             passCount = 0;
+            tracker.reset(players.size());
             players.forEach(Player::clearSelections);
         } finally {
             lock.unlock();
@@ -1,18 +1,34 @@
 package models;
 
+import java.util.function.Supplier;
+
 /**
  * 游戏工厂类，用于创建不同模式的游戏
  */
 public class GameFactory {
 
     /**
-     * 创建一个单机游戏（一个人类玩家，多个AI对手）
+     * 创建一个单机游戏（一个人类玩家，多个AI对手），所有AI共用同一个策略实例
      * 
      * @param playerName 人类玩家名称
      * @param aiCount    AI玩家数量 (1-3)
      * @return 创建的游戏实例
      */
     public static Game createSinglePlayerGame(String playerName, int aiCount, AIStrategy aiStrategy) {
+        return createSinglePlayerGame(playerName, aiCount, () -> aiStrategy, false);
+    }
+
+    /**
+     * 创建一个单机游戏，每个AI使用各自的策略实例
+     *
+     * @param playerName 人类玩家名称
+     * @param aiCount    AI玩家数量 (1-3)
+     * @param strategies 每次调用返回一个新的策略实例
+     * @param pondering  AI是否在别人的回合预先思考（要求策略实例不共用）
+     * @return 创建的游戏实例
+     */
+    public static Game createSinglePlayerGame(String playerName, int aiCount,
+                                              Supplier<? extends AIStrategy> strategies, boolean pondering) {
         // 验证AI玩家数量是否合法
         if (aiCount < 1 || aiCount > 3) {
             throw new IllegalArgumentException("AI玩家数量必须在1-3之间");
@@ -26,7 +42,8 @@ public class GameFactory {
 
         // 添加AI玩家
         for (int i = 0; i < aiCount; i++) {
-            AIPlayer aiPlayer = new AIPlayer("AI " + (i + 1), aiStrategy);
+            AIPlayer aiPlayer = new AIPlayer("AI " + (i + 1), strategies.get());
+            aiPlayer.setPondering(pondering);
             game.addPlayer(aiPlayer);
         }
 
@@ -0,0 +1,343 @@
+package models;
+
+/**
+ * 手牌分析：按点数、花色分组的张数，以及手牌中所有候选牌型，一次算好供整个决策读取
+ *
+ * 候选牌型用 {@link MoveList} 存放（位掩码 + 编码 + 强度键），顺序就是 {@link AdvancedAIStrategy} 选牌时的遍历顺序：
+ * 对子、顺子、同花、炸弹、同花顺候选按最大牌（先点数后花色）升序；三带二按三张的点数、再按对子的点数升序。
+ * 同一点数的牌取花色最小的几张。策略只需按下标比较强度键，选中之后才展开成牌的列表。
+ *
+ * 出牌之后用 {@link #remove(long)} 增量更新：对子、炸弹直接删掉含有已出牌的候选；
+ * 三条、三带二、顺子、同花、同花顺只重算涉及到的点数和花色，其余分组原样保留。
+ *
+ * 同花顺候选是同一花色的连续五个点数，是否按同花顺出由调用方的验证器决定。
+ * 可以用 {@link #reset(long)} 反复复用，非线程安全，由持有者负责同步。
+ */
+public final class HandAnalysis {
+
+    private static final int RANKS = 13;
+    private static final int SUITS = 4;
+    private static final int ALL_RANKS = (1 << RANKS) - 1;
+    private static final int ALL_SUITS = (1 << SUITS) - 1;
+    private static final int STRAIGHT_LOWS = RANKS - 4; // 顺子最小点数的取值个数
+
+    private long hand;
+    private final int[] rankCounts = new int[RANKS];
+    private final int[] suitCounts = new int[SUITS];
+
+    // 按分组保存的中间结果，增量更新时只重算涉及到的分组
+    private final long[] threeAt = new long[RANKS];            // 该点数最小的三张，不足三张为 0
+    private final long[] straightAt = new long[STRAIGHT_LOWS]; // 以该点数开头的顺子，没有为 0
+    private final long[] flushAt = new long[SUITS];            // 该花色最小的五张，不足五张为 0
+    private final int[] runTops = new int[SUITS];              // 该花色同花顺候选的最大点数集合
+
+    private final MoveList pairs = new MoveList(RANKS * 6);
+    private final long[] threes = new long[RANKS];
+    private int threeCount;
+    private final MoveList threeWithPairs = new MoveList(RANKS * 4);
+    private final MoveList bombs = new MoveList(RANKS);
+    private final MoveList straights = new MoveList(RANKS);
+    private final MoveList flushes = new MoveList(SUITS);
+    private final MoveList flushStraights = new MoveList(SUITS * 2);
+
+    public HandAnalysis() {
+    }
+
+    public HandAnalysis(long hand) {
+        reset(hand);
+    }
+
+    /**
+     * 重新分析一手牌
+     * @param hand 手牌位掩码
+     * @return this
+     */
+    public HandAnalysis reset(long hand) {
+        this.hand = hand;
+        for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
+            rankCounts[rank] = CardSet.rankCount(hand, rank);
+        }
+        for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) {
+            suitCounts[suit] = Long.bitCount(hand & CardSet.suitMask(suit));
+        }
+
+        pairs.clear();
+        bombs.clear();
+        for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
+            long group = rankGroup(rank);
+            for (long high = group; high != 0L; high &= high - 1) { // 按较大一张升序
+                long top = Long.lowestOneBit(high);
+                for (long low = group & (top - 1); low != 0L; low &= low - 1) {
+                    pairs.add(top | Long.lowestOneBit(low), PatternCode.encode(CardPattern.PAIR, idOf(top)));
+                }
+            }
+            if (rankCounts[rank] == 4) {
+                bombs.add(group, PatternCode.encode(CardPattern.BOMB, highestId(group)));
+            }
+        }
+        update(ALL_RANKS, ALL_SUITS, true);
+        return this;
+    }
+
+    /**
+     * 复制另一个分析的全部结果，不重新计算
+     * @return this
+     */
+    public HandAnalysis copyFrom(HandAnalysis other) {
+        hand = other.hand;
+        System.arraycopy(other.rankCounts, 0, rankCounts, 0, RANKS);
+        System.arraycopy(other.suitCounts, 0, suitCounts, 0, SUITS);
+        System.arraycopy(other.threeAt, 0, threeAt, 0, RANKS);
+        System.arraycopy(other.straightAt, 0, straightAt, 0, STRAIGHT_LOWS);
+        System.arraycopy(other.flushAt, 0, flushAt, 0, SUITS);
+        System.arraycopy(other.runTops, 0, runTops, 0, SUITS);
+        pairs.copyFrom(other.pairs);
+        System.arraycopy(other.threes, 0, threes, 0, RANKS);
+        threeCount = other.threeCount;
+        threeWithPairs.copyFrom(other.threeWithPairs);
+        bombs.copyFrom(other.bombs);
+        straights.copyFrom(other.straights);
+        flushes.copyFrom(other.flushes);
+        flushStraights.copyFrom(other.flushStraights);
+        return this;
+    }
+
+    /**
+     * 手牌中移除了一些牌（例如出牌之后），只更新涉及到的点数和花色
+     * @param removed 被移除的牌，不在手中的牌忽略
+     */
+    public void remove(long removed) {
+        removed &= hand;
+        if (removed == 0L) return;
+        // 三带二的对子取最小两张：某个点数原来的最小两张里有被移除的牌时，组合会变
+        boolean pairsMoved = false;
+        int suits = 0;
+        for (int r = CardSet.rankPresence(removed); r != 0; r &= r - 1) {
+            long group = rankGroup(Integer.numberOfTrailingZeros(r));
+            pairsMoved |= Long.bitCount(group) >= 2 && (lowest(group, 2) & removed) != 0L;
+        }
+        for (long m = removed; m != 0L; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            rankCounts[id >>> 2]--;
+            suitCounts[id & 3]--;
+            suits |= 1 << (id & 3);
+        }
+        hand &= ~removed;
+        pairs.removeIntersecting(removed);
+        bombs.removeIntersecting(removed);
+        update(CardSet.rankPresence(removed), suits, pairsMoved);
+    }
+
+    /**
+     * 重算给定点数、花色的分组，分组有变化时重新汇总对应的候选列表
+     * @param ranks 涉及到的点数集合
+     * @param suits 涉及到的花色集合
+     * @param pairsMoved 是否有点数的最小两张发生了变化
+     */
+    private void update(int ranks, int suits, boolean pairsMoved) {
+        boolean threesChanged = false;
+        for (int r = ranks; r != 0; r &= r - 1) {
+            int rank = Integer.numberOfTrailingZeros(r);
+            long three = rankCounts[rank] >= 3 ? lowest(rankGroup(rank), 3) : 0L;
+            threesChanged |= three != threeAt[rank];
+            threeAt[rank] = three;
+        }
+        if (threesChanged) collectThrees();
+        if (threesChanged || pairsMoved) collectThreeWithPairs();
+
+        // 一个点数只影响最小点数在 [该点数-4, 该点数] 内的顺子
+        int first = Math.max(Integer.numberOfTrailingZeros(ranks) - 4, 0);
+        int last = Math.min(31 - Integer.numberOfLeadingZeros(ranks), STRAIGHT_LOWS - 1);
+        boolean straightsChanged = false;
+        for (int low = first; low <= last; low++) {
+            long straight = straightFrom(low);
+            straightsChanged |= straight != straightAt[low];
+            straightAt[low] = straight;
+        }
+        if (straightsChanged) collectStraights();
+
+        boolean flushesChanged = false;
+        boolean runsChanged = false;
+        for (int s = suits; s != 0; s &= s - 1) {
+            int suit = Integer.numberOfTrailingZeros(s);
+            long flush = suitCounts[suit] >= 5 ? lowest(suitGroup(suit), 5) : 0L;
+            flushesChanged |= flush != flushAt[suit];
+            flushAt[suit] = flush;
+            int tops = runTopsOf(suit);
+            runsChanged |= tops != runTops[suit];
+            runTops[suit] = tops;
+        }
+        if (flushesChanged) collectFlushes();
+        if (runsChanged) collectFlushStraights();
+    }
+
+    /**
+     * 以 low 开头的顺子：手牌排好序后相邻的五张点数连续且不全同花，
+     * 即起点取该点数最大的一张、终点取最小的一张，中间三个点数各只有一张
+     */
+    private long straightFrom(int low) {
+        if (rankCounts[low] == 0 || rankCounts[low + 4] == 0
+                || rankCounts[low + 1] != 1 || rankCounts[low + 2] != 1 || rankCounts[low + 3] != 1) return 0L;
+        long straight = Long.highestOneBit(rankGroup(low)) | Long.lowestOneBit(rankGroup(low + 4));
+        for (int rank = low + 1; rank < low + 4; rank++) straight |= rankGroup(rank);
+        return isSuited(straight) ? 0L : straight;
+    }
+
+    /** 该花色中连续五个点数的最大点数集合 */
+    private int runTopsOf(int suit) {
+        if (suitCounts[suit] < 5) return 0;
+        int ranks = CardSet.ranksOfSuit(hand, suit);
+        return ranks & ranks << 1 & ranks << 2 & ranks << 3 & ranks << 4;
+    }
+
+    /* ---------- 由分组汇总候选列表 ---------- */
+
+    private void collectThrees() {
+        threeCount = 0;
+        for (long three : threeAt) {
+            if (three != 0L) threes[threeCount++] = three;
+        }
+    }
+
+    private void collectThreeWithPairs() {
+        threeWithPairs.clear();
+        for (int t = 0; t < threeCount; t++) {
+            long three = threes[t];
+            int threeRank = highestId(three) >>> 2;
+            for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
+                if (rank == threeRank || rankCounts[rank] < 2) continue;
+                threeWithPairs.add(three | lowest(rankGroup(rank), 2),
+                        PatternCode.encode(CardPattern.THREE_WITH_PAIR, highestId(three)));
+            }
+        }
+    }
+
+    private void collectStraights() {
+        straights.clear();
+        for (long straight : straightAt) {
+            if (straight != 0L) {
+                straights.add(straight, PatternCode.encode(CardPattern.STRAIGHT, highestId(straight)));
+            }
+        }
+    }
+
+    /** 同花：每个够五张的花色取最小的五张，按最大牌升序 */
+    private void collectFlushes() {
+        flushes.clear();
+        long emitted = 0L;
+        while (true) {
+            long next = 0L;
+            for (long flush : flushAt) {
+                if (flush != 0L && (flush & emitted) == 0L
+                        && (next == 0L || highestId(flush) < highestId(next))) next = flush;
+            }
+            if (next == 0L) return;
+            emitted |= next;
+            flushes.add(next, PatternCode.encode(CardPattern.FLUSH, highestId(next)));
+        }
+    }
+
+    /** 同花顺候选：同一花色连续五个点数，按最大牌升序 */
+    private void collectFlushStraights() {
+        flushStraights.clear();
+        for (int top = Card.THREE + 4; top <= Card.TWO; top++) {
+            for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) {
+                if ((runTops[suit] & 1 << top) == 0) continue;
+                long run = 0L;
+                for (int rank = top - 4; rank <= top; rank++) run |= 1L << CardSet.id(suit, rank);
+                flushStraights.add(run, PatternCode.encode(CardPattern.FLUSH_STRAIGHT, CardSet.id(suit, top)));
+            }
+        }
+    }
+
+    /* ---------- 分组 ---------- */
+
+    public long hand() {
+        return hand;
+    }
+
+    public int size() {
+        return Long.bitCount(hand);
+    }
+
+    public int rankCount(int rank) {
+        return rankCounts[rank];
+    }
+
+    public int suitCount(int suit) {
+        return suitCounts[suit];
+    }
+
+    /** 某个点数的全部手牌 */
+    public long rankGroup(int rank) {
+        return hand & CardSet.rankMask(rank);
+    }
+
+    /** 某个花色的全部手牌 */
+    public long suitGroup(int suit) {
+        return hand & CardSet.suitMask(suit);
+    }
+
+    /* ---------- 候选牌型，调用方不要修改 ---------- */
+
+    public MoveList pairs() {
+        return pairs;
+    }
+
+    /** 三带二：三张取该点数最小的三张，对子取最小的两张 */
+    public MoveList threeWithPairs() {
+        return threeWithPairs;
+    }
+
+    /** 炸弹（四张相同点数，不带单张） */
+    public MoveList bombs() {
+        return bombs;
+    }
+
+    public MoveList straights() {
+        return straights;
+    }
+
+    public MoveList flushes() {
+        return flushes;
+    }
+
+    public MoveList flushStraights() {
+        return flushStraights;
+    }
+
+    /** 三条的个数，按点数升序 */
+    public int threeCount() {
+        return threeCount;
+    }
+
+    /** 第 i 个三条（该点数最小的三张） */
+    public long three(int i) {
+        return threes[i];
+    }
+
+    /* ---------- 位运算工具 ---------- */
+
+    private static boolean isSuited(long cards) {
+        for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) {
+            if ((cards & ~CardSet.suitMask(suit)) == 0L) return true;
+        }
+        return false;
+    }
+
+    private static int idOf(long bit) {
+        return Long.numberOfTrailingZeros(bit);
+    }
+
+    private static int highestId(long cards) {
+        return 63 - Long.numberOfLeadingZeros(cards);
+    }
+
+    private static long lowest(long cards, int n) {
+        long result = 0L;
+        for (long m = cards; n > 0 && m != 0L; m &= m - 1, n--) {
+            result |= Long.lowestOneBit(m);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+package models;
+
+import java.util.Arrays;
+
+/**
+ * 手牌拆分求解器：把手牌划分成若干合法牌型，使出完手牌所需的手数最少；
+ * 手数相同时单张越少越好（尽量保留对子、三带二、顺子等整体牌型）
+ *
+ * 对手牌位掩码做记忆化动态规划：每一步只枚举包含当前最小那张牌的出牌，
+ * 每种剩余手牌只求解一次。结果只取决于剩余手牌本身，所以缓存可以在出牌后、
+ * 甚至不同玩家之间继续复用；缓存有固定上限，装满后整体清空。线程安全。
+ */
+public final class HandDecomposer {
+
+    /** 每一手的代价：手数占高位，单张数占低位 */
+    private static final int PLAY_COST = 64;
+    private static final int SINGLE_COST = 1;
+
+    private static final long EMPTY_SLOT = -1L;
+
+    private final int capacity;
+    private final long[] keys;
+    private final int[] values;
+    private final long[] bestMoves;
+    private int used;
+
+    /** 每层递归一个候选列表，避免搜索中的分配 */
+    private final MoveList[] scratch = new MoveList[53];
+
+    public HandDecomposer() {
+        this(1 << 16);
+    }
+
+    /**
+     * @param capacity 缓存槽位数，取整为 2 的幂
+     */
+    public HandDecomposer(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(capacity, 1024) - 1) << 1;
+        this.keys = new long[this.capacity];
+        this.values = new int[this.capacity];
+        this.bestMoves = new long[this.capacity];
+        Arrays.fill(keys, EMPTY_SLOT);
+    }
+
+    /**
+     * 出完手牌最少需要几手
+     */
+    public synchronized int playsNeeded(long hand) {
+        return solve(hand, 0) / PLAY_COST;
+    }
+
+    /**
+     * 求出最优拆分
+     * @param hand 手牌位掩码
+     * @param out 输出每一手牌，按强度键升序排列（会先被清空）
+     * @return 手数
+     */
+    public synchronized int decompose(long hand, MoveList out) {
+        out.clear();
+        solve(hand, 0);
+        long rest = hand;
+        while (rest != 0L) {
+            int slot = find(rest);
+            if (keys[slot] != rest) { // 求解途中缓存被清空过，补算这一步
+                solve(rest, 0);
+                slot = find(rest);
+            }
+            long move = bestMoves[slot];
+            out.add(move, HistogramPatternValidator.classify(move));
+            rest &= ~move;
+        }
+        out.sortByStrength();
+        return out.size();
+    }
+
+    /** 清空缓存 */
+    public synchronized void clear() {
+        Arrays.fill(keys, EMPTY_SLOT);
+        used = 0;
+    }
+
+    /* ---------- 求解 ---------- */
+
+    private int solve(long hand, int depth) {
+        if (hand == 0L) return 0;
+        int slot = find(hand);
+        if (keys[slot] == hand) return values[slot];
+
+        MoveList moves = scratch[depth];
+        if (moves == null) {
+            moves = scratch[depth] = new MoveList(32);
+        }
+        // 最小的那张牌总要在某一手中打出，只枚举包含它的出牌即可覆盖所有划分
+        MoveGenerator.generate(hand, 0, Long.lowestOneBit(hand), moves);
+
+        int best = Integer.MAX_VALUE;
+        long bestMove = 0L;
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.cards(i);
+            int cost = PLAY_COST + (Long.bitCount(move) == 1 ? SINGLE_COST : 0);
+            if (cost >= best) continue;
+            int value = cost + solve(hand & ~move, depth + 1);
+            if (value < best) {
+                best = value;
+                bestMove = move;
+            }
+        }
+
+        store(hand, best, bestMove);
+        return best;
+    }
+
+    /** 线性探测：返回 key 所在槽位，或它应当放入的空槽位 */
+    private int find(long key) {
+        int slot = (int) (mix(key) & (capacity - 1));
+        while (keys[slot] != EMPTY_SLOT && keys[slot] != key) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return slot;
+    }
+
+    private void store(long key, int value, long bestMove) {
+        if (used >= capacity / 2) {
+            clear(); // 超出上限时整体清空，保持探测链短小
+        }
+        int slot = find(key);
+        if (keys[slot] == EMPTY_SLOT) used++;
+        keys[slot] = key;
+        values[slot] = value;
+        bestMoves[slot] = bestMove;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
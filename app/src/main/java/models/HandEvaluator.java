@@ -0,0 +1,187 @@
+package models;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 静态手牌评估：只看手牌本身，给出控制牌张数、出完所需手数、五张牌型覆盖的张数和小单张个数
+ *
+ * 结果打包成一个 int（各项的取法见 {@link #playsOf} 等静态方法），
+ * 按手牌位掩码缓存在分段加锁的定长表中：表分成 {@link #STRIPES} 段，各段各用一把锁，
+ * 每个槽位直接映射、冲突时覆盖，所以内存有上限。普通对局中同一手牌很少被重复评估
+ * （AdvancedAIStrategy 自我对局的命中率约 2%），缓存只省下偶尔重复的拆分，命中率可以用 {@link #hitRate()} 查看。
+ * 未命中时用每个线程自己的 {@link HandDecomposer} 求最优拆分。线程安全。
+ */
+public final class HandEvaluator {
+
+    /** 默认缓存槽位数 */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** 缓存分段数（2 的幂） */
+    public static final int STRIPES = 16;
+
+    /** 控制牌：A 和 2 */
+    private static final long CONTROL_MASK = CardSet.rankMask(Card.ACE) | CardSet.rankMask(Card.TWO);
+
+    /** 点数不大于 10 的单张算作小单张 */
+    private static final int WEAK_SINGLE_MAX_RANK = Card.TEN;
+
+    private static final long EMPTY_SLOT = -1L;
+
+    private static final HandEvaluator SHARED = new HandEvaluator(DEFAULT_CAPACITY);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int slotMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final ThreadLocal<HandDecomposer> decomposers = new ThreadLocal<HandDecomposer>() {
+        @Override
+        protected HandDecomposer initialValue() {
+            return new HandDecomposer(1 << 14);
+        }
+    };
+    private final ThreadLocal<MoveList> plans = new ThreadLocal<MoveList>() {
+        @Override
+        protected MoveList initialValue() {
+            return new MoveList(16);
+        }
+    };
+
+    /** 所有策略共用的评估器 */
+    public static HandEvaluator shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param capacity 缓存槽位总数，取整为 2 的幂
+     */
+    public HandEvaluator(int capacity) {
+        int perStripe = Integer.highestOneBit(Math.max(capacity / STRIPES, 16) - 1) << 1;
+        this.slotMask = perStripe - 1;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * 评估手牌
+     * @return 打包的评估结果
+     */
+    public int evaluate(long hand) {
+        long h = mix(hand);
+        Stripe stripe = stripes[(int) (h >>> 60) & (STRIPES - 1)];
+        int slot = (int) h & slotMask;
+        synchronized (stripe) {
+            if (stripe.keys[slot] == hand) {
+                hits.increment();
+                return stripe.values[slot];
+            }
+        }
+        misses.increment();
+        int value = compute(hand);
+        synchronized (stripe) {
+            stripe.keys[slot] = hand;
+            stripe.values[slot] = value;
+        }
+        return value;
+    }
+
+    private int compute(long hand) {
+        MoveList plan = plans.get();
+        int plays = decomposers.get().decompose(hand, plan);
+        int fiveCards = 0;
+        int weakSingles = 0;
+        for (int i = 0; i < plan.size(); i++) {
+            long move = plan.cards(i);
+            int size = Long.bitCount(move);
+            if (size == 5) {
+                fiveCards += 5;
+            } else if (size == 1 && Long.numberOfTrailingZeros(move) >>> 2 <= WEAK_SINGLE_MAX_RANK) {
+                weakSingles++;
+            }
+        }
+        return pack(plays, Long.bitCount(hand & CONTROL_MASK), fiveCards, weakSingles);
+    }
+
+    /* ---------- 结果打包：手数 6 位 | 控制牌 4 位 | 五张牌型张数 6 位 | 小单张 6 位 ---------- */
+
+    static int pack(int plays, int controls, int fiveCards, int weakSingles) {
+        return plays | controls << 6 | fiveCards << 10 | weakSingles << 16;
+    }
+
+    /** 出完手牌最少需要的手数 */
+    public static int playsOf(int evaluation) {
+        return evaluation & 0x3F;
+    }
+
+    /** 控制牌（A、2）张数 */
+    public static int controlsOf(int evaluation) {
+        return evaluation >>> 6 & 0xF;
+    }
+
+    /** 最优拆分中五张牌型覆盖的张数 */
+    public static int fiveCardCardsOf(int evaluation) {
+        return evaluation >>> 10 & 0x3F;
+    }
+
+    /** 最优拆分中点数不大于 10 的单张个数 */
+    public static int weakSinglesOf(int evaluation) {
+        return evaluation >>> 16 & 0x3F;
+    }
+
+    /**
+     * 综合分数，越大越好：每少一手 +10，每张控制牌 +4，五张牌型每张 +1，每个小单张 -3
+     */
+    public static int scoreOf(int evaluation) {
+        return 4 * controlsOf(evaluation) + fiveCardCardsOf(evaluation)
+                - 10 * playsOf(evaluation) - 3 * weakSinglesOf(evaluation);
+    }
+
+    /* ---------- 统计 ---------- */
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** 缓存命中率 */
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /** 清空缓存和统计 */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Arrays.fill(stripe.keys, EMPTY_SLOT);
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * 缓存的一段，由自身作为锁
+     */
+    private static final class Stripe {
+        final long[] keys;
+        final int[] values;
+
+        Stripe(int slots) {
+            keys = new long[slots];
+            values = new int[slots];
+            Arrays.fill(keys, EMPTY_SLOT);
+        }
+    }
+}
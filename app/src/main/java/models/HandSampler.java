@@ -0,0 +1,231 @@
+package models;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 对手手牌采样器：在看不到的牌中按张数给每个对手发牌，并参考 pass 记录做约束采样
+ *
+ * 一个座位在某大类上 pass 过强度键 k，说明它当时（很可能）没有能压过 k 的同类牌型；
+ * 手牌只会变少，所以现在的手牌如果有能压过 k 的牌型就与 pass 矛盾。
+ * 玩家也会为了留大牌而故意 pass，所以这只是软约束：每个样本中，有 pass 记录的座位以概率 trust
+ * 被当作「如实 pass」，其手牌必须与记录一致，其余座位不受约束。
+ *
+ * 单张、对子约束在发牌时直接满足：如实 pass 的座位先发，只从不大于所 pass 单张的牌中取，
+ * 并跳过会凑成更大对子的牌；五张约束在发完后检查，不满足时重新发牌（拒绝采样），
+ * 连续 {@link #MAX_ATTEMPTS} 次都不满足时接受最后一个样本。
+ *
+ * 所有判断都是位运算，发牌用部分洗牌，不创建对象。实例不可变，可在多个线程中同时使用，
+ * 每个线程自备 {@link #deckSize()} 大小的 int 数组作为洗牌缓冲区。
+ */
+public final class HandSampler {
+
+    /** 默认认为 pass 如实反映手牌的概率 */
+    public static final double DEFAULT_PASS_TRUST = 0.75;
+
+    /** 一次采样最多尝试的次数 */
+    public static final int MAX_ATTEMPTS = 32;
+
+    private static final int FAMILIES = 4;
+
+    private final long unseen;
+    private final int[] unseenIds;
+    private final int[] counts;       // 下标为相对座位，0 为自己
+    private final int[][] passedKeys; // [相对座位][大类]：pass 过的最小强度键，0 表示没有
+    private final long[] singleBound; // 如实 pass 时允许持有的牌，没有单张约束时为全部
+    private final double trust;
+    private final boolean constrained;
+
+    /**
+     * @param unseen 看不到的牌（对手手牌及未发出的牌）
+     * @param counts 各座位的手牌张数，下标为相对座位（1 为下家），counts[0] 不使用
+     * @param passedKeys 各座位在各大类上 pass 过的最小强度键，为 null 时不使用 pass 记录
+     * @param trust 认为 pass 如实反映手牌的概率，0..1
+     */
+    public HandSampler(long unseen, int[] counts, int[][] passedKeys, double trust) {
+        if (counts.length < 2 || counts.length > Playout.MAX_SEATS) {
+            throw new IllegalArgumentException("座位数必须在2-4之间: " + counts.length);
+        }
+        int needed = 0;
+        for (int s = 1; s < counts.length; s++) needed += counts[s];
+        if (needed > Long.bitCount(unseen)) {
+            throw new IllegalArgumentException("看不到的牌少于对手手牌总数");
+        }
+        if (trust < 0 || trust > 1) {
+            throw new IllegalArgumentException("概率必须在0-1之间: " + trust);
+        }
+        this.unseen = unseen;
+        this.unseenIds = new int[Long.bitCount(unseen)];
+        int n = 0;
+        for (long m = unseen; m != 0L; m &= m - 1) {
+            unseenIds[n++] = Long.numberOfTrailingZeros(m);
+        }
+        this.counts = counts.clone();
+        this.passedKeys = new int[counts.length][FAMILIES];
+        this.singleBound = new long[counts.length];
+        boolean any = false;
+        for (int s = 1; s < counts.length; s++) {
+            if (passedKeys != null && s < passedKeys.length) {
+                for (int f = 1; f < FAMILIES; f++) {
+                    this.passedKeys[s][f] = passedKeys[s][f];
+                    any |= passedKeys[s][f] != 0;
+                }
+            }
+            int single = this.passedKeys[s][1];
+            singleBound[s] = single == 0 ? CardSet.FULL_MASK : (2L << (single & 0xFF)) - 1;
+        }
+        this.trust = trust;
+        this.constrained = any && trust > 0;
+    }
+
+    /**
+     * 按一次决策的信息创建采样器：有记牌器时使用各对手的 pass 记录
+     * @throws IllegalArgumentException 座位数不在 2-4 之间或张数与看不到的牌不一致时抛出
+     */
+    public static HandSampler of(DecisionContext context) {
+        List<Integer> others = context.getOthersCount();
+        int seats = others.size() + 1;
+        int[] counts = new int[seats];
+        for (int s = 1; s < seats; s++) counts[s] = others.get(s - 1);
+
+        int[][] passed = null;
+        CardTracker tracker = context.getTracker();
+        int self = context.getSeat();
+        if (tracker != null && self >= 0 && tracker.getSeatCount() == seats) {
+            passed = new int[seats][FAMILIES];
+            for (int s = 1; s < seats; s++) {
+                int seat = (self + s) % seats;
+                for (int f = 1; f < FAMILIES; f++) passed[s][f] = tracker.lowestPassedKey(seat, f);
+            }
+        }
+        return new HandSampler(context.unseen(), counts, passed, DEFAULT_PASS_TRUST);
+    }
+
+    public int seats() {
+        return counts.length;
+    }
+
+    /** 洗牌缓冲区需要的大小 */
+    public int deckSize() {
+        return unseenIds.length;
+    }
+
+    /** 是否有可用的 pass 记录 */
+    public boolean isConstrained() {
+        return constrained;
+    }
+
+    /**
+     * 采样一组对手手牌，写入 hands[1..seats-1]，hands[0] 不变
+     * @param deck 洗牌缓冲区，长度不小于 {@link #deckSize()}
+     * @return 被当作如实 pass 的座位是否都与记录一致
+     */
+    public boolean sample(SplittableRandom random, long[] hands, int[] deck) {
+        if (!constrained) { // 一次部分洗牌，依次抽出每个对手的手牌
+            System.arraycopy(unseenIds, 0, deck, 0, unseenIds.length);
+            int next = 0;
+            for (int s = 1; s < counts.length; s++) {
+                long bits = 0L;
+                for (int k = 0; k < counts[s]; k++) {
+                    int j = next + random.nextInt(unseenIds.length - next);
+                    int id = deck[j];
+                    deck[j] = deck[next];
+                    deck[next++] = id;
+                    bits |= 1L << id;
+                }
+                hands[s] = bits;
+            }
+            return true;
+        }
+
+        int honest = 0; // 被当作如实 pass 的座位
+        for (int s = 1; s < counts.length; s++) {
+            if (hasPassed(s) && random.nextDouble() < trust) honest |= 1 << s;
+        }
+        for (int attempt = 1; ; attempt++) {
+            long pool = unseen;
+            for (int s = 1; s < counts.length; s++) { // 先发如实 pass 的座位
+                if ((honest & 1 << s) == 0) continue;
+                long allowed = pool & singleBound[s];
+                hands[s] = drawBelow(Long.bitCount(allowed) >= counts[s] ? allowed : pool, counts[s],
+                        passedKeys[s][2], random, deck);
+                pool &= ~hands[s];
+            }
+            for (int s = 1; s < counts.length; s++) {
+                if ((honest & 1 << s) != 0) continue;
+                hands[s] = draw(pool, counts[s], random, deck);
+                pool &= ~hands[s];
+            }
+
+            boolean consistent = true;
+            for (int s = 1; s < counts.length && consistent; s++) {
+                if ((honest & 1 << s) != 0) consistent = isConsistent(s, hands[s]);
+            }
+            if (consistent) return true;
+            if (attempt >= MAX_ATTEMPTS) return false;
+        }
+    }
+
+    /** 相对座位 seat 持有 hand 是否与其 pass 记录一致 */
+    public boolean isConsistent(int seat, long hand) {
+        int[] keys = passedKeys[seat];
+        if (keys[1] != 0 && ControlAnalyzer.topSingle(hand) > keys[1]) return false;
+        if (keys[2] != 0 && ControlAnalyzer.topPair(hand) > keys[2]) return false;
+        return keys[3] == 0 || Long.bitCount(hand) < 5 || ControlAnalyzer.topFive(hand) <= keys[3];
+    }
+
+    private boolean hasPassed(int seat) {
+        int[] keys = passedKeys[seat];
+        return keys[1] != 0 || keys[2] != 0 || keys[3] != 0;
+    }
+
+    /**
+     * 从 pool 中随机取 k 张，跳过会凑成强度键大于 pairKey 的对子的牌（pairKey 为 0 时不限制）；
+     * 可取的牌不够时用跳过的牌补足
+     */
+    private static long drawBelow(long pool, int k, int pairKey, SplittableRandom random, int[] deck) {
+        if (pairKey == 0) return draw(pool, k, random, deck);
+        int n = 0;
+        for (long m = pool; m != 0L; m &= m - 1) {
+            deck[n++] = Long.numberOfTrailingZeros(m);
+        }
+        long bits = 0L;
+        long skipped = 0L;
+        int taken = 0;
+        for (int i = 0; i < n && taken < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int id = deck[j];
+            deck[j] = deck[i];
+            deck[i] = id;
+            long group = (bits | 1L << id) & CardSet.rankMask(id >>> 2);
+            if (Long.bitCount(group) >= 2
+                    && CardPattern.strengthKey(CardPattern.PAIR, 63 - Long.numberOfLeadingZeros(group)) > pairKey) {
+                skipped |= 1L << id;
+                continue;
+            }
+            bits |= 1L << id;
+            taken++;
+        }
+        for (long m = skipped; taken < k; m &= m - 1, taken++) {
+            bits |= Long.lowestOneBit(m);
+        }
+        return bits;
+    }
+
+    /** 从 pool 中随机取 k 张（部分洗牌） */
+    private static long draw(long pool, int k, SplittableRandom random, int[] deck) {
+        int n = 0;
+        for (long m = pool; m != 0L; m &= m - 1) {
+            deck[n++] = Long.numberOfTrailingZeros(m);
+        }
+        long bits = 0L;
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int id = deck[j];
+            deck[j] = deck[i];
+            deck[i] = id;
+            bits |= 1L << id;
+        }
+        return bits;
+    }
+}
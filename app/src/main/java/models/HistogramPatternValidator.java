@@ -0,0 +1,109 @@
+package models;
+
+import java.util.List;
+
+/**
+ * 无分配的牌型验证器，结果与 {@link PatternValidatorImpl} 完全一致
+ *
+ * 直接在位掩码上判定：掩码中第 rank 组 4 位就是该点数持有的花色，
+ * 其位数即点数直方图；四个花色的出现情况收拢成一个 int 的花色掩码。
+ * {@link #classify(long)} 只返回 {@link PatternCode} 编码，不复制列表、不排序、不用 HashMap 和流。
+ * 实例无状态，可在线程间共享。
+ */
+public class HistogramPatternValidator implements PatternValidator {
+
+    private static final PatternValidator FALLBACK = new PatternValidatorImpl();
+
+    @Override
+    public CardPattern validate(List<Card> cards) {
+        if (cards == null || cards.isEmpty()) {
+            return FALLBACK.validate(cards);
+        }
+        long mask = CardSet.maskOf(cards);
+        if (Long.bitCount(mask) != cards.size()) {
+            return FALLBACK.validate(cards); // 有重复的牌，按标准实现处理
+        }
+        return toPattern(mask, classify(mask));
+    }
+
+    @Override
+    public CardPattern validate(CardSet cards) {
+        if (cards == null || cards.isEmpty()) {
+            return FALLBACK.validate(cards);
+        }
+        return toPattern(cards.bits(), classify(cards.bits()));
+    }
+
+    /**
+     * 判定一组牌的牌型
+     * @param mask 牌的位掩码
+     * @return {@link PatternCode} 编码，无效时为 {@link PatternCode#INVALID}
+     */
+    public static int classify(long mask) {
+        int high = 63 - Long.numberOfLeadingZeros(mask);
+        switch (Long.bitCount(mask)) {
+            case 1: // 单牌
+                return PatternCode.encode(CardPattern.SINGLE, high);
+            case 2: // 对子
+                if (CardSet.rankCount(mask, high >>> 2) == 2) {
+                    return PatternCode.encode(CardPattern.PAIR, high);
+                }
+                return PatternCode.INVALID;
+            case 5: // 五张牌：顺子、同花、三带二、炸弹
+                return classifyFive(mask, high);
+            default:
+                return PatternCode.INVALID;
+        }
+    }
+
+    /**
+     * 与 PatternValidatorImpl 的判定顺序相同：
+     * 顺子要求点数连续且不全同花；同花（包括同花顺）归为 FLUSH；
+     * 三带二、炸弹的最大牌取三张/四张中花色最大的那张
+     */
+    private static int classifyFive(long mask, int high) {
+        int ranks = 0; // 出现过的点数
+        int pairs = 0; // 张数 ≥ 2 的点数
+        int suits = 0; // 出现过的花色
+        for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
+            int held = CardSet.suitsOfRank(mask, rank);
+            if (held == 0) continue;
+            ranks |= 1 << rank;
+            suits |= held;
+            if ((held & (held - 1)) != 0) pairs |= 1 << rank;
+        }
+
+        boolean flush = Integer.bitCount(suits) == 1;
+        if (pairs == 0) {
+            int low = Integer.numberOfTrailingZeros(ranks);
+            if (!flush && (ranks >>> low) == 0x1F) {
+                return PatternCode.encode(CardPattern.STRAIGHT, high);
+            }
+            if (flush) {
+                return PatternCode.encode(CardPattern.FLUSH, high);
+            }
+            return PatternCode.INVALID;
+        }
+
+        if (Integer.bitCount(ranks) == 2) {
+            for (int r = ranks; r != 0; r &= r - 1) {
+                int rank = Integer.numberOfTrailingZeros(r);
+                int count = CardSet.rankCount(mask, rank);
+                if (count == 3 || count == 4) {
+                    int top = 63 - Long.numberOfLeadingZeros(mask & CardSet.rankMask(rank));
+                    return PatternCode.encode(count == 3 ? CardPattern.THREE_WITH_PAIR : CardPattern.BOMB, top);
+                }
+            }
+        }
+        return PatternCode.INVALID;
+    }
+
+    /** 把编码还原为 CardPattern，牌按从小到大排列 */
+    static CardPattern toPattern(long mask, int code) {
+        List<Card> sorted = CardSet.ofBits(mask).toList();
+        if (!PatternCode.isValid(code)) {
+            return new CardPattern(CardPattern.INVALID, sorted, null);
+        }
+        return new CardPattern(PatternCode.typeOf(code), sorted, Card.byId(PatternCode.highestIdOf(code)));
+    }
+}
@@ -0,0 +1,388 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 信息集蒙特卡洛树搜索（ISMCTS）AI策略
+ *
+ * 每次迭代先把看不到的牌随机分给对手（确定化），再沿共享的搜索树向下选择：
+ * 子节点按出牌（位掩码，pass 为 0）区分，只考虑在本次确定化中合法的出牌，用 UCB 选择；
+ * 每个节点允许展开的子节点数随访问次数逐步放宽（progressive widening），候选按 pass、从小到大排列。
+ * 展开一个新节点后用 {@link Playout} 的默认策略下完，把胜负回传给路径上各节点出牌的座位。
+ *
+ * 多个工作线程共享同一棵树（tree parallelism）：节点统计量用原子更新，下降时先加访问次数作为虚拟损失，
+ * 子节点表是 ConcurrentHashMap，全程无锁。到达时间预算（或调用方给的截止时间、被取消）后返回根节点访问次数最多的出牌。
+ * 指定 {@link PositionEvaluator} 时模拟最多走固定步数，没分出胜负就按评估函数给出的各座位获胜概率回传。
+ */
+public class IsmctsAIStrategy implements AIStrategy {
+
+    private static final Logger LOG = Logger.getLogger(IsmctsAIStrategy.class.getName());
+
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 200;
+    public static final long DEFAULT_SEED = 0x15_3C75L;
+
+    /** UCB 探索系数 */
+    private static final double EXPLORATION = 0.7;
+    /** 渐进展开：允许的子节点数 = BASE + FACTOR * sqrt(访问次数) */
+    private static final int WIDEN_BASE = 2;
+    private static final double WIDEN_FACTOR = 1.0;
+    /** 奖励以定点数累加，便于原子更新 */
+    private static final long REWARD_SCALE = 1_000_000L;
+    private static final long PASS = 0L;
+    private static final int MAX_DEPTH = 512;
+
+    private final long timeBudgetMillis;
+    private final int maxIterations;
+    private final int threads;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final PositionEvaluator evaluator; // 为 null 时把每次模拟下完
+    private final int cutoffSteps;
+    private final AIStrategy fallback = new AdvancedAIStrategy();
+
+    private volatile SearchStats lastStats;
+
+    public IsmctsAIStrategy() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, 0, ForkJoinPool.getCommonPoolParallelism(), DEFAULT_SEED,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param timeBudgetMillis 每次决策的时间预算（毫秒）
+     * @param maxIterations 每次决策最多的迭代次数，0 表示只按时间限定
+     * @param threads 共享搜索树的工作线程数
+     * @param seed 随机数种子
+     * @param pool 执行工作线程的线程池
+     */
+    public IsmctsAIStrategy(long timeBudgetMillis, int maxIterations, int threads, long seed, ForkJoinPool pool) {
+        this(timeBudgetMillis, maxIterations, threads, seed, pool, null, 0);
+    }
+
+    /**
+     * @param evaluator 截断处的局面评估函数，null 表示把每次模拟下完
+     * @param cutoffSteps 展开之后模拟最多走的步数（出牌和 pass 各算一步）
+     */
+    public IsmctsAIStrategy(long timeBudgetMillis, int maxIterations, int threads, long seed, ForkJoinPool pool,
+                            PositionEvaluator evaluator, int cutoffSteps) {
+        if (timeBudgetMillis <= 0 || maxIterations < 0 || threads < 1) {
+            throw new IllegalArgumentException("时间预算和线程数必须为正数");
+        }
+        if (evaluator != null && cutoffSteps < 1) {
+            throw new IllegalArgumentException("截断步数必须为正数: " + cutoffSteps);
+        }
+        this.evaluator = evaluator;
+        this.cutoffSteps = cutoffSteps;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxIterations = maxIterations;
+        this.threads = threads;
+        this.seed = seed;
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    @Override
+    public String getName() {
+        return "ISMCTS AI";
+    }
+
+    /** 最近一次决策的搜索统计，尚未决策时为 null */
+    public SearchStats getLastStats() {
+        return lastStats;
+    }
+
+    @Override
+    public List<Card> makeMove(List<Card> aiHand, CardPattern lastPattern, List<Integer> otherPlayersCardCount) {
+        if (aiHand == null || aiHand.isEmpty())
+            return Collections.emptyList();
+        return makeMove(CardSet.of(aiHand), CardSet.EMPTY, lastPattern, otherPlayersCardCount);
+    }
+
+    @Override
+    public List<Card> makeMove(CardSet aiHand, CardPattern lastPattern, List<Integer> otherPlayersCardCount) {
+        return makeMove(aiHand, CardSet.EMPTY, lastPattern, otherPlayersCardCount);
+    }
+
+    /**
+     * @param playedCards 已经打出的牌；不知道时传 {@link CardSet#EMPTY}
+     * @param otherPlayersCardCount 其他玩家的剩余张数，从下家开始按出牌顺序排列
+     */
+    @Override
+    public List<Card> makeMove(CardSet aiHand, CardSet playedCards, CardPattern lastPattern,
+                               List<Integer> otherPlayersCardCount) {
+        if (aiHand == null || aiHand.isEmpty())
+            return Collections.emptyList();
+        return decide(new DecisionContext(aiHand, lastPattern, otherPlayersCardCount, playedCards),
+                Long.MAX_VALUE, CancellationToken.NONE);
+    }
+
+    /**
+     * 通过记牌器知道上一手是谁打出的，并按对手的 pass 记录采样其手牌
+     */
+    @Override
+    public List<Card> makeMove(DecisionContext context) {
+        return makeMove(context, Long.MAX_VALUE, CancellationToken.NONE);
+    }
+
+    @Override
+    public List<Card> makeMove(DecisionContext context, long deadlineNanos, CancellationToken token) {
+        if (context.getHand().isEmpty())
+            return Collections.emptyList();
+        return decide(context, deadlineNanos, token);
+    }
+
+    private List<Card> decide(DecisionContext context, long deadlineNanos, CancellationToken token) {
+        CardSet aiHand = context.getHand();
+        CardPattern lastPattern = context.getLastPattern();
+        List<Integer> otherPlayersCardCount = context.getOthersCount();
+        int seats = otherPlayersCardCount.size() + 1;
+        long hand = aiHand.bits();
+        long unseen = context.unseen();
+        int needed = 0;
+        for (int count : otherPlayersCardCount) needed += count;
+        if (seats < 2 || seats > Playout.MAX_SEATS || needed > Long.bitCount(unseen)) {
+            return fallback.makeMove(aiHand, lastPattern, otherPlayersCardCount); // 信息不一致，无法确定化
+        }
+
+        int lastKey = lastPattern == null ? 0 : lastPattern.getStrengthKey();
+        int owner = context.lastPlayerOffset();
+        MoveList rootMoves = new MoveList();
+        long must = lastKey == 0 ? hand & MoveGenerator.DIAMOND_THREE : 0L;
+        MoveGenerator.generate(hand, lastKey, must, rootMoves);
+        if (rootMoves.isEmpty())
+            return Collections.emptyList();
+        if (lastKey == 0 && rootMoves.size() == 1)
+            return rootMoves.toCards(0);
+
+        Tree tree = new Tree(hand, HandSampler.of(context), lastKey, owner,
+                seed ^ hand ^ (long) lastKey << 52 ^ context.getPlayedCards().bits() * 31, token);
+        long start = System.nanoTime();
+        tree.deadline = Math.min(start + timeBudgetMillis * 1_000_000L, deadlineNanos);
+
+        List<ForkJoinTask<?>> workers = new ArrayList<>(threads);
+        for (int w = 0; w < threads; w++) {
+            final int worker = w;
+            workers.add(pool.submit(() -> tree.work(worker)));
+        }
+        for (ForkJoinTask<?> task : workers) {
+            task.join();
+        }
+
+        SearchStats stats = new SearchStats(tree.iterations.sum(), tree.nodes.sum(),
+                System.nanoTime() - start, threads);
+        lastStats = stats;
+        LOG.fine(() -> "ISMCTS " + stats);
+
+        Node best = tree.root.mostVisitedChild();
+        if (best == null || best.move == PASS) {
+            return best == null ? rootMoves.toCards(0) : Collections.emptyList();
+        }
+        return CardSet.ofBits(best.move).toList();
+    }
+
+    /* ---------- 搜索树 ---------- */
+
+    /**
+     * 树节点：表示 player 座位打出 move 之后的信息集
+     */
+    private static final class Node {
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicIntegerFieldUpdater<Node> AVAILABLE =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "available");
+        private static final AtomicLongFieldUpdater<Node> REWARD =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "reward");
+
+        final long move;
+        final int key;
+        final int player;
+        final ConcurrentHashMap<Long, Node> children = new ConcurrentHashMap<>();
+
+        volatile int visits;
+        volatile int available; // 该出牌在父节点处合法（可被选择）的次数
+        volatile long reward;   // player 座位获得的奖励之和，定点数
+
+        Node(long move, int key, int player) {
+            this.move = move;
+            this.key = key;
+            this.player = player;
+        }
+
+        double ucb(double exploration) {
+            int n = visits;
+            if (n == 0) return Double.POSITIVE_INFINITY;
+            double mean = (double) reward / REWARD_SCALE / n;
+            return mean + exploration * Math.sqrt(Math.log(Math.max(available, 1)) / n);
+        }
+
+        Node mostVisitedChild() {
+            Node best = null;
+            for (Node child : children.values()) {
+                if (best == null || child.visits > best.visits
+                        || (child.visits == best.visits && child.key < best.key)) {
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * 一次决策的共享搜索树，所有工作线程并发访问
+     */
+    private final class Tree {
+        final Node root = new Node(PASS, 0, -1);
+        final long hand;
+        final HandSampler sampler;
+        final int lastKey;
+        final int lastOwner;
+        final long baseSeed;
+        final LongAdder iterations = new LongAdder();
+        final LongAdder nodes = new LongAdder();
+        final CancellationToken token;
+        volatile long deadline;
+
+        Tree(long hand, HandSampler sampler, int lastKey, int lastOwner, long baseSeed, CancellationToken token) {
+            this.hand = hand;
+            this.sampler = sampler;
+            this.lastKey = lastKey;
+            this.lastOwner = lastOwner;
+            this.baseSeed = baseSeed;
+            this.token = token;
+        }
+
+        /** 工作线程主循环：反复迭代直到超时、被取消或达到迭代上限 */
+        void work(int worker) {
+            SplittableRandom random = new SplittableRandom(baseSeed + worker * 0x9E3779B97F4A7C15L);
+            Playout playout = new Playout();
+            MoveList moves = new MoveList();
+            long[] hands = new long[Playout.MAX_SEATS];
+            int[] deck = new int[sampler.deckSize()];
+            Node[] path = new Node[MAX_DEPTH];
+            long[] rewards = new long[Playout.MAX_SEATS];
+            while (System.nanoTime() < deadline && !token.isCancelled()) {
+                if (maxIterations > 0 && iterations.sum() >= maxIterations) break;
+                iterate(random, playout, moves, hands, deck, path, rewards);
+                iterations.increment();
+            }
+        }
+
+        private void iterate(SplittableRandom random, Playout playout, MoveList moves,
+                             long[] hands, int[] deck, Node[] path, long[] rewards) {
+            hands[0] = hand;
+            sampler.sample(random, hands, deck); // 确定化：按 pass 记录加权采样对手手牌
+            playout.reset(hands, sampler.seats(), 0, lastKey, lastOwner);
+
+            // 选择与展开
+            Node node = root;
+            Node.VISITS.incrementAndGet(root);
+            int depth = 0;
+            while (!playout.isOver() && depth < MAX_DEPTH) {
+                playout.legalMoves(moves);
+                moves.sortByStrength();
+                boolean canPass = playout.canPass();
+                int options = moves.size() + (canPass ? 1 : 0);
+                int limit = Math.min(options, WIDEN_BASE + (int) (WIDEN_FACTOR * Math.sqrt(node.visits)));
+                int player = playout.toMove();
+
+                Node chosen = null;
+                boolean expanded = false;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < limit; i++) {
+                    int m = canPass ? i - 1 : i; // 编号 -1 表示 pass
+                    long move = m < 0 ? PASS : moves.cards(m);
+                    Node child = node.children.get(move);
+                    if (child == null) {
+                        Node created = new Node(move, m < 0 ? 0 : moves.key(m), player);
+                        child = node.children.putIfAbsent(move, created);
+                        if (child == null) {
+                            nodes.increment();
+                            Node.AVAILABLE.incrementAndGet(created);
+                            chosen = created;
+                            expanded = true;
+                            break;
+                        }
+                    }
+                    Node.AVAILABLE.incrementAndGet(child);
+                    double score = child.ucb(EXPLORATION);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        chosen = child;
+                    }
+                }
+
+                Node.VISITS.incrementAndGet(chosen); // 先计访问，相当于虚拟损失，让其他线程分散到别的分支
+                if (chosen.move == PASS) playout.pass();
+                else playout.play(chosen.move, chosen.key);
+                path[depth++] = chosen;
+                node = chosen;
+                if (expanded) break;
+            }
+
+            // 模拟并回传
+            int winner = playout.isOver() ? playout.winner()
+                    : evaluator == null ? playout.playOut(random) : playout.playOut(random, cutoffSteps);
+            if (winner < 0 && evaluator != null) { // 截断：各座位按评估的获胜概率计分
+                for (int s = 0; s < playout.seats(); s++) {
+                    rewards[s] = Math.round(evaluator.evaluate(playout, s) * (double) REWARD_SCALE);
+                }
+                for (int d = 0; d < depth; d++) {
+                    Node.REWARD.addAndGet(path[d], rewards[path[d].player]);
+                }
+                return;
+            }
+            for (int d = 0; d < depth; d++) {
+                if (path[d].player == winner) {
+                    Node.REWARD.addAndGet(path[d], REWARD_SCALE);
+                }
+            }
+        }
+    }
+
+    /**
+     * 一次决策的搜索统计
+     */
+    public static final class SearchStats {
+        private final long iterations;
+        private final long nodes;
+        private final long elapsedNanos;
+        private final int threads;
+
+        SearchStats(long iterations, long nodes, long elapsedNanos, int threads) {
+            this.iterations = iterations;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+            this.threads = threads;
+        }
+
+        public long getIterations() { return iterations; }
+        public long getNodes() { return nodes; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getThreads() { return threads; }
+
+        /** 每秒新建的树节点数 */
+        public double getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+        }
+
+        /** 每秒完成的迭代次数 */
+        public double getIterationsPerSecond() {
+            return elapsedNanos == 0 ? 0 : iterations * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("iterations=%d nodes=%d threads=%d %.1fms %.0f nodes/s",
+                    iterations, nodes, threads, elapsedNanos / 1e6, getNodesPerSecond());
+        }
+    }
+}
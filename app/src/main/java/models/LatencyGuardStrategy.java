@@ -0,0 +1,209 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * 限时保护的策略：主策略（如 {@link IsmctsAIStrategy}）在 executor 上计算，同时在调用线程上算出廉价的后备策略
+ * （如 {@link AdvancedAIStrategy}）的结果；预算用完时由专用的看门狗线程取消主策略，直接采用后备结果。
+ * 主策略出错或返回 null 时同样采用后备结果，保证一桌不会被某个 AI 卡住。
+ *
+ * 主策略拿到的截止时间比硬截止时间（预算和调用方截止时间中较早的一个）提前一段余量，
+ * 能配合截止时间的搜索会自己按时停下并交出结果；看门狗只对付不配合的策略（或负载过高时排不上线程）。
+ * 每次决策的耗时记在直方图里，可以查询分位数和后备比例。
+ *
+ * 不理会取消的主策略在超时后还会继续运行，所以这里记着正在运行的那一次：它没结束之前的决策
+ * （包括并发的调用）不再启动主策略，直接采用后备结果，主策略永远不会被同时调用。
+ * 主策略实例只能被这一个包装使用；后备策略在调用线程上运行，并发调用时它也会被并发调用。
+ */
+public final class LatencyGuardStrategy implements AIStrategy {
+
+    private static final Logger LOG = Logger.getLogger(LatencyGuardStrategy.class.getName());
+
+    /** 所有实例共用的看门狗线程，只负责到时取消，不执行策略 */
+    private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+
+    /** 看门狗到时时写入的标记结果，按引用比较（不能用 Collections.emptyList()，策略 pass 时会返回它） */
+    private static final List<Card> TIMED_OUT = Collections.unmodifiableList(new ArrayList<>());
+
+    /** 主策略的截止时间比硬截止时间提前的比例（占剩余时间）和上限 */
+    private static final int SOFT_MARGIN_PERCENT = 20;
+    private static final long MAX_SOFT_MARGIN_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AIStrategy primary;
+    private final AIStrategy fallback;
+    private final long budgetNanos;
+    private final Executor executor;
+
+    /** 主策略正在进行的那一次计算，主策略返回时才结束（与看门狗无关） */
+    private final AtomicReference<CompletableFuture<List<Card>>> running = new AtomicReference<>();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong decisions = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * 主策略在 {@link ForkJoinPool#commonPool()} 上计算
+     */
+    public LatencyGuardStrategy(AIStrategy primary, AIStrategy fallback, long budgetMillis) {
+        this(primary, fallback, budgetMillis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param primary 主策略
+     * @param fallback 后备策略，应当很快（毫秒以内），在调用线程上与主策略并行计算
+     * @param budgetMillis 每次决策的时间预算（毫秒）
+     * @param executor 执行主策略的线程池
+     */
+    public LatencyGuardStrategy(AIStrategy primary, AIStrategy fallback, long budgetMillis, Executor executor) {
+        if (budgetMillis <= 0) throw new IllegalArgumentException("时间预算必须为正数: " + budgetMillis);
+        this.primary = Objects.requireNonNull(primary);
+        this.fallback = Objects.requireNonNull(fallback);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    private static ScheduledThreadPoolExecutor createWatchdog() {
+        ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "ai-latency-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.setRemoveOnCancelPolicy(true); // 主策略按时完成时取消的任务不留在队列里
+        return watchdog;
+    }
+
+    @Override
+    public String getName() {
+        return primary.getName();
+    }
+
+    @Override
+    public List<Card> makeMove(List<Card> aiHand, CardPattern lastPattern, List<Integer> otherPlayersCardCount) {
+        if (aiHand == null || aiHand.isEmpty())
+            return Collections.emptyList();
+        return makeMove(new DecisionContext(CardSet.of(aiHand), lastPattern, otherPlayersCardCount, CardSet.EMPTY));
+    }
+
+    @Override
+    public List<Card> makeMove(CardSet aiHand, CardSet playedCards, CardPattern lastPattern,
+                               List<Integer> otherPlayersCardCount) {
+        return makeMove(new DecisionContext(aiHand, lastPattern, otherPlayersCardCount, playedCards));
+    }
+
+    @Override
+    public List<Card> makeMove(DecisionContext context) {
+        return makeMove(context, Long.MAX_VALUE, CancellationToken.NONE);
+    }
+
+    @Override
+    public List<Card> makeMove(DecisionContext context, long deadlineNanos, CancellationToken token) {
+        long start = System.nanoTime();
+        long deadline = Math.min(deadlineNanos, start + budgetNanos);
+        long remaining = Math.max(deadline - start, 0L);
+        long softDeadline = deadline - Math.min(remaining * SOFT_MARGIN_PERCENT / 100, MAX_SOFT_MARGIN_NANOS);
+
+        // 上一次的主策略还没停下时不再启动它
+        CompletableFuture<List<Card>> run = new CompletableFuture<>();
+        CompletableFuture<List<Card>> previous = running.get();
+        boolean started = (previous == null || previous.isDone()) && running.compareAndSet(previous, run);
+
+        // 主策略用自己的取消标记：调用方取消或看门狗到时都会取消它
+        CancellationToken search = new CancellationToken();
+        Runnable forward = search::cancel;
+        CompletableFuture<List<Card>> result = new CompletableFuture<>();
+        if (started) {
+            token.onCancel(forward);
+            search.onCancel(() -> result.cancel(false));
+            run.whenComplete((cards, error) -> {
+                if (error != null) result.completeExceptionally(error);
+                else result.complete(cards);
+            });
+            try {
+                executor.execute(() -> {
+                    try {
+                        run.complete(primary.makeMove(context, softDeadline, search));
+                    } catch (Throwable t) {
+                        run.completeExceptionally(t);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                run.completeExceptionally(e);
+            }
+            ScheduledFuture<?> alarm = WATCHDOG.schedule(() -> {
+                if (result.complete(TIMED_OUT)) search.cancel();
+            }, remaining, TimeUnit.NANOSECONDS);
+            result.whenComplete((cards, error) -> alarm.cancel(false));
+        } else {
+            LOG.fine("primary strategy still running, using fallback");
+            result.complete(TIMED_OUT);
+        }
+
+        List<Card> backup;
+        try {
+            backup = fallback.makeMove(context);
+        } catch (RuntimeException e) {
+            LOG.warning(() -> "fallback strategy failed: " + e);
+            backup = null;
+        }
+
+        List<Card> chosen = null;
+        try {
+            chosen = result.join();
+        } catch (RuntimeException e) { // 出错或被取消
+            LOG.fine(() -> "primary strategy failed: " + e);
+        } finally {
+            token.removeCallback(forward);
+        }
+        decisions.incrementAndGet();
+        if (chosen == null || chosen == TIMED_OUT) {
+            fallbacks.incrementAndGet();
+            chosen = backup != null ? backup : Collections.emptyList();
+        }
+        latency.record(System.nanoTime() - start);
+        return chosen;
+    }
+
+    /** 已经完成的决策次数 */
+    public long getDecisionCount() {
+        return decisions.get();
+    }
+
+    /** 采用后备结果的次数（超时、主策略出错、被取消或上一次还没停下） */
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    /** 采用后备结果的比例，没有决策时为 0 */
+    public double getFallbackRate() {
+        long total = decisions.get();
+        return total == 0 ? 0.0 : (double) fallbacks.get() / total;
+    }
+
+    /**
+     * 决策耗时的分位数（毫秒，相对误差不超过 1/8），没有决策时为 0
+     * @param quantile 0..1，例如 0.5、0.99
+     */
+    public double getLatencyPercentileMillis(double quantile) {
+        return latency.quantile(quantile) / 1e6;
+    }
+
+    /** 清空耗时和后备比例的统计 */
+    public void resetStats() {
+        latency.reset();
+        decisions.set(0);
+        fallbacks.set(0);
+    }
+}
@@ -0,0 +1,70 @@
+package models;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 耗时直方图：按纳秒记录，每个 2 的幂区间再均分 8 个桶，分位数的相对误差不超过 1/8
+ *
+ * 记录只是一次原子加，不分配对象，可以在决策路径上使用。线程安全（分位数在并发记录时是近似快照）。
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** 小于 SUB_BUCKETS 的值各占一个桶，之后每个 2 的幂区间 SUB_BUCKETS 个桶 */
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** 记录一次耗时，负数按 0 处理 */
+    void record(long nanos) {
+        counts.incrementAndGet(index(Math.max(nanos, 0L)));
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        return total;
+    }
+
+    /**
+     * 分位数（纳秒），返回所在桶的上界；没有记录时为 0
+     * @param quantile 0..1，例如 0.99
+     */
+    long quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) throw new IllegalArgumentException("分位数必须在0-1之间: " + quantile);
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0L);
+    }
+
+    static int index(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos); // >= SUB_BITS
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        if (exponent >= 62) return Long.MAX_VALUE; // 实际不会出现，避免溢出
+        long sub = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,147 @@
+package models;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 用离线训练的权重评估局面：输入 {@link PositionFeatures} 的特征，
+ * 线性模型（逻辑回归）或一个隐藏层的小型 MLP（ReLU），输出经 sigmoid 得到获胜概率
+ *
+ * 权重是定长的 float 数组：隐藏层 COUNT×hidden 个权重（按输入排列，第 i 个特征的 hidden 个权重相邻）、hidden 个偏置，
+ * 输出层 hidden 个权重、1 个偏置；线性模型（hidden 为 0）只有输出层的 COUNT 个权重和 1 个偏置。
+ * 隐藏层按输入逐个累加：为 0 的特征（大多数 one-hot 和计数）直接跳过，内层循环对隐藏单元连续访问，便于 JIT 向量化。
+ * 每个线程复用一块特征和隐藏层的缓冲区，评估时不分配对象。实例不可变，线程安全。
+ *
+ * 文件格式（大端）：魔数 "B2EV"、版本、特征个数、隐藏层大小（各一个 int），然后是全部权重（float）。
+ */
+public final class LearnedPositionEvaluator implements PositionEvaluator {
+
+    static final int MAGIC = 0x42324556; // "B2EV"
+    static final int VERSION = 1;
+
+    /** 隐藏层大小的上限：32 个隐藏单元时单次评估（含特征提取）仍在 1 微秒以内 */
+    public static final int MAX_HIDDEN = 32;
+
+    private final int hidden;
+    private final float[] weights;
+    private final int outputOffset; // 输出层权重的起始下标
+
+    private final ThreadLocal<float[]> scratch;
+
+    /**
+     * @param hidden 隐藏层大小，0 表示线性模型
+     * @param weights 按上面的顺序排列的全部权重
+     * @throws IllegalArgumentException 隐藏层大小超出范围或权重个数不符
+     */
+    public LearnedPositionEvaluator(int hidden, float[] weights) {
+        if (hidden < 0 || hidden > MAX_HIDDEN) {
+            throw new IllegalArgumentException("隐藏层大小必须在0-" + MAX_HIDDEN + "之间: " + hidden);
+        }
+        if (weights.length != weightCount(hidden)) {
+            throw new IllegalArgumentException("权重个数必须为" + weightCount(hidden) + ": " + weights.length);
+        }
+        this.hidden = hidden;
+        this.weights = weights.clone();
+        this.outputOffset = hidden * (PositionFeatures.COUNT + 1);
+        int scratchSize = PositionFeatures.COUNT + hidden;
+        this.scratch = ThreadLocal.withInitial(() -> new float[scratchSize]);
+    }
+
+    /** 给定隐藏层大小时的权重个数 */
+    public static int weightCount(int hidden) {
+        int inputs = hidden == 0 ? PositionFeatures.COUNT : hidden;
+        return hidden * (PositionFeatures.COUNT + 1) + inputs + 1;
+    }
+
+    public int getHidden() {
+        return hidden;
+    }
+
+    public float[] getWeights() {
+        return weights.clone();
+    }
+
+    @Override
+    public float evaluate(Playout position, int seat) {
+        if (position.isOver()) return position.winner() == seat ? 1f : 0f;
+        float[] buffer = scratch.get();
+        PositionFeatures.extract(position, seat, buffer);
+        return evaluate(buffer);
+    }
+
+    /**
+     * 直接对特征求值
+     * @param buffer 前 {@link PositionFeatures#COUNT} 个是特征；MLP 会把之后的位置用作隐藏层
+     */
+    float evaluate(float[] buffer) {
+        final int n = PositionFeatures.COUNT;
+        float[] w = weights;
+        if (hidden == 0) {
+            float sum = w[n];
+            for (int i = 0; i < n; i++) sum += w[i] * buffer[i];
+            return sigmoid(sum);
+        }
+        System.arraycopy(w, n * hidden, buffer, n, hidden); // 偏置
+        for (int i = 0, row = 0; i < n; i++, row += hidden) {
+            float x = buffer[i];
+            if (x == 0f) continue;
+            for (int h = 0; h < hidden; h++) buffer[n + h] += x * w[row + h];
+        }
+        float sum = w[outputOffset + hidden];
+        for (int h = 0; h < hidden; h++) {
+            float a = buffer[n + h];
+            if (a > 0f) sum += w[outputOffset + h] * a;
+        }
+        return sigmoid(sum);
+    }
+
+    private static float sigmoid(float x) {
+        return (float) (1.0 / (1.0 + Math.exp(-x)));
+    }
+
+    /* ---------- 读写 ---------- */
+
+    /**
+     * @throws IOException 文件不存在、格式不对、特征个数与当前版本不符或长度不符时抛出
+     */
+    public static LearnedPositionEvaluator load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("不是有效的评估模型文件: " + file);
+            }
+            int features = in.readInt();
+            if (features != PositionFeatures.COUNT) {
+                throw new IOException("评估模型的特征个数不符: " + features);
+            }
+            int hidden = in.readInt();
+            if (hidden < 0 || hidden > MAX_HIDDEN) {
+                throw new IOException("不支持的隐藏层大小: " + hidden);
+            }
+            float[] weights = new float[weightCount(hidden)];
+            for (int i = 0; i < weights.length; i++) weights[i] = in.readFloat();
+            if (in.read() != -1) {
+                throw new IOException("评估模型文件大小不符: " + file);
+            }
+            return new LearnedPositionEvaluator(hidden, weights);
+        } catch (EOFException e) {
+            throw new IOException("评估模型文件过短: " + file, e);
+        }
+    }
+
+    public void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(PositionFeatures.COUNT);
+            out.writeInt(hidden);
+            for (float w : weights) out.writeFloat(w);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package models;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 蒙特卡洛AI策略：把看不到的牌（52 张减去自己的手牌和已出的牌）按对手的剩余张数随机分给对手，
+ * 对每个候选出牌做大量快速模拟（{@link Playout}），选平均结果最好的一手
+ *
+ * 模拟分批提交到 ForkJoinPool 并行执行，每批之间互不共享可变状态，随核数线性扩展；
+ * 批次按模拟编号固定划分（每 {@link #BATCH} 次一批），随机数种子只由初始种子、局面和批次编号决定，
+ * 结果的累加顺序也固定，所以按次数限定预算时结果完全可复现，与线程池大小无关。
+ * 预算可以是模拟次数、时间（毫秒），或两者同时限定（先到者为准）；调用方另给的截止时间和取消标记同样生效，
+ * 到时或取消时按已完成的模拟选出最好的一手。
+ * 指定 {@link PositionEvaluator} 时每次模拟最多走固定步数，没分出胜负就用评估函数的获胜概率作为结果。
+ */
+public class MonteCarloAIStrategy implements AIStrategy {
+
+    public static final int DEFAULT_ROLLOUTS = 2000;
+    public static final long DEFAULT_SEED = 0x5EED_B16_7A0L;
+
+    /** 候选出牌过多时最多保留的数量 */
+    private static final int MAX_CANDIDATES = 24;
+    /** 每个叶子任务执行的模拟次数 */
+    private static final int BATCH = 32;
+    /** 两次检查截止时间之间至少执行的批次数 */
+    private static final int WAVE_BATCHES = 64;
+    /** 只限定时间时的模拟次数上限 */
+    private static final int TIME_ONLY_LIMIT = 1 << 22;
+
+    /** 输了时按出掉的牌比例给的少量分数，让模拟在赢不了时也倾向于多出牌 */
+    private static final double LOSS_PROGRESS_WEIGHT = 0.25;
+
+    private final int rollouts;
+    private final long timeBudgetMillis;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final PositionEvaluator evaluator; // 为 null 时把每次模拟下完
+    private final int cutoffSteps;
+    private final AIStrategy fallback = new AdvancedAIStrategy();
+    private final HandDecomposer decomposer = new HandDecomposer();
+
+    private volatile int lastRollouts; // 最近一次决策实际执行的模拟次数
+
+    public MonteCarloAIStrategy() {
+        this(DEFAULT_ROLLOUTS, 0L, DEFAULT_SEED, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param rollouts 每次决策的模拟次数，0 表示只按时间限定
+     * @param timeBudgetMillis 每次决策的时间预算（毫秒），0 表示只按次数限定
+     * @param seed 随机数种子，相同种子、相同局面、按次数限定时给出相同的决策
+     * @param pool 执行模拟的线程池
+     */
+    public MonteCarloAIStrategy(int rollouts, long timeBudgetMillis, long seed, ForkJoinPool pool) {
+        this(rollouts, timeBudgetMillis, seed, pool, null, 0);
+    }
+
+    /**
+     * @param evaluator 截断处的局面评估函数，null 表示把每次模拟下完
+     * @param cutoffSteps 每次模拟最多走的步数（出牌和 pass 各算一步）
+     */
+    public MonteCarloAIStrategy(int rollouts, long timeBudgetMillis, long seed, ForkJoinPool pool,
+                                PositionEvaluator evaluator, int cutoffSteps) {
+        if (rollouts < 0 || timeBudgetMillis < 0 || (rollouts == 0 && timeBudgetMillis == 0)) {
+            throw new IllegalArgumentException("必须指定模拟次数或时间预算");
+        }
+        if (evaluator != null && cutoffSteps < 1) {
+            throw new IllegalArgumentException("截断步数必须为正数: " + cutoffSteps);
+        }
+        this.rollouts = rollouts;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.seed = seed;
+        this.pool = Objects.requireNonNull(pool);
+        this.evaluator = evaluator;
+        this.cutoffSteps = cutoffSteps;
+    }
+
+    @Override
+    public String getName() {
+        return "Monte Carlo AI";
+    }
+
+    /** 最近一次决策实际执行的模拟次数 */
+    public int getLastRollouts() {
+        return lastRollouts;
+    }
+
+    @Override
+    public List<Card> makeMove(List<Card> aiHand, CardPattern lastPattern, List<Integer> otherPlayersCardCount) {
+        if (aiHand == null || aiHand.isEmpty())
+            return Collections.emptyList();
+        return makeMove(CardSet.of(aiHand), CardSet.EMPTY, lastPattern, otherPlayersCardCount);
+    }
+
+    @Override
+    public List<Card> makeMove(CardSet aiHand, CardPattern lastPattern, List<Integer> otherPlayersCardCount) {
+        return makeMove(aiHand, CardSet.EMPTY, lastPattern, otherPlayersCardCount);
+    }
+
+    /**
+     * @param playedCards 已经打出的牌；不知道时传 {@link CardSet#EMPTY}，
+     *                    此时这些牌也会被当作可能在对手手中
+     * @param otherPlayersCardCount 其他玩家的剩余张数，从下家开始按出牌顺序排列
+     */
+    @Override
+    public List<Card> makeMove(CardSet aiHand, CardSet playedCards, CardPattern lastPattern,
+                               List<Integer> otherPlayersCardCount) {
+        if (aiHand == null || aiHand.isEmpty())
+            return Collections.emptyList();
+        return decide(new DecisionContext(aiHand, lastPattern, otherPlayersCardCount, playedCards),
+                Long.MAX_VALUE, CancellationToken.NONE);
+    }
+
+    /**
+     * 通过记牌器知道上一手是谁打出的，并按对手的 pass 记录采样其手牌
+     */
+    @Override
+    public List<Card> makeMove(DecisionContext context) {
+        return makeMove(context, Long.MAX_VALUE, CancellationToken.NONE);
+    }
+
+    @Override
+    public List<Card> makeMove(DecisionContext context, long deadlineNanos, CancellationToken token) {
+        if (context.getHand().isEmpty())
+            return Collections.emptyList();
+        return decide(context, deadlineNanos, token);
+    }
+
+    private List<Card> decide(DecisionContext context, long deadlineNanos, CancellationToken token) {
+        CardSet aiHand = context.getHand();
+        CardPattern lastPattern = context.getLastPattern();
+        List<Integer> otherPlayersCardCount = context.getOthersCount();
+        int seats = otherPlayersCardCount.size() + 1;
+        long hand = aiHand.bits();
+        long unseen = context.unseen();
+        int needed = 0;
+        for (int count : otherPlayersCardCount) needed += count;
+        if (seats < 2 || seats > Playout.MAX_SEATS || needed > Long.bitCount(unseen)) {
+            return fallback.makeMove(aiHand, lastPattern, otherPlayersCardCount); // 信息不一致，无法采样
+        }
+
+        int lastKey = lastPattern == null ? 0 : lastPattern.getStrengthKey();
+        int owner = context.lastPlayerOffset();
+        MoveList candidates = candidates(hand, lastKey);
+        boolean canPass = lastKey != 0;
+        if (candidates.isEmpty())
+            return Collections.emptyList();
+        if (!canPass && candidates.size() == 1)
+            return candidates.toCards(0);
+
+        Search search = new Search(hand, HandSampler.of(context), lastKey, owner, candidates, canPass,
+                mix(seed ^ hand ^ (long) lastKey << 52 ^ context.getPlayedCards().bits() * 31), deadlineNanos, token);
+        int best = search.run();
+        return best == candidates.size() ? Collections.emptyList() : candidates.toCards(best);
+    }
+
+    /**
+     * 生成候选出牌：候选过多时保留最优拆分中的各手牌，其余按从小到大补足
+     */
+    private MoveList candidates(long hand, int lastKey) {
+        MoveList all = new MoveList();
+        long must = lastKey == 0 ? hand & MoveGenerator.DIAMOND_THREE : 0L;
+        MoveGenerator.generate(hand, lastKey, must, all);
+        all.sortByStrength();
+        if (all.size() <= MAX_CANDIDATES) return all;
+
+        MoveList plan = new MoveList(16);
+        decomposer.decompose(hand, plan);
+        boolean[] kept = new boolean[all.size()];
+        int keptCount = 0;
+        for (int i = 0; i < all.size(); i++) {
+            for (int j = 0; j < plan.size(); j++) {
+                if (all.cards(i) == plan.cards(j)) {
+                    kept[i] = true;
+                    keptCount++;
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < all.size() && keptCount < MAX_CANDIDATES; i++) {
+            if (!kept[i]) {
+                kept[i] = true;
+                keptCount++;
+            }
+        }
+        MoveList out = new MoveList(keptCount);
+        for (int i = 0; i < all.size(); i++) {
+            if (kept[i]) out.add(all, i);
+        }
+        return out;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * 一次决策的搜索：候选编号 0..n-1 对应 candidates，编号 n 表示 pass
+     */
+    private final class Search {
+        final long hand;
+        final HandSampler sampler;
+        final int lastKey;
+        final int lastOwner;
+        final MoveList candidates;
+        final int options;
+        final long baseSeed;
+        final boolean timed;
+        final long deadline;
+        final CancellationToken token;
+
+        Search(long hand, HandSampler sampler, int lastKey, int lastOwner, MoveList candidates,
+               boolean canPass, long baseSeed, long deadlineNanos, CancellationToken token) {
+            this.hand = hand;
+            this.sampler = sampler;
+            this.lastKey = lastKey;
+            this.lastOwner = lastOwner;
+            this.candidates = candidates;
+            this.options = candidates.size() + (canPass ? 1 : 0);
+            this.baseSeed = baseSeed;
+            this.timed = timeBudgetMillis > 0 || deadlineNanos != Long.MAX_VALUE;
+            this.deadline = timeBudgetMillis > 0
+                    ? Math.min(System.nanoTime() + timeBudgetMillis * 1_000_000L, deadlineNanos) : deadlineNanos;
+            this.token = token;
+        }
+
+        /** 到达截止时间或已被取消 */
+        boolean stopped() {
+            return token.isCancelled() || (timed && System.nanoTime() >= deadline);
+        }
+
+        /** 分批执行模拟，返回平均结果最好的选项 */
+        int run() {
+            int total = rollouts > 0 ? rollouts : TIME_ONLY_LIMIT;
+            int wave = BATCH * Math.max(WAVE_BATCHES, options); // 批次的整数倍，不依赖线程数
+            double[] sums = new double[options];
+            int[] visits = new int[options];
+            int done = 0;
+            while (done < total && !stopped()) {
+                int end = (int) Math.min((long) total, (long) done + wave);
+                double[] result = pool.invoke(new Rollouts(this, done, end));
+                for (int i = 0; i < options; i++) {
+                    sums[i] += result[i];
+                    visits[i] += (int) result[options + i];
+                }
+                done = end;
+            }
+            lastRollouts = sum(visits);
+
+            int best = 0;
+            double bestMean = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < options; i++) {
+                double mean = visits[i] == 0 ? Double.NEGATIVE_INFINITY : sums[i] / visits[i];
+                if (mean > bestMean) { // 平均值相同时保留编号小（更小的牌）的选项
+                    bestMean = mean;
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        /** 执行第 i 次模拟：把未知牌发给对手，打出选项 i % options 后用默认策略下完（或下到截断处评估） */
+        double rollout(int i, Playout playout, long[] hands, int[] deck, SplittableRandom random) {
+            int option = i % options;
+            hands[0] = hand;
+            sampler.sample(random, hands, deck);
+            playout.reset(hands, sampler.seats(), 0, lastKey, lastOwner);
+            if (option == candidates.size()) {
+                playout.pass();
+            } else {
+                playout.play(candidates.cards(option), candidates.key(option));
+            }
+            int winner = evaluator == null ? playout.playOut(random) : playout.playOut(random, cutoffSteps);
+            if (winner < 0 && evaluator != null) return evaluator.evaluate(playout, 0);
+            if (winner == 0) return 1.0;
+            return LOSS_PROGRESS_WEIGHT * (1.0 - (double) Long.bitCount(playout.hand(0)) / Long.bitCount(hand));
+        }
+    }
+
+    /**
+     * 模拟 [from, to) 的并行任务，from 是 BATCH 的整数倍，按批次边界二分；返回数组前半为各选项的结果之和，后半为次数
+     */
+    private static final class Rollouts extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int from;
+        private final int to;
+
+        Rollouts(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            int batches = (to - from + BATCH - 1) / BATCH;
+            if (batches > 1) {
+                int mid = from + batches / 2 * BATCH;
+                Rollouts left = new Rollouts(search, from, mid);
+                left.fork();
+                double[] right = new Rollouts(search, mid, to).compute();
+                double[] result = left.join();
+                for (int i = 0; i < result.length; i++) result[i] += right[i];
+                return result;
+            }
+
+            int options = search.options;
+            double[] result = new double[options * 2];
+            Playout playout = new Playout();
+            long[] hands = new long[Playout.MAX_SEATS];
+            int[] deck = new int[search.sampler.deckSize()];
+            SplittableRandom random = new SplittableRandom(search.baseSeed + (from / BATCH) * 0x9E3779B97F4A7C15L);
+            for (int i = from; i < to; i++) {
+                if (search.stopped()) break;
+                int option = i % options;
+                result[option] += search.rollout(i, playout, hands, deck, random);
+                result[options + option]++;
+            }
+            return result;
+        }
+    }
+
+    private static int sum(int[] values) {
+        int total = 0;
+        for (int v : values) total += v;
+        return total;
+    }
+}
@@ -0,0 +1,168 @@
+package models;
+
+/**
+ * 合法出牌生成器：从手牌位掩码中枚举出所有能打出的牌型（单张、对子、顺子、同花、三带二、炸弹），
+ * 可选地只保留「能压过某个牌型」和「必须包含某些牌（如方块3）」的候选
+ *
+ * 结果写入调用方提供的 {@link MoveList}，生成过程不创建对象；
+ * 每个候选的牌型都由 {@link HistogramPatternValidator#classify(long)} 判定，与游戏规则保持一致
+ */
+public final class MoveGenerator {
+
+    /** 方块3 的位掩码 */
+    public static final long DIAMOND_THREE = 1L << CardSet.id(Card.DIAMOND, Card.THREE);
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * 生成手牌中所有合法的出牌
+     * @param hand 手牌位掩码
+     * @param out 输出列表，会先被清空
+     */
+    public static void generate(long hand, MoveList out) {
+        generate(hand, 0, 0L, out);
+    }
+
+    /**
+     * 生成满足条件的出牌
+     * @param hand 手牌位掩码
+     * @param mustBeat 必须压过的牌型，为 null 时不限制
+     * @param mustContainDiamondThree 是否必须包含方块3（首轮）
+     * @param out 输出列表，会先被清空
+     */
+    public static void generate(long hand, CardPattern mustBeat, boolean mustContainDiamondThree, MoveList out) {
+        int beatKey = mustBeat == null ? 0 : mustBeat.getStrengthKey();
+        generate(hand, beatKey, mustContainDiamondThree ? DIAMOND_THREE : 0L, out);
+    }
+
+    /**
+     * 生成满足条件的出牌
+     * @param hand 手牌位掩码
+     * @param beatKey 必须压过的牌型的强度键，0 表示不限制
+     * @param mustContain 候选必须包含的牌，0 表示不限制
+     * @param out 输出列表，会先被清空
+     */
+    public static void generate(long hand, int beatKey, long mustContain, MoveList out) {
+        out.clear();
+        if ((hand & mustContain) != mustContain) return;
+
+        int family = beatKey >>> 12;
+        boolean free = beatKey == 0;
+        if (free || family == 1) addSingles(hand, beatKey, mustContain, out);
+        if (free || family == 2) addPairs(hand, beatKey, mustContain, out);
+        if (Long.bitCount(hand) >= 5) addFiveCardMoves(hand, beatKey, mustContain, out);
+    }
+
+    /* ---------- 单张、对子 ---------- */
+
+    private static void addSingles(long hand, int beatKey, long mustContain, MoveList out) {
+        for (long m = hand; m != 0L; m &= m - 1) {
+            long bit = Long.lowestOneBit(m);
+            offer(bit, beatKey, mustContain, out);
+        }
+    }
+
+    private static void addPairs(long hand, int beatKey, long mustContain, MoveList out) {
+        for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
+            long group = hand & CardSet.rankMask(rank);
+            if (Long.bitCount(group) < 2) continue;
+            for (long a = group; a != 0L; a &= a - 1) {
+                long first = Long.lowestOneBit(a);
+                for (long b = a & (a - 1); b != 0L; b &= b - 1) {
+                    offer(first | Long.lowestOneBit(b), beatKey, mustContain, out);
+                }
+            }
+        }
+    }
+
+    /* ---------- 五张牌型 ---------- */
+
+    private static void addFiveCardMoves(long hand, int beatKey, long mustContain, MoveList out) {
+        int ranks = CardSet.rankPresence(hand);
+
+        // 顺子：五个连续点数各取一张；全同花的组合留给同花枚举，避免重复
+        for (int start = Card.THREE; start <= Card.TWO - 4; start++) {
+            if (((ranks >>> start) & 0x1F) == 0x1F) {
+                addStraights(hand, start, start, 0L, beatKey, mustContain, out);
+            }
+        }
+
+        // 同花：同一花色中任取五张
+        for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) {
+            long suited = hand & CardSet.suitMask(suit);
+            if (Long.bitCount(suited) >= 5) {
+                addCombinations(suited, 5, 0L, beatKey, mustContain, out);
+            }
+        }
+
+        // 三带二与炸弹
+        for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
+            long group = hand & CardSet.rankMask(rank);
+            int count = Long.bitCount(group);
+            if (count < 3) continue;
+
+            long others = hand & ~CardSet.rankMask(rank);
+            for (long drop = group; ; drop &= drop - 1) { // 依次去掉一张，得到每种三张组合
+                long triple = count == 3 ? group : group & ~Long.lowestOneBit(drop);
+                for (int pairRank = Card.THREE; pairRank <= Card.TWO; pairRank++) {
+                    long pairGroup = others & CardSet.rankMask(pairRank);
+                    if (Long.bitCount(pairGroup) < 2) continue;
+                    for (long a = pairGroup; a != 0L; a &= a - 1) {
+                        long first = Long.lowestOneBit(a);
+                        for (long b = a & (a - 1); b != 0L; b &= b - 1) {
+                            offer(triple | first | Long.lowestOneBit(b), beatKey, mustContain, out);
+                        }
+                    }
+                }
+                if (count == 3 || (drop & (drop - 1)) == 0L) break;
+            }
+
+            if (count == 4) {
+                for (long k = others; k != 0L; k &= k - 1) {
+                    offer(group | Long.lowestOneBit(k), beatKey, mustContain, out);
+                }
+            }
+        }
+    }
+
+    /** 从 rank 到 start+4 的每个点数各取一张 */
+    private static void addStraights(long hand, int start, int rank, long acc,
+                                     int beatKey, long mustContain, MoveList out) {
+        if (rank == start + 5) {
+            for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) {
+                if ((acc & ~CardSet.suitMask(suit)) == 0L) return; // 同花顺由同花枚举负责
+            }
+            offer(acc, beatKey, mustContain, out);
+            return;
+        }
+        for (long m = hand & CardSet.rankMask(rank); m != 0L; m &= m - 1) {
+            addStraights(hand, start, rank + 1, acc | Long.lowestOneBit(m), beatKey, mustContain, out);
+        }
+    }
+
+    /** 从 pool 中任取 k 张与 acc 组合 */
+    private static void addCombinations(long pool, int k, long acc,
+                                        int beatKey, long mustContain, MoveList out) {
+        if (k == 0) {
+            offer(acc, beatKey, mustContain, out);
+            return;
+        }
+        for (long m = pool; Long.bitCount(m) >= k; m &= m - 1) {
+            long bit = Long.lowestOneBit(m);
+            addCombinations(m & ~bit, k - 1, acc | bit, beatKey, mustContain, out);
+        }
+    }
+
+    /** 判定牌型并按条件过滤后加入列表 */
+    private static void offer(long move, int beatKey, long mustContain, MoveList out) {
+        if ((move & mustContain) != mustContain) return;
+        int code = HistogramPatternValidator.classify(move);
+        if (!PatternCode.isValid(code)) return;
+        if (beatKey != 0) {
+            int key = CardPattern.strengthKey(PatternCode.typeOf(code), PatternCode.highestIdOf(code));
+            if (!CardPattern.beats(key, beatKey)) return;
+        }
+        out.add(move, code);
+    }
+}
@@ -0,0 +1,156 @@
+package models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 紧凑的出牌候选列表：每个候选只占一个位掩码、一个牌型编码和一个强度键，
+ * 存放在并行的基本类型数组里，可反复 {@link #clear()} 复用，避免 List&lt;List&lt;Card&gt;&gt; 的分配
+ * 非线程安全，每个线程/每层搜索各用一个实例
+ */
+public final class MoveList {
+
+    private long[] cards; // 候选牌的位掩码
+    private int[] codes;  // PatternCode 编码
+    private int[] keys;   // CardPattern 强度键
+    private int size;
+
+    private long[] order;         // 排序用的临时数组，按需分配后复用
+    private long[] cardsScratch;
+    private int[] codesScratch;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        int cap = Math.max(capacity, 4);
+        cards = new long[cap];
+        codes = new int[cap];
+        keys = new int[cap];
+    }
+
+    /* ---------- 写入 ---------- */
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 追加一个候选
+     * @param cardMask 牌的位掩码
+     * @param code {@link PatternCode} 编码，必须有效
+     */
+    public void add(long cardMask, int code) {
+        if (size == cards.length) grow();
+        cards[size] = cardMask;
+        codes[size] = code;
+        keys[size] = CardPattern.strengthKey(PatternCode.typeOf(code), PatternCode.highestIdOf(code));
+        size++;
+    }
+
+    /** 复制另一个列表中的第 i 个候选 */
+    public void add(MoveList other, int i) {
+        if (size == cards.length) grow();
+        cards[size] = other.cards[i];
+        codes[size] = other.codes[i];
+        keys[size] = other.keys[i];
+        size++;
+    }
+
+    /** 清空后复制另一个列表的全部候选 */
+    public void copyFrom(MoveList other) {
+        if (other.size > cards.length) {
+            cards = new long[other.cards.length];
+            codes = new int[other.cards.length];
+            keys = new int[other.cards.length];
+        }
+        System.arraycopy(other.cards, 0, cards, 0, other.size);
+        System.arraycopy(other.codes, 0, codes, 0, other.size);
+        System.arraycopy(other.keys, 0, keys, 0, other.size);
+        size = other.size;
+    }
+
+    /**
+     * 删除所有与 mask 有交集的候选，保持其余候选的相对顺序
+     * @return 删除的个数
+     */
+    public int removeIntersecting(long mask) {
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            if ((cards[r] & mask) != 0L) continue;
+            cards[w] = cards[r];
+            codes[w] = codes[r];
+            keys[w] = keys[r];
+            w++;
+        }
+        int removed = size - w;
+        size = w;
+        return removed;
+    }
+
+    /** 按强度键升序排列；键相同时保持原有顺序。只用基本类型数组排序，不使用比较器 */
+    public void sortByStrength() {
+        if (size < 2) return;
+        if (order == null || order.length < size) {
+            order = new long[cards.length];
+            cardsScratch = new long[cards.length];
+            codesScratch = new int[cards.length];
+        }
+        for (int i = 0; i < size; i++) {
+            order[i] = (long) keys[i] << 32 | i; // 高 32 位为键，低 32 位为原下标
+        }
+        Arrays.sort(order, 0, size);
+        System.arraycopy(cards, 0, cardsScratch, 0, size);
+        System.arraycopy(codes, 0, codesScratch, 0, size);
+        for (int i = 0; i < size; i++) {
+            int from = (int) order[i];
+            cards[i] = cardsScratch[from];
+            codes[i] = codesScratch[from];
+            keys[i] = (int) (order[i] >>> 32);
+        }
+    }
+
+    /* ---------- 读取 ---------- */
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long cards(int i) {
+        return cards[i];
+    }
+
+    public int code(int i) {
+        return codes[i];
+    }
+
+    public int key(int i) {
+        return keys[i];
+    }
+
+    public int patternType(int i) {
+        return PatternCode.typeOf(codes[i]);
+    }
+
+    /** 第 i 个候选的牌，按从小到大排列 */
+    public List<Card> toCards(int i) {
+        return CardSet.ofBits(cards[i]).toList();
+    }
+
+    /** 第 i 个候选对应的 CardPattern */
+    public CardPattern toPattern(int i) {
+        return HistogramPatternValidator.toPattern(cards[i], codes[i]);
+    }
+
+    private void grow() {
+        int cap = cards.length * 2;
+        cards = Arrays.copyOf(cards, cap);
+        codes = Arrays.copyOf(codes, cap);
+        keys = Arrays.copyOf(keys, cap);
+    }
+}
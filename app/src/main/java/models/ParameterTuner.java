@@ -0,0 +1,248 @@
+package models;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link AIParameters} 的离线调参器：SPSA（同时扰动随机逼近）加多线程自我对局
+ *
+ * 每轮把当前参数向量（归一化到 0..1）沿随机的 ±1 方向同时扰动得到两组参数，
+ * 让两组参数的 {@link AdvancedAIStrategy} 两两交替坐成四人局对打，
+ * 同一副牌再交换座位打一次以抵消牌运；胜局差就是沿扰动方向的梯度估计，据此更新全部参数。
+ * 对局分给线程池并行，每轮结束把参数和进度写入检查点文件（先写临时文件再替换），中断后从检查点继续。
+ * 检查点本身也是 properties 格式的参数文件，可以直接用 {@link AIParameters#load} 读取。
+ *
+ * 用法：java models.ParameterTuner &lt;检查点文件&gt; [轮数=100] [每轮牌局数=256] [线程数=CPU核数] [种子=1]
+ */
+public final class ParameterTuner {
+
+    /** 学习率 a */
+    public static final double DEFAULT_STEP = 0.1;
+    /** 扰动幅度 c（归一化空间） */
+    public static final double DEFAULT_PERTURBATION = 0.1;
+    /** 学习率衰减的稳定常数 A */
+    public static final double DEFAULT_STABILITY = 10;
+
+    private static final double ALPHA = 0.602; // 学习率衰减指数
+    private static final double GAMMA = 0.101; // 扰动衰减指数
+
+    private static final String KEY_ITERATION = "tuner.iteration";
+    private static final String KEY_SEED = "tuner.seed";
+    private static final String KEY_SCORE = "tuner.lastScore";
+
+    private final File checkpoint;
+    private final int dealsPerIteration;
+    private final int threads;
+    private final double[] theta = new double[AIParameters.size()]; // 归一化到 0..1 的参数
+    private long seed;
+    private int iteration;
+    private double lastScore;
+
+    /**
+     * 检查点文件存在时从中恢复参数、轮数和种子，否则从默认参数开始
+     * @param dealsPerIteration 每轮的牌局数，每副牌交换座位打两局
+     * @param seed 随机种子，从检查点恢复时以检查点中的为准
+     */
+    public ParameterTuner(File checkpoint, int dealsPerIteration, int threads, long seed) throws IOException {
+        if (dealsPerIteration < 1) throw new IllegalArgumentException("每轮牌局数必须为正数: " + dealsPerIteration);
+        if (threads < 1) throw new IllegalArgumentException("线程数必须为正数: " + threads);
+        this.checkpoint = checkpoint;
+        this.dealsPerIteration = dealsPerIteration;
+        this.threads = threads;
+        this.seed = seed;
+        setParameters(AIParameters.DEFAULT.toVector());
+        if (checkpoint.exists()) loadCheckpoint();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("用法: ParameterTuner <检查点文件> [轮数=100] [每轮牌局数=256] [线程数] [种子=1]");
+            System.exit(1);
+        }
+        File checkpoint = new File(args[0]);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int deals = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1L;
+
+        ParameterTuner tuner = new ParameterTuner(checkpoint, deals, threads, seed);
+        System.out.println("从第 " + tuner.getIteration() + " 轮开始: " + tuner.current());
+        AIParameters result = tuner.run(iterations);
+        System.out.println("调参结束: " + result);
+    }
+
+    /**
+     * 运行到第 iterations 轮为止（已完成的轮数计入在内），每轮结束写检查点
+     * @return 当前参数
+     */
+    public AIParameters run(int iterations) throws IOException, InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            while (iteration < iterations) {
+                long start = System.nanoTime();
+                lastScore = step(executor);
+                iteration++;
+                saveCheckpoint();
+                System.out.printf("第 %d 轮：胜局差 %+.3f，用时 %.1f 秒，%s%n",
+                        iteration, lastScore, (System.nanoTime() - start) / 1e9, current());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return current();
+    }
+
+    /**
+     * 一轮 SPSA
+     * @return 正向扰动相对反向扰动的平均胜局差
+     */
+    private double step(ExecutorService executor) throws InterruptedException, ExecutionException {
+        SplittableRandom random = new SplittableRandom(seed * 31 + iteration);
+        int k = iteration + 1;
+        double ak = DEFAULT_STEP / Math.pow(k + DEFAULT_STABILITY, ALPHA);
+        double ck = DEFAULT_PERTURBATION / Math.pow(k, GAMMA);
+
+        int n = theta.length;
+        int[] delta = new int[n];
+        double[] plus = new double[n];
+        double[] minus = new double[n];
+        for (int i = 0; i < n; i++) {
+            delta[i] = random.nextBoolean() ? 1 : -1;
+            plus[i] = clamp(theta[i] + ck * delta[i]);
+            minus[i] = clamp(theta[i] - ck * delta[i]);
+        }
+
+        double score = match(toParameters(plus), toParameters(minus), random.nextLong(), executor);
+        for (int i = 0; i < n; i++) {
+            theta[i] = clamp(theta[i] + ak * score / (2 * ck * delta[i]));
+        }
+        return score;
+    }
+
+    /**
+     * 两组参数交替坐成四人局对打，每副牌交换座位各打一局
+     * @return (a 胜局数 - b 胜局数) / 总局数
+     */
+    public double match(AIParameters a, AIParameters b, long matchSeed, ExecutorService executor)
+            throws InterruptedException, ExecutionException {
+        SplittableRandom random = new SplittableRandom(matchSeed);
+        List<Future<Integer>> futures = new ArrayList<>(dealsPerIteration);
+        for (int d = 0; d < dealsPerIteration; d++) {
+            long dealSeed = random.nextLong();
+            futures.add(executor.submit(() -> playDeal(a, b, dealSeed)));
+        }
+        int diff = 0;
+        for (Future<Integer> f : futures) {
+            diff += f.get();
+        }
+        return (double) diff / (2 * dealsPerIteration);
+    }
+
+    /** 同一副牌打两局，a 先坐 0、2 号座位，再换到 1、3 号座位；返回 a 比 b 多赢的局数 */
+    private static int playDeal(AIParameters a, AIParameters b, long dealSeed) {
+        int diff = 0;
+        for (int swap = 0; swap < 2; swap++) {
+            List<AIStrategy> seats = new ArrayList<>(4);
+            for (int seat = 0; seat < 4; seat++) {
+                seats.add(new AdvancedAIStrategy((seat + swap) % 2 == 0 ? a : b));
+            }
+            int winner = SelfPlay.play(seats, dealSeed);
+            if (winner >= 0) diff += (winner + swap) % 2 == 0 ? 1 : -1;
+        }
+        return diff;
+    }
+
+    /* ---------- 参数与归一化向量的转换 ---------- */
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    /** 当前参数（四舍五入到整数） */
+    public AIParameters current() {
+        return toParameters(theta);
+    }
+
+    private static AIParameters toParameters(double[] normalized) {
+        return AIParameters.fromVector(denormalize(normalized));
+    }
+
+    private static double[] denormalize(double[] normalized) {
+        double[] vector = new double[normalized.length];
+        for (int i = 0; i < normalized.length; i++) {
+            vector[i] = AIParameters.min(i) + normalized[i] * (AIParameters.max(i) - AIParameters.min(i));
+        }
+        return vector;
+    }
+
+    private void setParameters(double[] vector) {
+        for (int i = 0; i < theta.length; i++) {
+            theta[i] = clamp((vector[i] - AIParameters.min(i)) / (AIParameters.max(i) - AIParameters.min(i)));
+        }
+    }
+
+    private static double clamp(double x) {
+        return Math.max(0, Math.min(1, x));
+    }
+
+    /* ---------- 检查点 ---------- */
+
+    /** 参数按实际取值保存（保留小数，便于继续调整），另存轮数、种子和上一轮的胜局差 */
+    private void saveCheckpoint() throws IOException {
+        Properties properties = new Properties();
+        double[] vector = denormalize(theta);
+        for (int i = 0; i < vector.length; i++) {
+            properties.setProperty(AIParameters.name(i), Double.toString(vector[i]));
+        }
+        properties.setProperty(KEY_ITERATION, Integer.toString(iteration));
+        properties.setProperty(KEY_SEED, Long.toString(seed));
+        properties.setProperty(KEY_SCORE, Double.toString(lastScore));
+
+        File tmp = new File(checkpoint.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            properties.store(out, "ParameterTuner checkpoint");
+        }
+        Files.move(tmp.toPath(), checkpoint.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void loadCheckpoint() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(checkpoint)) {
+            properties.load(in);
+        }
+        double[] vector = AIParameters.DEFAULT.toVector();
+        try {
+            for (int i = 0; i < vector.length; i++) {
+                String value = properties.getProperty(AIParameters.name(i));
+                if (value != null) vector[i] = Double.parseDouble(value.trim());
+            }
+            iteration = Integer.parseInt(properties.getProperty(KEY_ITERATION, "0").trim());
+            seed = Long.parseLong(properties.getProperty(KEY_SEED, Long.toString(seed)).trim());
+            lastScore = Double.parseDouble(properties.getProperty(KEY_SCORE, "0").trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("检查点格式错误: " + checkpoint, e);
+        }
+        setParameters(vector);
+    }
+
+    @Override
+    public String toString() {
+        return "ParameterTuner{iteration=" + iteration + ", theta=" + Arrays.toString(theta) + '}';
+    }
+}
@@ -0,0 +1,33 @@
+package models;
+
+/**
+ * 牌型的基本类型编码：把牌型类型和最大牌编号打包进一个 int，
+ * 供查表、快速验证等不希望创建 CardPattern 对象的场景使用
+ *
+ * 布局：type << 6 | highestId，无效牌型编码为 0
+ */
+public final class PatternCode {
+
+    public static final int INVALID = 0;
+
+    private PatternCode() {
+    }
+
+    public static int encode(int patternType, int highestId) {
+        return patternType << 6 | highestId;
+    }
+
+    /** 牌型类型（CardPattern 中的常量） */
+    public static int typeOf(int code) {
+        return code >>> 6;
+    }
+
+    /** 牌型中最大牌的编号；无效牌型时无意义 */
+    public static int highestIdOf(int code) {
+        return code & 0x3F;
+    }
+
+    public static boolean isValid(int code) {
+        return code != INVALID;
+    }
+}
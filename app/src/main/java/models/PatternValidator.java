@@ -12,4 +12,13 @@ public interface PatternValidator {
      * @return 验证后的牌型，若无效则返回INVALID类型的牌型
      */
     CardPattern validate(List<Card> cards);
+
+    /**
+     * 验证一组以位掩码表示的牌
+     * @param cards 要验证的牌
+     * @return 验证后的牌型，若无效则返回INVALID类型的牌型
+     */
+    default CardPattern validate(CardSet cards) {
+        return validate(cards.toList());
+    }
 } 
\ No newline at end of file
@@ -20,7 +20,21 @@ public class PatternValidatorImpl implements PatternValidator {
         // 对牌进行排序，方便后续处理（假设 Card#compareTo 按点数升序排列）
         List<Card> sortedCards = new ArrayList<>(cards);
         Collections.sort(sortedCards);
+        return validateSorted(sortedCards);
+    }
+
+    /**
+     * 位掩码遍历得到的列表已按点数、花色升序排列，省去复制和排序
+     */
+    @Override
+    public CardPattern validate(CardSet cards) {
+        if (cards == null || cards.isEmpty()) {
+            return new CardPattern(CardPattern.INVALID, cards == null ? null : cards.toList(), null);
+        }
+        return validateSorted(cards.toList());
+    }
 
+    private CardPattern validateSorted(List<Card> sortedCards) {
         int size = sortedCards.size();
 
         switch (size) {
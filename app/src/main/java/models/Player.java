@@ -1,10 +1,8 @@
 package models;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -15,7 +13,8 @@ public class Player {
     private boolean isHuman;  // 是否是人类（允许后期标记）
 
     private final ReentrantLock lock = new ReentrantLock();  // 锁
-    private final List<Card> hand = new CopyOnWriteArrayList<>();  // 手牌
+    private volatile long handBits;  // 手牌（位掩码，天然按点数、花色有序）
+    private volatile long selectedBits;  // 被选中的牌（位掩码，总是 handBits 的子集）
 
     public Player(String name, boolean isHuman) {
         this.name = Objects.requireNonNull(name);  // 不能为空
@@ -33,54 +32,97 @@ public class Player {
 
     /* ---------- hand operations ---------- */
     public void setHand(List<Card> cards) {
+        setHand(CardSet.of(cards));
+    }
+
+    public void setHand(CardSet cards) {
         lock.lock();
         try {
-            hand.clear();  // 清空手牌
-            hand.addAll(cards);  // 添加手牌
-            hand.sort(null);  // 排序
+            long old = handBits;
+            handBits = cards.bits();  // 位掩码天然有序，无需再排序
+            selectedBits = 0L;  // 换牌后清空选中
+            onHandChanged(old, handBits);
         } finally { lock.unlock(); }  // 释放锁
     }
 
-    public List<Card> getHand() { return List.copyOf(hand); }
+    public List<Card> getHand() { return Collections.unmodifiableList(CardSet.ofBits(handBits).toList()); }
 
-    public List<Card> getSelectedCards() {
-        List<Card> sel = new ArrayList<>();
-        for (Card c : hand) if (c.isSelected()) sel.add(c);
-        return sel;
-    }
+    /** 手牌的位掩码视图，无需复制列表 */
+    public CardSet getHandSet() { return CardSet.ofBits(handBits); }
+
+    public List<Card> getSelectedCards() { return CardSet.ofBits(selectedBits).toList(); }
+
+    /** 被选中的牌的位掩码视图 */
+    public CardSet getSelectedSet() { return CardSet.ofBits(selectedBits); }
 
     public void toggleCardSelection(int idx) {  // 切换选中的牌
         lock.lock();
         try {
-            if (idx < 0 || idx >= hand.size()) return;  // 如果索引小于0或大于等于手牌数量，则返回
-            Card c = hand.get(idx);  // 获取手牌
-            c.setSelected(!c.isSelected());  // 切换选中状态
+            long bit = nthCard(handBits, idx);  // 获取手牌中第 idx 张牌
+            if (bit == 0L) return;  // 如果索引小于0或大于等于手牌数量，则返回
+            selectedBits ^= bit;  // 切换选中状态
         } finally { lock.unlock(); }  // 释放锁
     }
 
+    public void toggleCardSelection(Card card) {  // 按牌切换选中，不在手中的牌忽略
+        lock.lock();
+        try {
+            selectedBits ^= CardSet.bit(card) & handBits;
+        } finally { lock.unlock(); }
+    }
+
+    /**
+     * 以给定的牌替换当前选中；不在手中的牌会被忽略
+     * @return 实际选中的牌
+     */
+    public CardSet selectCards(CardSet cards) {
+        lock.lock();
+        try {
+            selectedBits = cards.bits() & handBits;
+            return CardSet.ofBits(selectedBits);
+        } finally { lock.unlock(); }
+    }
+
     public void clearSelections() {  // 清空选中
         lock.lock();
         try {
-            for (Card c : hand) c.setSelected(false);  // 设置所有手牌为未选中
+            selectedBits = 0L;  // 设置所有手牌为未选中
         } finally { lock.unlock(); }  // 释放锁
     }
 
     public List<Card> playSelectedCards() {  // 出牌
         lock.lock();
         try {
-            List<Card> out = new ArrayList<>();
-            for (Card c : hand) if (c.isSelected()) out.add(c);
-            if (!out.isEmpty()) {
-                hand.removeAll(out);
-                for (Card c : out) c.setSelected(false);
+            long out = selectedBits & handBits;
+            if (out != 0L) {
+                long old = handBits;
+                handBits &= ~out;
+                selectedBits = 0L;
+                onHandChanged(old, handBits);
             }
-            return out;
+            return CardSet.ofBits(out).toList();
         } finally { lock.unlock(); }
     }
 
-    public int getCardCount() { return hand.size(); }  // 获取手牌数量
+    public int getCardCount() { return Long.bitCount(handBits); }  // 获取手牌数量
 
     public boolean isCardSelected(int idx) {  // 是否选中
-        return idx >= 0 && idx < hand.size() && hand.get(idx).isSelected();  // 如果索引在范围内且手牌被选中，则返回true
+        return (nthCard(handBits, idx) & selectedBits) != 0L;  // 如果索引在范围内且手牌被选中，则返回true
+    }
+
+    /**
+     * 手牌发生变化时调用（持有玩家锁），子类可据此增量维护自己的手牌分析
+     * @param oldHand 变化前的手牌
+     * @param newHand 变化后的手牌
+     */
+    protected void onHandChanged(long oldHand, long newHand) {
+    }
+
+    /** 返回掩码中从小到大第 idx 张牌对应的位；越界时返回 0 */
+    private static long nthCard(long bits, int idx) {
+        if (idx < 0) return 0L;
+        long m = bits;
+        for (int i = 0; i < idx && m != 0L; i++) m &= m - 1;
+        return Long.lowestOneBit(m);
     }
 }
@@ -0,0 +1,224 @@
+package models;
+
+import java.util.SplittableRandom;
+
+/**
+ * 轻量的对局模拟器：每个座位的手牌只用一个位掩码表示，出牌、过牌、轮转都是位运算，
+ * 供蒙特卡洛类策略做大量快速模拟（rollout）
+ *
+ * 规则与 {@link Game} 一致：自由出牌时持有方块3必须带上它（方块3还在手中说明还是首回合），
+ * 其余玩家全部 pass 后由最后出牌者重新自由出牌，第一个出完手牌的座位获胜。
+ * 非线程安全，每个线程各用一个实例，可反复 {@link #reset} 复用而不分配对象。
+ */
+public final class Playout {
+
+    public static final int MAX_SEATS = 4;
+
+    /** 防止异常输入导致死循环的步数上限 */
+    private static final int MAX_STEPS = 1000;
+
+    /** 自由出牌方手牌不超过该张数时检查能否用大牌出完，提前结束模拟 */
+    private static final int CONTROL_CHECK_MAX_CARDS = 4;
+
+    private final long[] hands = new long[MAX_SEATS];
+    private int seats;
+    private int toMove;
+    private int lastKey;   // 当前需要压过的强度键，0 表示自由出牌
+    private int lastOwner; // 打出当前牌型的座位，-1 表示自由出牌
+    private int winner;
+
+    private final MoveList moves = new MoveList();
+    private final ControlAnalyzer control = new ControlAnalyzer();
+    private final MoveList sequence = new MoveList(16);
+
+    /**
+     * 设置模拟的起始局面
+     * @param hands 各座位的手牌，按出牌顺序排列
+     * @param seats 座位数
+     * @param toMove 轮到出牌的座位
+     * @param lastKey 需要压过的强度键，0 表示自由出牌
+     * @param lastOwner 打出该牌型的座位，自由出牌时为 -1
+     */
+    public void reset(long[] hands, int seats, int toMove, int lastKey, int lastOwner) {
+        if (seats < 2 || seats > MAX_SEATS) {
+            throw new IllegalArgumentException("座位数必须在2-4之间: " + seats);
+        }
+        System.arraycopy(hands, 0, this.hands, 0, seats);
+        this.seats = seats;
+        this.toMove = toMove;
+        this.lastKey = lastOwner < 0 ? 0 : lastKey;
+        this.lastOwner = lastOwner < 0 ? -1 : lastOwner;
+        this.winner = -1;
+        for (int s = 0; s < seats; s++) {
+            if (hands[s] == 0L) winner = s;
+        }
+    }
+
+    /* ---------- 局面 ---------- */
+
+    public int seats() {
+        return seats;
+    }
+
+    public long hand(int seat) {
+        return hands[seat];
+    }
+
+    public int toMove() {
+        return toMove;
+    }
+
+    public int lastKey() {
+        return lastKey;
+    }
+
+    public int lastOwner() {
+        return lastOwner;
+    }
+
+    public boolean isFreeLead() {
+        return lastOwner < 0;
+    }
+
+    /** 是否允许 pass（自由出牌时不允许） */
+    public boolean canPass() {
+        return lastOwner >= 0;
+    }
+
+    /** 已经出完手牌的座位，未结束时为 -1 */
+    public int winner() {
+        return winner;
+    }
+
+    public boolean isOver() {
+        return winner >= 0;
+    }
+
+    /**
+     * 当前座位所有合法出牌（不含 pass）
+     * @param out 输出列表，会先被清空
+     */
+    public void legalMoves(MoveList out) {
+        long hand = hands[toMove];
+        long must = lastOwner < 0 ? (hand & MoveGenerator.DIAMOND_THREE) : 0L;
+        MoveGenerator.generate(hand, lastKey, must, out);
+    }
+
+    /* ---------- 行动 ---------- */
+
+    /**
+     * 当前座位打出一手牌
+     * @param move 牌的位掩码，必须在手中
+     * @param key 该牌型的强度键
+     */
+    public void play(long move, int key) {
+        hands[toMove] &= ~move;
+        lastKey = key;
+        lastOwner = toMove;
+        if (hands[toMove] == 0L) {
+            winner = toMove;
+            return;
+        }
+        advance();
+    }
+
+    /** 当前座位 pass */
+    public void pass() {
+        advance();
+    }
+
+    private void advance() {
+        toMove = toMove + 1 == seats ? 0 : toMove + 1;
+        if (toMove == lastOwner) { // 其他人都 pass 了，重新自由出牌
+            lastOwner = -1;
+            lastKey = 0;
+        }
+    }
+
+    /* ---------- 模拟 ---------- */
+
+    /**
+     * 按默认策略把对局下完；自由出牌的一方能用大牌出完时直接判它获胜
+     * @return 获胜的座位，超出步数上限时为 -1
+     */
+    public int playOut(SplittableRandom random) {
+        return playOut(random, MAX_STEPS);
+    }
+
+    /**
+     * 最多按默认策略走 maxSteps 步，供配合 {@link PositionEvaluator} 截断模拟
+     * @return 获胜的座位，到步数上限仍未结束时为 -1（局面停在截断处）
+     */
+    public int playOut(SplittableRandom random, int maxSteps) {
+        int limit = Math.min(maxSteps, MAX_STEPS);
+        for (int step = 0; winner < 0 && step < limit; step++) {
+            if (lastOwner < 0 && controlsRest()) break;
+            policyStep(random);
+        }
+        return winner;
+    }
+
+    /**
+     * 自由出牌的一方能否依次用其他座位压不住的牌出完（见 {@link ControlAnalyzer}）；
+     * 能的话它有确定的必胜走法，提前结束模拟，清空它的手牌并判它获胜。
+     * 按出牌策略逐步下完未必会走出这条顺序，所以这是把模拟改成按必胜走法结束，而不是与逐步下完等价
+     */
+    private boolean controlsRest() {
+        long hand = hands[toMove];
+        if (Long.bitCount(hand) > CONTROL_CHECK_MAX_CARDS) return false;
+        long others = 0L;
+        int maxOthers = 0;
+        for (int s = 0; s < seats; s++) {
+            if (s == toMove) continue;
+            others |= hands[s];
+            maxOthers = Math.max(maxOthers, Long.bitCount(hands[s]));
+        }
+        if (!control.reset(others, maxOthers).findWinningSequence(hand, 0, sequence)) return false;
+        hands[toMove] = 0L;
+        winner = toMove;
+        return true;
+    }
+
+    /**
+     * 按默认策略走一步：
+     * 自由出牌时出包含最小牌、张数最多的一手（下家只剩一张时改出最大的单张）；
+     * 跟牌时出能压过的最小一手，只有炸弹可压单张/对子时一半概率留着不用
+     */
+    public void policyStep(SplittableRandom random) {
+        long hand = hands[toMove];
+        if (lastOwner < 0) {
+            MoveGenerator.generate(hand, 0, Long.lowestOneBit(hand), moves);
+            int best = 0;
+            for (int i = 1; i < moves.size(); i++) {
+                int size = Long.bitCount(moves.cards(i));
+                int bestSize = Long.bitCount(moves.cards(best));
+                if (size > bestSize || (size == bestSize && moves.key(i) < moves.key(best))) best = i;
+            }
+            long move = moves.cards(best);
+            int next = toMove + 1 == seats ? 0 : toMove + 1;
+            if (Long.bitCount(move) == 1 && Long.bitCount(hands[next]) == 1
+                    && (hand & MoveGenerator.DIAMOND_THREE) == 0L) {
+                long top = Long.highestOneBit(hand);
+                play(top, CardPattern.strengthKey(CardPattern.SINGLE, Long.numberOfTrailingZeros(top)));
+                return;
+            }
+            play(move, moves.key(best));
+            return;
+        }
+
+        MoveGenerator.generate(hand, lastKey, 0L, moves);
+        if (moves.isEmpty()) {
+            pass();
+            return;
+        }
+        int best = 0;
+        for (int i = 1; i < moves.size(); i++) {
+            if (moves.key(i) < moves.key(best)) best = i;
+        }
+        if ((moves.key(best) >>> 12) != (lastKey >>> 12) && random.nextBoolean()) {
+            pass();
+            return;
+        }
+        play(moves.cards(best), moves.key(best));
+    }
+}
@@ -0,0 +1,316 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * AI 的预先思考（pondering）：别人的回合里在后台预测轮到自己时的局面，提前用策略算好应对；
+ * 轮到自己时局面与某个预测完全一致就直接用算好的结果
+ *
+ * 预测分两部分：自己之前的座位全部 pass（与看不到的牌无关，人类玩家尤其常见）；
+ * 以及按记牌器的 pass 记录采样对手手牌（{@link HandSampler}），用 {@link Playout} 的默认策略走到自己，
+ * 出现次数最多的几种结果。局面按手牌、需要压的牌型、出牌者、各家张数、已出的牌比较。
+ *
+ * 每次 {@link #start} 代数加一并取消上一代的标记，旧的预测和还在进行的搜索都作废；
+ * 对局的决策取消标记（{@link Game#getDecisionToken()}）被取消时（重置、重新开始或结束）同样作废。
+ * 同一时刻只有一个后台任务依次搜索各个预测，{@link #take} 返回之前会等它停下，
+ * 所以策略实例只需保证不被其他 AIPlayer 同时使用。线程安全。
+ */
+final class Ponderer {
+
+    private static final Logger LOG = Logger.getLogger(Ponderer.class.getName());
+
+    /** 采样的次数 */
+    static final int SAMPLES = 64;
+    /** 除全部 pass 之外最多保留的预测数 */
+    static final int MAX_SAMPLED_PREDICTIONS = 2;
+    /** 采样预测至少出现的次数 */
+    static final int MIN_OCCURRENCES = 4;
+
+    private final Object lock = new Object();
+    private long generation;
+    private CancellationToken token = CancellationToken.NONE;
+    private CompletableFuture<Void> task = CompletableFuture.completedFuture(null);
+    private List<Prediction> predictions = Collections.emptyList();
+    private volatile Prediction searching; // 正在搜索的预测
+    private CancellationToken gameToken; // 当前挂着 cancelHook 的对局取消标记
+    private final Runnable cancelHook = this::cancel;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 开始新一代的预先思考，作废之前的
+     * @param now 当前局面（自己的视角，带记牌器）
+     * @param toMove 当前出牌的座位相对自己的位置，1 为下家
+     * @param game 对局的决策取消标记，被取消时作废预先思考
+     */
+    void start(AIStrategy strategy, DecisionContext now, int toMove, Executor executor, CancellationToken game) {
+        link(game);
+        CancellationToken next = new CancellationToken();
+        long gen;
+        synchronized (lock) {
+            token.cancel();
+            token = next;
+            gen = ++generation;
+            predictions = Collections.emptyList();
+            if (game.isCancelled()) return; // 标记在这之后才被取消时，cancelHook 会作废这一代
+            CompletableFuture<Void> previous = task;
+            // 接在上一代任务之后，保证同一时刻只有一个任务使用策略
+            task = previous.handle((v, e) -> null).thenRunAsync(() -> run(strategy, now, toMove, gen, next), executor);
+        }
+    }
+
+    /** 把 cancelHook 从上一局的取消标记移到这一局的 */
+    private void link(CancellationToken game) {
+        CancellationToken previous;
+        synchronized (lock) {
+            previous = gameToken;
+            if (previous == game) return;
+            gameToken = game;
+        }
+        if (previous != null) previous.removeCallback(cancelHook);
+        game.onCancel(cancelHook);
+    }
+
+    /** 作废当前的预先思考，不等待后台任务 */
+    void cancel() {
+        stop();
+    }
+
+    /** 作废当前的预先思考，返回还在进行的后台任务 */
+    private CompletableFuture<Void> stop() {
+        synchronized (lock) {
+            token.cancel();
+            generation++;
+            predictions = Collections.emptyList();
+            return task;
+        }
+    }
+
+    /**
+     * 轮到自己时取预先算好的结果：局面与已算完（或正在算）的预测一致时返回其结果，否则返回 null。
+     * 返回之前作废其余预测并等后台任务停下，之后调用方可以放心使用策略
+     */
+    List<Card> take(DecisionContext actual) {
+        Prediction match = null;
+        synchronized (lock) {
+            for (Prediction p : predictions) {
+                if (p.matches(actual)) {
+                    match = p;
+                    break;
+                }
+            }
+        }
+        List<Card> result = null;
+        if (match != null && (match.result.isDone() || match == searching)) {
+            try {
+                result = match.result.get(); // 正在算的等它算完，不比重新开始更慢
+            } catch (CancellationException | ExecutionException e) {
+                result = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (result != null) hits.increment();
+        else misses.increment();
+        await(stop());
+        return result;
+    }
+
+    /** 命中预测的次数 */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /** 轮到自己时没有可用预测的次数 */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    private void run(AIStrategy strategy, DecisionContext now, int toMove, long gen, CancellationToken token) {
+        if (token.isCancelled()) return;
+        List<Prediction> list = predict(now, toMove, now.getHand().bits() ^ gen * 0x9E3779B97F4A7C15L);
+        synchronized (lock) {
+            if (gen != generation) return;
+            predictions = list;
+        }
+        for (Prediction p : list) {
+            if (token.isCancelled()) break;
+            searching = p;
+            try {
+                List<Card> cards = strategy.makeMove(p.context, Long.MAX_VALUE, token);
+                if (token.isCancelled()) p.result.cancel(false); // 被打断的搜索结果不完整
+                else p.result.complete(cards);
+            } catch (RuntimeException e) {
+                LOG.fine(() -> "pondering failed: " + e);
+                p.result.completeExceptionally(e);
+            } finally {
+                searching = null;
+            }
+        }
+        for (Prediction p : list) p.result.cancel(false);
+    }
+
+    /* ---------- 预测 ---------- */
+
+    /**
+     * 预测轮到自己时的局面：全部 pass 的结果在前，其后是采样中出现最多的几种
+     */
+    static List<Prediction> predict(DecisionContext now, int toMove, long seed) {
+        List<Prediction> out = new ArrayList<>(1 + MAX_SAMPLED_PREDICTIONS);
+        List<Integer> others = now.getOthersCount();
+        int seats = others.size() + 1;
+        if (toMove <= 0 || toMove >= seats || seats > Playout.MAX_SEATS) return out;
+        long hand = now.getHand().bits();
+        long[] hands = new long[Playout.MAX_SEATS];
+        hands[0] = hand;
+        int lastKey = now.getLastKey();
+        int owner = now.lastPlayerOffset();
+        Playout playout = new Playout();
+
+        // 全部 pass：只与出牌顺序有关，对手手牌随便填；轮到自己之前有人重新自由出牌时不可能
+        if (owner >= 0) {
+            for (int s = 1; s < seats; s++) hands[s] = 1L; // 只要不空
+            playout.reset(hands, seats, toMove, lastKey, owner);
+            while (playout.toMove() != 0 && playout.canPass()) playout.pass();
+            if (playout.toMove() == 0) {
+                out.add(new Prediction(now, playout.isFreeLead() ? null : now.getLastPattern(),
+                        playout.lastOwner(), 0L, new int[seats]));
+            }
+        }
+
+        HandSampler sampler = HandSampler.of(now);
+        int needed = 0;
+        for (int count : others) needed += count;
+        if (needed > Long.bitCount(now.unseen())) return out; // 信息不一致，无法采样
+
+        Map<Outcome, Integer> tally = new HashMap<>();
+        int[] deck = new int[sampler.deckSize()];
+        long[] start = new long[Playout.MAX_SEATS];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < SAMPLES; i++) {
+            sampler.sample(random, hands, deck);
+            System.arraycopy(hands, 0, start, 0, seats);
+            playout.reset(hands, seats, toMove, lastKey, owner);
+            long lastMove = 0L;
+            while (!playout.isOver() && playout.toMove() != 0) {
+                int mover = playout.toMove();
+                long before = playout.hand(mover);
+                playout.policyStep(random);
+                if (playout.hand(mover) != before) lastMove = before & ~playout.hand(mover);
+            }
+            if (playout.isOver()) continue; // 没轮到自己就结束了
+            int[] played = new int[seats];
+            long playedCards = 0L;
+            for (int s = 1; s < seats; s++) {
+                long gone = start[s] & ~playout.hand(s);
+                played[s] = Long.bitCount(gone);
+                playedCards |= gone;
+            }
+            if (playedCards == 0L) continue; // 全部 pass 已经单独预测
+            Outcome outcome = new Outcome(playout.lastKey(), playout.lastOwner(),
+                    playout.lastOwner() < 0 ? 0L : lastMove, playedCards, played);
+            tally.merge(outcome, 1, Integer::sum);
+        }
+
+        List<Map.Entry<Outcome, Integer>> ranked = new ArrayList<>(tally.entrySet());
+        Collections.sort(ranked, (a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        for (int i = 0; i < ranked.size() && i < MAX_SAMPLED_PREDICTIONS; i++) {
+            if (ranked.get(i).getValue() < MIN_OCCURRENCES) break;
+            Outcome o = ranked.get(i).getKey();
+            CardPattern pattern = o.owner < 0 ? null
+                    : o.lastMove == 0L ? now.getLastPattern() : patternOf(o.lastMove);
+            if (o.owner >= 0 && pattern == null) continue;
+            out.add(new Prediction(now, pattern, o.owner, o.playedCards, o.played));
+        }
+        return out;
+    }
+
+    private static CardPattern patternOf(long cards) {
+        int code = HistogramPatternValidator.classify(cards);
+        return PatternCode.isValid(code) ? HistogramPatternValidator.toPattern(cards, code) : null;
+    }
+
+    private static void await(CompletableFuture<Void> running) {
+        try {
+            running.get();
+        } catch (CancellationException | ExecutionException | RejectedExecutionException e) {
+            // 任务失败或被拒绝时没有需要等待的搜索
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 一种预测的局面及其搜索结果
+     */
+    static final class Prediction {
+        final DecisionContext context;
+        final CompletableFuture<List<Card>> result = new CompletableFuture<>();
+
+        /**
+         * @param lastPattern 轮到自己时需要压的牌型，null 表示自由出牌
+         * @param owner 打出该牌型的座位相对自己的位置
+         * @param newlyPlayed 在此之前其他座位新打出的牌
+         * @param played 各座位新打出的张数，下标为相对自己的位置
+         */
+        Prediction(DecisionContext now, CardPattern lastPattern, int owner, long newlyPlayed, int[] played) {
+            List<Integer> others = now.getOthersCount();
+            List<Integer> counts = new ArrayList<>(others.size());
+            for (int s = 1; s <= others.size(); s++) counts.add(others.get(s - 1) - played[s]);
+            this.context = now.predicted(lastPattern, counts,
+                    CardSet.ofBits(now.getPlayedCards().bits() | newlyPlayed), owner);
+        }
+
+        boolean matches(DecisionContext actual) {
+            return actual.getHand().bits() == context.getHand().bits()
+                    && actual.getLastKey() == context.getLastKey()
+                    && actual.lastPlayerOffset() == context.lastPlayerOffset()
+                    && actual.getPlayedCards().bits() == context.getPlayedCards().bits()
+                    && actual.getOthersCount().equals(context.getOthersCount());
+        }
+    }
+
+    /** 采样得到的一种结果 */
+    private static final class Outcome {
+        final int lastKey;
+        final int owner;
+        final long lastMove;
+        final long playedCards;
+        final int[] played;
+
+        Outcome(int lastKey, int owner, long lastMove, long playedCards, int[] played) {
+            this.lastKey = lastKey;
+            this.owner = owner;
+            this.lastMove = lastMove;
+            this.playedCards = playedCards;
+            this.played = played;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Outcome)) return false;
+            Outcome other = (Outcome) o;
+            return lastKey == other.lastKey && owner == other.owner && lastMove == other.lastMove
+                    && playedCards == other.playedCards && Arrays.equals(played, other.played);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(playedCards * 31 + lastMove) * 31 + lastKey * 7 + owner;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package models;
+
+/**
+ * 局面评估函数：不把对局下完，直接估计某个座位从当前局面获胜的概率
+ *
+ * 供搜索类策略在叶子节点或模拟步数截断处代替完整的模拟（见 {@link MonteCarloAIStrategy}、{@link IsmctsAIStrategy}）。
+ * 实现必须线程安全且不分配对象，多个搜索线程会并发调用。
+ */
+public interface PositionEvaluator {
+
+    /**
+     * @param position 模拟中的局面
+     * @param seat 评估的座位
+     * @return 该座位获胜的概率，0..1
+     */
+    float evaluate(Playout position, int seat);
+}
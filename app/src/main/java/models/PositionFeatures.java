@@ -0,0 +1,175 @@
+package models;
+
+/**
+ * {@link PositionEvaluator} 使用的局面特征：直接在手牌、看不到的牌的位掩码和几个整数上计算，
+ * 写入调用方提供的 float 数组，不分配对象
+ *
+ * 特征都归一化到大约 0..1，下标固定（见各常量），训练数据和模型文件都依赖这个顺序，
+ * 改动特征时要同时修改 {@link #COUNT} 和模型文件的版本。
+ */
+public final class PositionFeatures {
+
+    /** 0..12：自己每个点数的张数 / 4 */
+    public static final int RANK_COUNTS = 0;
+    /** 自己的张数 / 13 */
+    public static final int HAND_SIZE = 13;
+    /** 只有一张的点数个数 / 13 */
+    public static final int SINGLES = 14;
+    /** 至少两张的点数个数 / 13 */
+    public static final int PAIRS = 15;
+    /** 至少三张的点数个数 / 4 */
+    public static final int TRIPLES = 16;
+    /** 四张的点数个数 / 3 */
+    public static final int QUADS = 17;
+    /** 自己的控制牌（A、2）张数 / 8 */
+    public static final int CONTROLS = 18;
+    /** 自己的点数中连续五个点数的起点个数 / 9 */
+    public static final int STRAIGHT_RUNS = 19;
+    /** 够五张的花色个数 / 4 */
+    public static final int FLUSH_SUITS = 20;
+    /** 看不到的牌中比自己最大单张还大的比例 */
+    public static final int UNSEEN_ABOVE_TOP = 21;
+    /** 看不到的控制牌张数 / 8 */
+    public static final int UNSEEN_CONTROLS = 22;
+    /** 自己最大的对子不小于看不到的牌中最大的对子（1/0） */
+    public static final int TOP_PAIR_BOSS = 23;
+    /** 自己最大的单张不小于看不到的牌中最大的单张（1/0） */
+    public static final int TOP_SINGLE_BOSS = 24;
+    /** 下家的张数 / 13 */
+    public static final int NEXT_COUNT = 25;
+    /** 对手中最少的张数 / 13 */
+    public static final int MIN_COUNT = 26;
+    /** 张数不超过 2 的对手个数 / 3 */
+    public static final int SHORT_OPPONENTS = 27;
+    /** 自由出牌（1/0） */
+    public static final int FREE_LEAD = 28;
+    /** 29..31：需要压的牌型大类（单张、对子、五张），one-hot */
+    public static final int LAST_FAMILY = 29;
+    /** 需要压的牌的大小：单张、对子为最大牌点数 / 12，五张为档次 / 5 */
+    public static final int LAST_STRENGTH = 32;
+    /** 当前牌型是下家打出的（1/0） */
+    public static final int LAST_BY_NEXT = 33;
+    /** 能用同类的单张或对子压过当前牌型（1/0，五张牌型不判断） */
+    public static final int CAN_BEAT_SMALL = 34;
+
+    /** 特征个数 */
+    public static final int COUNT = 35;
+
+    private static final long CONTROL_MASK = CardSet.rankMask(Card.ACE) | CardSet.rankMask(Card.TWO);
+
+    private PositionFeatures() {
+    }
+
+    /**
+     * 从模拟局面中 seat 的视角提取特征；看不到的牌取其他座位手牌的并集
+     * @param out 长度不小于 {@link #COUNT}
+     */
+    public static void extract(Playout position, int seat, float[] out) {
+        int seats = position.seats();
+        long unseen = 0L;
+        int minCount = Integer.MAX_VALUE;
+        int shortOpponents = 0;
+        for (int s = 0; s < seats; s++) {
+            if (s == seat) continue;
+            long hand = position.hand(s);
+            unseen |= hand;
+            int count = Long.bitCount(hand);
+            minCount = Math.min(minCount, count);
+            if (count <= 2) shortOpponents++;
+        }
+        int next = seat + 1 == seats ? 0 : seat + 1;
+        int owner = position.lastOwner();
+        int lastOffset = owner < 0 ? -1 : (owner - seat + seats) % seats;
+        extract(position.hand(seat), unseen, Long.bitCount(position.hand(next)), minCount, shortOpponents,
+                position.lastKey(), lastOffset, out);
+    }
+
+    /**
+     * @param hand 自己的手牌
+     * @param unseen 看不到的牌
+     * @param nextCount 下家的张数
+     * @param minCount 对手中最少的张数
+     * @param shortOpponents 张数不超过 2 的对手个数
+     * @param lastKey 需要压过的强度键，0 表示自由出牌
+     * @param lastOffset 打出当前牌型的座位相对自己的位置（1 为下家），自由出牌时为 -1
+     * @param out 长度不小于 {@link #COUNT}
+     */
+    public static void extract(long hand, long unseen, int nextCount, int minCount, int shortOpponents,
+                               int lastKey, int lastOffset, float[] out) {
+        extract(hand, unseen, nextCount, minCount, shortOpponents, lastKey, lastOffset, out, 0);
+    }
+
+    /**
+     * 同上，特征写到 out 的 offset 开始的位置（便于把多条样本连续存放在一个数组里）
+     */
+    public static void extract(long hand, long unseen, int nextCount, int minCount, int shortOpponents,
+                               int lastKey, int lastOffset, float[] out, int offset) {
+        long counts = nibbleCounts(hand); // 每 4 位是一个点数的张数
+        int singles = 0;
+        int pairs = 0;
+        int triples = 0;
+        int quads = 0;
+        for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
+            int count = (int) (counts >>> (rank << 2)) & 0xF;
+            out[offset + RANK_COUNTS + rank] = count * 0.25f;
+            singles += count == 1 ? 1 : 0;
+            pairs += count >>> 1 != 0 ? 1 : 0;
+            triples += count >= 3 ? 1 : 0;
+            quads += count >>> 2;
+        }
+        out[offset + HAND_SIZE] = Long.bitCount(hand) / 13f;
+        out[offset + SINGLES] = singles / 13f;
+        out[offset + PAIRS] = pairs / 13f;
+        out[offset + TRIPLES] = triples * 0.25f;
+        out[offset + QUADS] = quads / 3f;
+        out[offset + CONTROLS] = Long.bitCount(hand & CONTROL_MASK) * 0.125f;
+
+        int ranks = CardSet.rankPresence(hand);
+        out[offset + STRAIGHT_RUNS] = Integer.bitCount(ranks & ranks >>> 1 & ranks >>> 2 & ranks >>> 3 & ranks >>> 4) / 9f;
+        int flushSuits = 0;
+        for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) {
+            flushSuits += Long.bitCount(hand & CardSet.suitMask(suit)) >= 5 ? 1 : 0;
+        }
+        out[offset + FLUSH_SUITS] = flushSuits * 0.25f;
+
+        long top = Long.highestOneBit(hand);
+        int unseenCount = Long.bitCount(unseen);
+        int above = top == 0L ? unseenCount : Long.bitCount(unseen & -(top << 1));
+        out[offset + UNSEEN_ABOVE_TOP] = unseenCount == 0 ? 0f : (float) above / unseenCount;
+        out[offset + UNSEEN_CONTROLS] = Long.bitCount(unseen & CONTROL_MASK) * 0.125f;
+        int myPair = topPairId(hand, counts);
+        out[offset + TOP_PAIR_BOSS] = myPair >= 0 && myPair >= topPairId(unseen, nibbleCounts(unseen)) ? 1f : 0f;
+        out[offset + TOP_SINGLE_BOSS] = top != 0L && top > Long.highestOneBit(unseen) ? 1f : 0f;
+
+        out[offset + NEXT_COUNT] = nextCount / 13f;
+        out[offset + MIN_COUNT] = minCount / 13f;
+        out[offset + SHORT_OPPONENTS] = shortOpponents / 3f;
+
+        int family = lastKey >>> 12;
+        out[offset + FREE_LEAD] = lastKey == 0 ? 1f : 0f;
+        out[offset + LAST_FAMILY] = family == 1 ? 1f : 0f;
+        out[offset + LAST_FAMILY + 1] = family == 2 ? 1f : 0f;
+        out[offset + LAST_FAMILY + 2] = family == 3 ? 1f : 0f;
+        out[offset + LAST_STRENGTH] = family == 3 ? (lastKey >>> 8 & 0xF) * 0.2f
+                : lastKey == 0 ? 0f : (lastKey & 0xFF) / 4 / 12f;
+        out[offset + LAST_BY_NEXT] = lastOffset == 1 ? 1f : 0f;
+        boolean canBeat = family == 1 && top != 0L
+                && CardPattern.strengthKey(CardPattern.SINGLE, Long.numberOfTrailingZeros(top)) > lastKey
+                || family == 2 && myPair >= 0 && CardPattern.strengthKey(CardPattern.PAIR, myPair) > lastKey;
+        out[offset + CAN_BEAT_SMALL] = canBeat ? 1f : 0f;
+    }
+
+    /** 每 4 位统计一个点数的张数（SWAR 按 4 位分组的 popcount） */
+    private static long nibbleCounts(long cards) {
+        long x = cards - ((cards >>> 1) & 0x5555_5555_5555_5555L);
+        return (x & 0x3333_3333_3333_3333L) + ((x >>> 2) & 0x3333_3333_3333_3333L);
+    }
+
+    /** 能组成对子的最大点数中最大一张的编号（即最大对子的最大牌），没有对子时为 -1 */
+    private static int topPairId(long cards, long counts) {
+        long pairRanks = ((counts >>> 1) | (counts >>> 2)) & 0x1111_1111_1111_1111L;
+        if (pairRanks == 0L) return -1;
+        int rank = (63 - Long.numberOfLeadingZeros(pairRanks)) >>> 2;
+        return 63 - Long.numberOfLeadingZeros(cards & CardSet.rankMask(rank));
+    }
+}
@@ -0,0 +1,82 @@
+package models;
+
+import java.util.List;
+
+/**
+ * 无界面的 AI 自我对局：不经过控制器和界面，直接驱动 {@link Game} 直到有人出完
+ *
+ * 每局新建 Game 和 AIPlayer，策略实例由调用方提供；同一局中各座位的策略不能是同一个有状态的实例。
+ * 不同线程各自对局时互不影响（AI 之间共用的残局求解器、手牌评估器都是线程安全的）。
+ */
+public final class SelfPlay {
+
+    /** 一局最多的出牌/pass 次数，超过时按没有结果处理 */
+    public static final int MAX_TURNS = 1000;
+
+    private SelfPlay() {
+    }
+
+    /**
+     * 进行一局
+     * @param strategies 各座位的策略，2-4 个
+     * @param seed 发牌种子
+     * @return 获胜的座位，没有结果时为 -1
+     * @throws IllegalArgumentException 座位数不在 2-4 之间
+     */
+    public static int play(List<? extends AIStrategy> strategies, long seed) {
+        return play(strategies, seed, null);
+    }
+
+    /**
+     * 进行一局，每次决策前后和对局结束时通知监听器
+     * @param listener 为 null 时不通知
+     * @return 获胜的座位，没有结果时为 -1
+     * @throws IllegalArgumentException 座位数不在 2-4 之间
+     */
+    public static int play(List<? extends AIStrategy> strategies, long seed, DecisionListener listener) {
+        if (strategies.size() < 2 || strategies.size() > 4) {
+            throw new IllegalArgumentException("座位数必须在2-4之间: " + strategies.size());
+        }
+        Game game = new Game();
+        game.setAutoFillBots(false);
+        for (int i = 0; i < strategies.size(); i++) {
+            game.addPlayer(new AIPlayer("AI" + i, strategies.get(i)));
+        }
+        game.startGame(seed);
+
+        for (int turn = 0; turn < MAX_TURNS && game.getState() == Game.State.PLAYING; turn++) {
+            AIPlayer ai = (AIPlayer) game.getCurrentPlayer();
+            int seat = game.getPlayers().indexOf(ai);
+            long before = ai.getHandSet().bits();
+            if (listener != null) listener.beforeDecision(game, seat);
+            if (!ai.autoPlay(game) && !game.pass()) {
+                // 必须出牌但策略没有给出合法的出牌：出最小的一张（首轮时就是方块3）
+                ai.selectCards(CardSet.ofBits(Long.lowestOneBit(before)));
+                if (!game.playSelected()) break;
+            }
+            if (listener != null) listener.afterDecision(seat, before & ~ai.getHandSet().bits());
+        }
+
+        int winner = -1;
+        List<Player> players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).getCardCount() == 0) winner = i;
+        }
+        if (listener != null) listener.onGameOver(winner);
+        return winner;
+    }
+
+    /**
+     * 自我对局中每次决策的监听器，由对局所在的线程调用
+     */
+    public interface DecisionListener {
+        /** 轮到 seat 决策，局面（手牌、记牌器）还是出牌之前的 */
+        void beforeDecision(Game game, int seat);
+
+        /** seat 完成了决策，move 为打出的牌，pass 时为 0 */
+        void afterDecision(int seat, long move);
+
+        /** 对局结束，winner 为 -1 表示没有结果 */
+        void onGameOver(int winner);
+    }
+}
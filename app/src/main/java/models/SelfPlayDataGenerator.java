@@ -0,0 +1,162 @@
+package models;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自我对局训练数据生成器：多线程用 {@link SelfPlay} 让 AIPlayer 互相对局，
+ * 每次决策记录一条样本（决策方视角的 {@link PositionFeatures} 特征、打出的牌、最终胜负），供离线训练 {@link PositionEvaluator}
+ *
+ * 每个线程有自己的 {@link TrainingDataWriter}（文件前缀带线程编号）和一块预先分配的对局缓冲区：
+ * 一局中的样本先存进缓冲区，对局结束知道胜负后再一起写出，没有结果的对局丢弃。记录样本的过程不分配对象。
+ * 第 i 局的发牌种子只由初始种子和 i 决定，与线程数无关。
+ *
+ * 用法：java models.SelfPlayDataGenerator &lt;输出目录&gt; [局数=10000] [座位数=4] [线程数=CPU核数] [种子=1] [单个文件MB=256]
+ */
+public final class SelfPlayDataGenerator {
+
+    private final File directory;
+    private final int seats;
+    private final int threads;
+    private final long seed;
+    private final long maxFileBytes;
+
+    /**
+     * @param seats 每局的座位数，2-4
+     * @param maxFileBytes 单个文件的大小上限
+     */
+    public SelfPlayDataGenerator(File directory, int seats, int threads, long seed, long maxFileBytes) {
+        if (seats < 2 || seats > 4) throw new IllegalArgumentException("座位数必须在2-4之间: " + seats);
+        if (threads < 1) throw new IllegalArgumentException("线程数必须为正数: " + threads);
+        this.directory = directory;
+        this.seats = seats;
+        this.threads = threads;
+        this.seed = seed;
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("用法: SelfPlayDataGenerator <输出目录> [局数=10000] [座位数=4] [线程数] [种子=1] [单个文件MB=256]");
+            System.exit(1);
+        }
+        File directory = new File(args[0]);
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 10_000L;
+        int seats = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1L;
+        long maxFileBytes = args.length > 5 ? Long.parseLong(args[5]) << 20 : TrainingDataWriter.DEFAULT_MAX_FILE_BYTES;
+
+        long start = System.nanoTime();
+        long records = new SelfPlayDataGenerator(directory, seats, threads, seed, maxFileBytes).run(games);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d 局，%d 条样本，用时 %.1f 秒（%.0f 条/秒）%n", games, records, seconds, records / seconds);
+    }
+
+    /**
+     * 生成 games 局的样本
+     * @return 写入的样本数
+     */
+    public long run(long games) throws IOException, InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong nextGame = new AtomicLong();
+        List<Future<Long>> futures = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                String prefix = String.format("selfplay-t%02d", t);
+                futures.add(executor.submit(() -> generate(prefix, nextGame, games)));
+            }
+            long records = 0;
+            for (Future<Long> f : futures) {
+                records += f.get();
+            }
+            return records;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** 一个线程：不断领取下一局直到领完 */
+    private long generate(String prefix, AtomicLong nextGame, long games) throws IOException {
+        try (TrainingDataWriter writer = new TrainingDataWriter(directory, prefix, maxFileBytes)) {
+            Recorder recorder = new Recorder(writer, seats);
+            List<AIStrategy> strategies = new ArrayList<>(seats); // 各座位的策略跨局复用
+            for (int s = 0; s < seats; s++) strategies.add(new AdvancedAIStrategy());
+            for (long game; (game = nextGame.getAndIncrement()) < games; ) {
+                SelfPlay.play(strategies, mix(seed * 0x9E3779B97F4A7C15L + game), recorder);
+                if (recorder.error != null) throw recorder.error;
+            }
+            return writer.getRecordCount();
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * 记录一局中的样本，对局结束时写出；缓冲区按 {@link SelfPlay#MAX_TURNS} 预先分配
+     */
+    private static final class Recorder implements SelfPlay.DecisionListener {
+        private final TrainingDataWriter writer;
+        private final int seats;
+        private final float[] features = new float[SelfPlay.MAX_TURNS * PositionFeatures.COUNT];
+        private final long[] moves = new long[SelfPlay.MAX_TURNS];
+        private final byte[] movers = new byte[SelfPlay.MAX_TURNS];
+        private int count;
+        IOException error;
+
+        Recorder(TrainingDataWriter writer, int seats) {
+            this.writer = writer;
+            this.seats = seats;
+        }
+
+        @Override
+        public void beforeDecision(Game game, int seat) {
+            List<Player> players = game.getPlayers();
+            CardTracker tracker = game.getCardTracker();
+            long hand = players.get(seat).getHandSet().bits();
+            int minCount = Integer.MAX_VALUE;
+            int shortOpponents = 0;
+            for (int s = 0; s < seats; s++) {
+                if (s == seat) continue;
+                int cards = players.get(s).getCardCount();
+                minCount = Math.min(minCount, cards);
+                if (cards <= 2) shortOpponents++;
+            }
+            int owner = tracker.getTrickOwner();
+            int lastOffset = owner < 0 ? -1 : (owner - seat + seats) % seats;
+            PositionFeatures.extract(hand, tracker.unseen(hand), players.get((seat + 1) % seats).getCardCount(),
+                    minCount, shortOpponents, tracker.getTrickKey(), lastOffset, features, count * PositionFeatures.COUNT);
+            movers[count] = (byte) seat;
+        }
+
+        @Override
+        public void afterDecision(int seat, long move) {
+            moves[count++] = move;
+        }
+
+        @Override
+        public void onGameOver(int winner) {
+            try {
+                if (winner < 0) return;
+                for (int i = 0; i < count; i++) {
+                    writer.write(features, i * PositionFeatures.COUNT, moves[i], count - i - 1, movers[i] == winner, seats);
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                count = 0;
+            }
+        }
+    }
+}
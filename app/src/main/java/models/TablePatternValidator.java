@@ -0,0 +1,94 @@
+package models;
+
+import java.util.List;
+
+/**
+ * 查表实现的牌型验证器（可选）
+ *
+ * 五张牌用组合数系统（colex 序）映射为 0 ~ C(52,5)-1 之间唯一的下标，
+ * 预先算好全部 2,598,960 种组合的牌型编码（见 {@link PatternCode}），验证时只需一次查表。
+ * 表约占 5MB，首次使用时构建；其他张数的牌交给 {@link HistogramPatternValidator}，
+ * 结果与 {@link PatternValidatorImpl} 完全一致。
+ */
+public class TablePatternValidator implements PatternValidator {
+
+    /** C(n, k)，n ≤ 52，k ≤ 5 */
+    private static final int[][] BINOMIAL = new int[53][6];
+
+    static {
+        for (int n = 0; n <= 52; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, 5); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    /** 五张牌组合的总数 */
+    public static final int COMBINATIONS = BINOMIAL[52][5];
+
+    private final PatternValidator fallback = new HistogramPatternValidator();
+
+    @Override
+    public CardPattern validate(List<Card> cards) {
+        if (cards == null || cards.size() != 5) {
+            return fallback.validate(cards);
+        }
+        long mask = CardSet.maskOf(cards);
+        if (Long.bitCount(mask) != 5) {
+            return fallback.validate(cards); // 有重复的牌
+        }
+        return HistogramPatternValidator.toPattern(mask, classify(mask));
+    }
+
+    @Override
+    public CardPattern validate(CardSet cards) {
+        if (cards == null || cards.size() != 5) {
+            return fallback.validate(cards);
+        }
+        return HistogramPatternValidator.toPattern(cards.bits(), classify(cards.bits()));
+    }
+
+    /**
+     * 查表得到五张牌的牌型编码，不创建任何对象
+     * @param mask 恰好含 5 张牌的位掩码
+     */
+    public int classify(long mask) {
+        return Table.CODES[indexOf(mask)];
+    }
+
+    /**
+     * 五张牌在 colex 序中的下标：C(c0,1) + C(c1,2) + ... + C(c4,5)，其中 c0 < c1 < ... < c4
+     * @param mask 恰好含 5 张牌的位掩码
+     */
+    public static int indexOf(long mask) {
+        int index = 0;
+        long m = mask;
+        for (int k = 1; k <= 5; k++) {
+            index += BINOMIAL[Long.numberOfTrailingZeros(m)][k];
+            m &= m - 1;
+        }
+        return index;
+    }
+
+    /* ---------- 预计算表（按需加载） ---------- */
+
+    private static final class Table {
+        static final short[] CODES = build();
+
+        private static short[] build() {
+            short[] codes = new short[COMBINATIONS];
+            int i = 0;
+            // colex 序：最大的牌在最外层，下标依次递增
+            for (int e = 4; e < 52; e++)
+                for (int d = 3; d < e; d++)
+                    for (int c = 2; c < d; c++)
+                        for (int b = 1; b < c; b++)
+                            for (int a = 0; a < b; a++) {
+                                long mask = 1L << a | 1L << b | 1L << c | 1L << d | 1L << e;
+                                codes[i++] = (short) HistogramPatternValidator.classify(mask);
+                            }
+            return codes;
+        }
+    }
+}
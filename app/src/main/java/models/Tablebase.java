@@ -0,0 +1,170 @@
+package models;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * 两人残局库：双方各持不超过 maxCards 张牌、轮到一方自由出牌的所有局面的精确胜负和最佳出牌
+ *
+ * 由 {@link TablebaseGenerator} 离线生成，运行时用 FileChannel.map 映射为只读内存，一次计算下标即可查到。
+ * 每个局面 1 字节：最高位为必胜标志，低 7 位为最佳出牌在候选列表中的下标
+ * （候选列表由 {@link MoveGenerator} 生成后按强度键升序排列，持有方块3时只含带方块3的出牌）。
+ *
+ * 下标：按（出牌方张数 a，对手张数 b）分块，块内为出牌方手牌在 52 张中的组合序号 ×
+ * C(52-a, b) + 对手手牌在其余 52-a 张中的组合序号（组合数系统，colex 顺序）。
+ *
+ * 文件格式：魔数 "B2TB"、版本、maxCards（各 4 字节，大端），随后是全部局面的字节。
+ */
+public final class Tablebase {
+
+    static final int MAGIC = 0x42325442; // "B2TB"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 12;
+
+    /** 允许的最大张数，3 张时文件约 0.5 GB */
+    public static final int MAX_SUPPORTED_CARDS = 3;
+
+    static final int WIN_FLAG = 0x80;
+    static final int MOVE_INDEX_MASK = 0x7F;
+
+    private static final long[][] BINOMIAL = new long[53][MAX_SUPPORTED_CARDS + 1];
+
+    static {
+        for (int n = 0; n <= 52; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= MAX_SUPPORTED_CARDS; k++) {
+                BINOMIAL[n][k] = n == 0 ? 0 : BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private final ByteBuffer data;
+    private final int maxCards;
+    private final long[][] blockOffsets;
+
+    private Tablebase(ByteBuffer data, int maxCards) {
+        this.data = data;
+        this.maxCards = maxCards;
+        this.blockOffsets = blockOffsets(maxCards);
+    }
+
+    /**
+     * 以只读内存映射方式打开残局库文件
+     * @throws IOException 文件不存在、格式不对或大小不符时抛出
+     */
+    public static Tablebase open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            if (channel.read(header, 0) < HEADER_BYTES) {
+                throw new IOException("残局库文件过短: " + file);
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("不是有效的残局库文件: " + file);
+            }
+            int maxCards = header.getInt();
+            if (maxCards < 1 || maxCards > MAX_SUPPORTED_CARDS) {
+                throw new IOException("不支持的残局库张数: " + maxCards);
+            }
+            long size = size(maxCards);
+            if (channel.size() != HEADER_BYTES + size) {
+                throw new IOException("残局库文件大小不符: " + file);
+            }
+            // 映射在通道关闭后依然有效
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, size);
+            return new Tablebase(mapped, maxCards);
+        }
+    }
+
+    public int getMaxCards() {
+        return maxCards;
+    }
+
+    /** 残局库是否包含该局面：自由出牌且双方张数都在 1..maxCards 之间 */
+    public boolean covers(long hand, long opponent, int lastKey) {
+        int a = Long.bitCount(hand);
+        int b = Long.bitCount(opponent);
+        return lastKey == 0 && a >= 1 && a <= maxCards && b >= 1 && b <= maxCards && (hand & opponent) == 0L;
+    }
+
+    /** 自由出牌的一方是否必胜，调用前须确认 {@link #covers} */
+    public boolean isWin(long hand, long opponent) {
+        return (entry(hand, opponent) & WIN_FLAG) != 0;
+    }
+
+    /**
+     * 最佳出牌，调用前须确认 {@link #covers}
+     * @return 必胜的出牌位掩码；必败时返回 0
+     */
+    public long bestMove(long hand, long opponent) {
+        int entry = entry(hand, opponent);
+        if ((entry & WIN_FLAG) == 0) return 0L;
+        MoveList moves = new MoveList(8);
+        candidates(hand, moves);
+        return moves.cards(entry & MOVE_INDEX_MASK);
+    }
+
+    private int entry(long hand, long opponent) {
+        return data.get((int) index(blockOffsets, hand, opponent)) & 0xFF;
+    }
+
+    /* ---------- 下标与编码（生成器共用） ---------- */
+
+    /** 自由出牌时的候选列表，最佳出牌下标以此为准 */
+    static void candidates(long hand, MoveList out) {
+        MoveGenerator.generate(hand, 0, hand & MoveGenerator.DIAMOND_THREE, out);
+        out.sortByStrength();
+    }
+
+    static byte encode(boolean win, int moveIndex) {
+        return (byte) (win ? WIN_FLAG | (moveIndex & MOVE_INDEX_MASK) : 0);
+    }
+
+    /** 全部局面数 */
+    static long size(int maxCards) {
+        long[][] offsets = blockOffsets(maxCards);
+        return offsets[maxCards][maxCards] + blockSize(maxCards, maxCards);
+    }
+
+    static long[][] blockOffsets(int maxCards) {
+        long[][] offsets = new long[maxCards + 1][maxCards + 1];
+        long total = 0;
+        for (int a = 1; a <= maxCards; a++) {
+            for (int b = 1; b <= maxCards; b++) {
+                offsets[a][b] = total;
+                total += blockSize(a, b);
+            }
+        }
+        return offsets;
+    }
+
+    private static long blockSize(int a, int b) {
+        return BINOMIAL[52][a] * BINOMIAL[52 - a][b];
+    }
+
+    static long index(long[][] blockOffsets, long hand, long opponent) {
+        int a = Long.bitCount(hand);
+        int b = Long.bitCount(opponent);
+        long compressed = 0L; // 去掉出牌方手牌后对手手牌的位置
+        for (long m = opponent; m != 0L; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            compressed |= 1L << (id - Long.bitCount(hand & ((1L << id) - 1)));
+        }
+        return blockOffsets[a][b] + colexRank(hand) * BINOMIAL[52 - a][b] + colexRank(compressed);
+    }
+
+    /** 组合在 colex 顺序中的序号：第 i 小的元素位置为 c 时累加 C(c, i+1) */
+    private static long colexRank(long mask) {
+        long rank = 0;
+        int i = 1;
+        for (long m = mask; m != 0L; m &= m - 1, i++) {
+            rank += BINOMIAL[Long.numberOfTrailingZeros(m)][i];
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,142 @@
+package models;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 残局库离线生成器：枚举双方各持 1..maxCards 张牌、自由出牌的所有局面，
+ * 用 {@link EndgameSolver} 求出胜负和最佳出牌，写成 {@link Tablebase} 文件
+ *
+ * 按出牌方手牌把工作分给多个线程，各线程写入结果数组中互不重叠的位置，共用一张置换表。
+ *
+ * 用法：java models.TablebaseGenerator &lt;输出文件&gt; [maxCards=2] [线程数=CPU核数]
+ */
+public final class TablebaseGenerator {
+
+    private TablebaseGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("用法: TablebaseGenerator <输出文件> [maxCards=2] [线程数]");
+            System.exit(1);
+        }
+        File out = new File(args[0]);
+        int maxCards = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        generate(out, maxCards, threads);
+        System.out.printf("已生成 %s：%d 个局面，%d 线程，用时 %.1f 秒%n",
+                out, Tablebase.size(maxCards), threads, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * 生成残局库并写入文件：先写到同目录的临时文件再改名，生成中断时不会留下不完整的 out
+     * （应用首次启动时在后台生成小表也用这个方法）
+     */
+    public static void generate(File out, int maxCards, int threads) throws Exception {
+        byte[] entries = generate(maxCards, threads);
+        File tmp = new File(out.getPath() + ".tmp");
+        write(tmp, maxCards, entries);
+        if (!tmp.renameTo(out)) {
+            tmp.delete();
+            throw new IOException("无法写入残局库文件: " + out);
+        }
+    }
+
+    /**
+     * 生成全部局面的结果
+     * @return 按 {@link Tablebase} 下标排列的字节
+     */
+    public static byte[] generate(int maxCards, int threads) throws Exception {
+        if (maxCards < 1 || maxCards > Tablebase.MAX_SUPPORTED_CARDS) {
+            throw new IllegalArgumentException("maxCards 必须在 1-" + Tablebase.MAX_SUPPORTED_CARDS + " 之间");
+        }
+        byte[] entries = new byte[(int) Tablebase.size(maxCards)];
+        long[][] offsets = Tablebase.blockOffsets(maxCards);
+        // 两张以内的局面很少，小的置换表就够用，在手机上生成时不占太多内存
+        long tableBytes = maxCards <= 2 ? 8L << 20 : 64L << 20;
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(tableBytes), null);
+
+        // 按出牌方手牌划分任务
+        List<Long> hands = new ArrayList<>();
+        for (int a = 1; a <= maxCards; a++) {
+            for (long hand = (1L << a) - 1; hand < 1L << 52; hand = nextCombination(hand)) {
+                hands.add(hand);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long hand : hands) {
+                futures.add(executor.submit(() -> solveHand(solver, hand, maxCards, offsets, entries)));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return entries;
+    }
+
+    /** 求解出牌方持有 hand 时对手的所有可能手牌 */
+    private static void solveHand(EndgameSolver solver, long hand, int maxCards,
+                                  long[][] offsets, byte[] entries) {
+        MoveList moves = new MoveList(8);
+        Tablebase.candidates(hand, moves);
+        long rest = CardSet.FULL_MASK & ~hand;
+        for (int b = 1; b <= maxCards; b++) {
+            for (long pick = (1L << b) - 1; pick < 1L << Long.bitCount(rest); pick = nextCombination(pick)) {
+                long opponent = expand(rest, pick);
+                int index = (int) Tablebase.index(offsets, hand, opponent);
+                boolean win = solver.isWin(hand, opponent, 0);
+                int moveIndex = 0;
+                if (win) {
+                    long best = solver.bestMove(hand, opponent, 0);
+                    while (moves.cards(moveIndex) != best) moveIndex++;
+                }
+                entries[index] = Tablebase.encode(win, moveIndex);
+            }
+        }
+    }
+
+    private static void write(File out, int maxCards, byte[] entries) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(out, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            header.putInt(Tablebase.MAGIC).putInt(Tablebase.VERSION).putInt(maxCards).flip();
+            while (header.hasRemaining()) channel.write(header);
+            ByteBuffer body = ByteBuffer.wrap(entries);
+            while (body.hasRemaining()) channel.write(body);
+        }
+    }
+
+    /** 把 pick 的第 i 位映射为 pool 中第 i 个为 1 的位 */
+    private static long expand(long pool, long pick) {
+        long result = 0L;
+        for (long p = pool; pick != 0L; p &= p - 1, pick >>>= 1) {
+            if ((pick & 1L) != 0L) result |= Long.lowestOneBit(p);
+        }
+        return result;
+    }
+
+    /** 同样多个 1 的下一个更大的数（Gosper's hack） */
+    private static long nextCombination(long x) {
+        long c = x & -x;
+        long r = x + c;
+        return (((r ^ x) >>> 2) / c) | r;
+    }
+}
@@ -0,0 +1,123 @@
+package models;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 训练样本的二进制写入器：每条记录定长，经直接内存缓冲区批量写入 FileChannel，文件超过大小上限时换下一个文件
+ *
+ * 文件名为 前缀-编号.bin（编号从 0 开始，5 位），文件头 16 字节：魔数 "B2SP"（按这个顺序的 4 个 ASCII 字节）、
+ * 版本、特征个数、记录字节数（各一个小端 int）。
+ * 记录（{@link #RECORD_BYTES} 字节）：{@link PositionFeatures#COUNT} 个 float 特征、打出的牌的位掩码（long，pass 为 0）、
+ * 到对局结束还有几次决策（short）、结果（byte，1 赢 0 输）、座位数（byte）。除魔数外全部小端，便于训练端直接按数组读取。
+ *
+ * 写入不分配对象。非线程安全，每个线程各用一个实例（文件前缀不同）。
+ */
+public final class TrainingDataWriter implements Closeable {
+
+    static final int MAGIC = 0x42325350; // "B2SP"，按大端写入
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    public static final int RECORD_BYTES = PositionFeatures.COUNT * 4 + 8 + 2 + 1 + 1;
+
+    /** 默认的单个文件大小上限 */
+    public static final long DEFAULT_MAX_FILE_BYTES = 256L << 20;
+
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final File directory;
+    private final String prefix;
+    private final long maxFileBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * BUFFER_RECORDS)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+    private FileChannel channel;
+    private long fileBytes;
+    private int fileIndex;
+    private long records;
+
+    /**
+     * @param directory 输出目录，不存在时创建
+     * @param prefix 文件名前缀
+     * @param maxFileBytes 单个文件的大小上限，至少能放下文件头和一条记录
+     */
+    public TrainingDataWriter(File directory, String prefix, long maxFileBytes) throws IOException {
+        if (maxFileBytes < HEADER_BYTES + RECORD_BYTES) {
+            throw new IllegalArgumentException("文件大小上限过小: " + maxFileBytes);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("无法创建输出目录: " + directory);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.maxFileBytes = maxFileBytes;
+        openNext();
+    }
+
+    /**
+     * 写一条记录
+     * @param features 从 offset 开始的 {@link PositionFeatures#COUNT} 个为特征
+     * @param move 打出的牌，pass 为 0
+     * @param remaining 到对局结束还有几次决策
+     * @param won 该座位最终是否获胜
+     * @param seats 座位数
+     */
+    public void write(float[] features, int offset, long move, int remaining, boolean won, int seats)
+            throws IOException {
+        if (fileBytes + RECORD_BYTES > maxFileBytes) {
+            flush();
+            channel.close();
+            openNext();
+        }
+        if (buffer.remaining() < RECORD_BYTES) flush();
+        for (int i = 0; i < PositionFeatures.COUNT; i++) buffer.putFloat(features[offset + i]);
+        buffer.putLong(move);
+        buffer.putShort((short) Math.min(remaining, Short.MAX_VALUE));
+        buffer.put(won ? (byte) 1 : (byte) 0);
+        buffer.put((byte) seats);
+        fileBytes += RECORD_BYTES;
+        records++;
+    }
+
+    /** 已写入的记录数（包括还在缓冲区中的） */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /** 已打开过的文件数 */
+    public int getFileCount() {
+        return fileIndex;
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        try {
+            flush();
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void openNext() throws IOException {
+        File file = new File(directory, String.format("%s-%05d.bin", prefix, fileIndex++));
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(Integer.reverseBytes(MAGIC)); // 缓冲区是小端，反转后文件中依次是 'B' '2' 'S' 'P'
+        buffer.putInt(VERSION).putInt(PositionFeatures.COUNT).putInt(RECORD_BYTES);
+        fileBytes = HEADER_BYTES;
+    }
+}
@@ -0,0 +1,177 @@
+package models;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定大小的置换表，存放在堆外的 direct ByteBuffer 中，所有搜索线程共享、无锁访问
+ *
+ * 每个条目 16 字节：哈希值与数据的异或、数据本身。读取时用「存储值 ^ 数据 == 哈希值」校验，
+ * 两个 long 被不同线程交错写坏时校验失败，当作未命中处理，因此不需要加锁（lockless hashing）。
+ * 数据打包为：出牌位掩码（低 52 位）| 界类型（2 位）| 值（4 位，有符号 -8..7）| 深度（6 位）。
+ *
+ * 两个条目组成一个桶：第一个按深度保留（新条目深度不低于它时才替换），第二个总是替换。
+ * 命中率、写入次数、占用率由 LongAdder 统计，用来按内存预算确定表的大小。
+ */
+public final class TranspositionTable {
+
+    /** 界类型：0 表示空条目 */
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    public static final int MIN_VALUE = -8;
+    public static final int MAX_VALUE = 7;
+    public static final int MAX_DEPTH = 63;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_BYTES = 2 * ENTRY_BYTES;
+    private static final long MOVE_MASK = CardSet.FULL_MASK;
+
+    private final ByteBuffer buffer;
+    private final int bucketMask;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder occupied = new LongAdder();
+
+    /**
+     * @param budgetBytes 内存预算（字节），实际大小为不超过预算的 2 的幂，至少 1 KB
+     */
+    public TranspositionTable(long budgetBytes) {
+        long buckets = Long.highestOneBit(Math.max(budgetBytes, 1024) / BUCKET_BYTES);
+        if (buckets * BUCKET_BYTES > Integer.MAX_VALUE) {
+            buckets = Integer.highestOneBit(Integer.MAX_VALUE / BUCKET_BYTES);
+        }
+        this.bucketMask = (int) buckets - 1;
+        this.buffer = ByteBuffer.allocateDirect((int) buckets * BUCKET_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /* ---------- 数据打包 ---------- */
+
+    public static long pack(long move, int value, int depth, int bound) {
+        return (move & MOVE_MASK)
+                | (long) (bound & 3) << 52
+                | (long) (value & 0xF) << 54
+                | (long) Math.min(depth, MAX_DEPTH) << 58;
+    }
+
+    public static long moveOf(long data) {
+        return data & MOVE_MASK;
+    }
+
+    public static int boundOf(long data) {
+        return (int) (data >>> 52) & 3;
+    }
+
+    public static int valueOf(long data) {
+        return (int) (data << 6 >> 60); // 符号扩展 4 位
+    }
+
+    public static int depthOf(long data) {
+        return (int) (data >>> 58);
+    }
+
+    /* ---------- 读写 ---------- */
+
+    /**
+     * 查找局面
+     * @return 打包的数据，未命中时返回 0
+     */
+    public long probe(long hash) {
+        probes.increment();
+        int base = bucketOffset(hash);
+        for (int e = 0; e < 2; e++) {
+            int offset = base + e * ENTRY_BYTES;
+            long data = buffer.getLong(offset + 8);
+            if (data != 0L && (buffer.getLong(offset) ^ data) == hash) {
+                hits.increment();
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * 写入局面
+     * @param move 最佳出牌的位掩码（pass 为 0）
+     * @param value 值，范围 {@link #MIN_VALUE}..{@link #MAX_VALUE}
+     * @param depth 深度，越大表示该结果越有价值
+     * @param bound 界类型
+     */
+    public void store(long hash, long move, int value, int depth, int bound) {
+        if (bound < EXACT || bound > UPPER_BOUND) {
+            throw new IllegalArgumentException("Invalid bound: " + bound);
+        }
+        long data = pack(move, value, depth, bound);
+        int base = bucketOffset(hash);
+
+        // 第一个条目为空、是同一局面或深度不高于新条目时写入第一个，否则写入总是替换的第二个
+        long first = buffer.getLong(base + 8);
+        int target = first == 0L || (buffer.getLong(base) ^ first) == hash || depthOf(data) >= depthOf(first)
+                ? base : base + ENTRY_BYTES;
+
+        if (buffer.getLong(target + 8) == 0L) occupied.increment();
+        buffer.putLong(target, hash ^ data);
+        buffer.putLong(target + 8, data);
+        stores.increment();
+    }
+
+    /** 清空表和统计 */
+    public void clear() {
+        for (int i = 0; i < buffer.capacity(); i += 8) {
+            buffer.putLong(i, 0L);
+        }
+        probes.reset();
+        hits.reset();
+        stores.reset();
+        occupied.reset();
+    }
+
+    private int bucketOffset(long hash) {
+        return ((int) (hash ^ (hash >>> 32)) & bucketMask) * BUCKET_BYTES;
+    }
+
+    /* ---------- 统计 ---------- */
+
+    /** 条目总数 */
+    public int capacity() {
+        return (bucketMask + 1) * 2;
+    }
+
+    /** 占用的堆外内存（字节） */
+    public long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /** 命中率 */
+    public double hitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0 : (double) hits.sum() / p;
+    }
+
+    /** 占用率（并发写入时为近似值） */
+    public double occupancy() {
+        return Math.min(1.0, (double) occupied.sum() / capacity());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranspositionTable[%d KB, hit %.1f%%, occupancy %.1f%%]",
+                sizeBytes() / 1024, hitRate() * 100, occupancy() * 100);
+    }
+}
@@ -0,0 +1,95 @@
+package models;
+
+/**
+ * 对局状态的 Zobrist 哈希键：每个座位每张牌一个随机键、需要压过的牌型一个键、轮到谁出牌一个键，
+ * 局面的哈希值是这些键的异或
+ *
+ * 出牌时只需异或掉打出的牌、新旧牌型键和新旧出牌座位键，就能增量得到新局面的哈希值，
+ * 不必重新扫描整副手牌。所有键由固定种子生成，不同进程、不同线程之间保持一致。
+ */
+public final class Zobrist {
+
+    private static final long[][] CARD_KEYS = new long[Playout.MAX_SEATS][52];
+    private static final long[] TO_MOVE_KEYS = new long[Playout.MAX_SEATS];
+    private static final long LAST_PATTERN_SALT;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    static {
+        long state = 0x2B_B16_2EL; // SplitMix64 序列
+        for (int seat = 0; seat < Playout.MAX_SEATS; seat++) {
+            for (int id = 0; id < 52; id++) {
+                CARD_KEYS[seat][id] = mix(state += GOLDEN_GAMMA);
+            }
+        }
+        for (int seat = 0; seat < Playout.MAX_SEATS; seat++) {
+            TO_MOVE_KEYS[seat] = mix(state += GOLDEN_GAMMA);
+        }
+        LAST_PATTERN_SALT = mix(state + GOLDEN_GAMMA);
+    }
+
+    private Zobrist() {
+    }
+
+    /** 某座位持有某张牌的键 */
+    public static long card(int seat, int id) {
+        return CARD_KEYS[seat][id];
+    }
+
+    /** 某座位持有一组牌的键（各张牌键的异或） */
+    public static long cards(int seat, long mask) {
+        long[] keys = CARD_KEYS[seat];
+        long h = 0L;
+        for (long m = mask; m != 0L; m &= m - 1) {
+            h ^= keys[Long.numberOfTrailingZeros(m)];
+        }
+        return h;
+    }
+
+    /** 需要压过的牌型的键，自由出牌（强度键为 0）时为 0 */
+    public static long lastPattern(int strengthKey) {
+        return strengthKey == 0 ? 0L : mix(LAST_PATTERN_SALT + strengthKey * GOLDEN_GAMMA);
+    }
+
+    /** 轮到某座位出牌的键 */
+    public static long toMove(int seat) {
+        return TO_MOVE_KEYS[seat];
+    }
+
+    /**
+     * 完整计算一个局面的哈希值
+     * @param hands 各座位手牌
+     * @param seats 座位数
+     * @param toMove 轮到出牌的座位
+     * @param lastKey 需要压过的强度键，0 表示自由出牌
+     */
+    public static long hash(long[] hands, int seats, int toMove, int lastKey) {
+        long h = toMove(toMove) ^ lastPattern(lastKey);
+        for (int seat = 0; seat < seats; seat++) {
+            h ^= cards(seat, hands[seat]);
+        }
+        return h;
+    }
+
+    /**
+     * 增量更新：seat 打出 move（强度键 key）之后轮到 next，返回新局面的哈希值
+     * @param hash 出牌前的哈希值
+     * @param oldLastKey 出牌前需要压过的强度键
+     */
+    public static long afterPlay(long hash, int seat, long move, int oldLastKey, int key, int next) {
+        return hash ^ cards(seat, move) ^ lastPattern(oldLastKey) ^ lastPattern(key)
+                ^ toMove(seat) ^ toMove(next);
+    }
+
+    /**
+     * 增量更新：seat pass 之后轮到 next，newLastKey 为此后需要压过的强度键（一轮结束时为 0）
+     */
+    public static long afterPass(long hash, int seat, int oldLastKey, int newLastKey, int next) {
+        return hash ^ lastPattern(oldLastKey) ^ lastPattern(newLastKey) ^ toMove(seat) ^ toMove(next);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
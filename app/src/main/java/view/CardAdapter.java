@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import models.Card;
+import models.CardSet;
 import util.AppExecutors;
 
 /**
@@ -24,6 +25,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardAdapter.CardViewHolder
 
     private final List<Card> cards;
     private final OnCardClickListener listener;
+    private volatile CardSet selectedCards = CardSet.EMPTY; // 选中状态由 Player 记录，这里只保存快照
 
     /**
      * 卡片点击监听器接口
@@ -48,6 +50,16 @@ public class CardAdapter extends RecyclerView.Adapter<CardAdapter.CardViewHolder
      * @param newCards 新的卡牌列表
      */
     public void updateCards(List<Card> newCards) {
+        updateCards(newCards, CardSet.EMPTY);
+    }
+
+    /**
+     * 更新卡牌列表及选中状态
+     * @param newCards 新的卡牌列表
+     * @param selected 被选中的牌
+     */
+    public void updateCards(List<Card> newCards, CardSet selected) {
+        this.selectedCards = selected != null ? selected : CardSet.EMPTY;
         if (newCards == null) {
             this.cards.clear();
         } else {
@@ -159,7 +171,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardAdapter.CardViewHolder
      * @param card Card
      */
     private void updateCardStyle(CardViewHolder holder, Card card) {
-        boolean isSelected = card.isSelected();
+        boolean isSelected = selectedCards.contains(card);
         if (isSelected) {
             holder.cardView.setCardBackgroundColor(Color.parseColor("#BBDEFB")); // 浅蓝色背景
             holder.cardView.setElevation(16f); // 增加阴影
@@ -30,7 +30,6 @@ import models.CardPattern;
 import models.Game;
 import models.NetworkManager;
 import models.Player;
-import models.AIStrategy;
 import models.AdvancedAIStrategy;
 import models.SmartAIStrategy;
 import util.AppExecutors;
@@ -257,8 +256,12 @@ public class GameActivity extends AppCompatActivity implements GameView, Network
         int aiCount = getIntent().getIntExtra("ai_count", 2);
         boolean advancedAI = getIntent().getBooleanExtra("advanced_ai", false);
 
-        AIStrategy aiStrategy = advancedAI ? new AdvancedAIStrategy() : new SmartAIStrategy();
-        gameController.createSinglePlayerGame(playerName, aiCount, aiStrategy);
+        if (advancedAI) {
+            // 高级难度：每个AI各用一个策略实例，在别人的回合预先思考
+            gameController.createSinglePlayerGame(playerName, aiCount, AdvancedAIStrategy::new, true);
+        } else {
+            gameController.createSinglePlayerGame(playerName, aiCount, new SmartAIStrategy());
+        }
         gameController.startGame();
 
         Game game = gameController.getGame();
@@ -409,7 +412,7 @@ public class GameActivity extends AppCompatActivity implements GameView, Network
         if (!player.isHuman())
             return;
 
-        AppExecutors.getInstance().main().execute(() -> cardAdapter.updateCards(player.getHand()));
+        AppExecutors.getInstance().main().execute(() -> cardAdapter.updateCards(player.getHand(), player.getSelectedSet()));
     }
 
     @Override
@@ -2,22 +2,40 @@ package view;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 
 import androidx.appcompat.app.AppCompatActivity;
 import com.bigtwo.game.R;
 
+import java.io.File;
+
+import models.AIPlayer;
+import models.Tablebase;
+import models.TablebaseGenerator;
+import util.AppExecutors;
+
 /**
  * 主活动，作为应用的入口点，显示主菜单
  */
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+    private static final String TABLEBASE_FILE = "endgame.tb";
+    /** 首次启动时在后台生成的残局库张数：两张以内约 1.7 MB，生成只需几秒 */
+    private static final int TABLEBASE_CARDS = 2;
+    private static final int TABLEBASE_THREADS = 2;
+
+    private static boolean tablebaseRequested; // 只在主线程读写，进程内只加载（或生成）一次
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        loadTablebase();
+
         // 单人游戏按钮
         Button btnSinglePlayer = findViewById(R.id.btn_single_player);
         btnSinglePlayer.setOnClickListener(new View.OnClickListener() {
@@ -59,4 +77,23 @@ public class MainActivity extends AppCompatActivity {
             }
         });
     }
-} 
\ No newline at end of file
+
+    /**
+     * 在后台映射残局库并交给AI的残局求解使用；文件还不存在时（首次启动）先生成小的残局库
+     */
+    private void loadTablebase() {
+        if (tablebaseRequested) return;
+        tablebaseRequested = true;
+        File file = new File(getFilesDir(), TABLEBASE_FILE);
+        AppExecutors.getInstance().io().execute(() -> {
+            try {
+                if (!file.exists()) {
+                    TablebaseGenerator.generate(file, TABLEBASE_CARDS, TABLEBASE_THREADS);
+                }
+                AIPlayer.setTablebase(Tablebase.open(file));
+            } catch (Exception e) {
+                Log.w(TAG, "无法加载残局库: " + file, e);
+            }
+        });
+    }
+}
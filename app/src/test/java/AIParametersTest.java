@@ -0,0 +1,147 @@
+import models.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 策略参数测试 - 默认参数等于提取之前写死的阈值，参数在保存、读取和向量转换之后不变，
+ * 默认参数（包括读回的）下的决策与默认构造的策略相同，而改动参数确实会改变决策
+ */
+public class AIParametersTest {
+
+    public static void main(String[] args) throws IOException {
+        testDefaultsMatchOldThresholds();
+        testRoundTrip();
+        testDecisions();
+    }
+
+    /**
+     * 提取之前写死的阈值：下家 1 张时封锁；对手不超过 2 张时用炸弹，否则炸完一手出完、或两手出完且有控制牌时用；
+     * 对手不超过 3 张或自己两手之内出完时激进出牌
+     */
+    private static void testDefaultsMatchOldThresholds() {
+        System.out.println("=== 测试默认参数等于原来的阈值 ===");
+
+        AIParameters p = AIParameters.DEFAULT;
+        int[][] expected = {
+                {AIParameters.BLOCK_NEXT_CARDS, 1},
+                {AIParameters.BOMB_OPPONENT_CARDS, 2},
+                {AIParameters.BOMB_MAX_PLAYS, 1},
+                {AIParameters.BOMB_CONTROL_PLAYS, 2},
+                {AIParameters.BOMB_MIN_CONTROLS, 1},
+                {AIParameters.AGGRESSIVE_OPPONENT_CARDS, 3},
+                {AIParameters.AGGRESSIVE_MAX_PLAYS, 2},
+        };
+        for (int[] e : expected) {
+            if (p.get(e[0]) != e[1]) {
+                throw new AssertionError("默认参数不等于原来的阈值: " + AIParameters.name(e[0]) + "=" + p.get(e[0]));
+            }
+        }
+
+        // 用炸弹的条件改写成了三个参数，默认值下与原来的写法等价
+        for (int plays = 0; plays <= 13; plays++) {
+            for (int controls = 0; controls <= 8; controls++) {
+                boolean old = plays <= 1 || (plays == 2 && controls > 0);
+                boolean now = plays <= p.get(AIParameters.BOMB_MAX_PLAYS)
+                        || (plays <= p.get(AIParameters.BOMB_CONTROL_PLAYS)
+                            && controls >= p.get(AIParameters.BOMB_MIN_CONTROLS));
+                if (old != now) {
+                    throw new AssertionError("用炸弹的条件不等价: 手数=" + plays + " 控制牌=" + controls);
+                }
+            }
+        }
+
+        System.out.println("默认参数测试完成\n");
+    }
+
+    private static void testRoundTrip() throws IOException {
+        System.out.println("=== 测试参数保存和读取 ===");
+
+        Random random = new Random(20);
+        File file = File.createTempFile("ai-parameters", ".properties");
+        try {
+            for (int i = 0; i < 200; i++) {
+                int[] values = new int[AIParameters.size()];
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = AIParameters.min(k) + random.nextInt(AIParameters.max(k) - AIParameters.min(k) + 1);
+                }
+                AIParameters parameters = i == 0 ? AIParameters.DEFAULT : new AIParameters(values);
+                parameters.save(file);
+                AIParameters loaded = AIParameters.load(file);
+                AIParameters converted = AIParameters.fromVector(parameters.toVector());
+                if (!parameters.equals(loaded) || !parameters.equals(converted)) {
+                    throw new AssertionError("参数转换后不一致: " + parameters + " 读回=" + loaded + " 向量=" + converted);
+                }
+            }
+        } finally {
+            file.delete();
+        }
+
+        System.out.println("参数保存测试完成\n");
+    }
+
+    /**
+     * 随机局面（自由出牌或需要压过对手的牌型）：默认构造、显式默认参数、读回的默认参数三者决策相同；
+     * 把阈值都调到最大后至少有一部分决策改变，说明参数确实被用到
+     */
+    private static void testDecisions() throws IOException {
+        System.out.println("=== 测试默认参数下决策不变 ===");
+
+        File file = File.createTempFile("ai-parameters", ".properties");
+        AIParameters loaded;
+        try {
+            AIParameters.DEFAULT.save(file);
+            loaded = AIParameters.load(file);
+        } finally {
+            file.delete();
+        }
+        int[] maxed = new int[AIParameters.size()];
+        for (int k = 0; k < maxed.length; k++) maxed[k] = AIParameters.max(k);
+
+        AdvancedAIStrategy baseline = new AdvancedAIStrategy();
+        AdvancedAIStrategy explicit = new AdvancedAIStrategy(AIParameters.DEFAULT);
+        AdvancedAIStrategy reloaded = new AdvancedAIStrategy(loaded);
+        AdvancedAIStrategy changed = new AdvancedAIStrategy(new AIParameters(maxed));
+        MoveList moves = new MoveList();
+        Random random = new Random(22);
+        int positions = 200_000;
+        int differing = 0;
+        for (int i = 0; i < positions; i++) {
+            long hand = draw(random, CardSet.FULL_MASK, 1 + random.nextInt(13));
+            long others = CardSet.FULL_MASK & ~hand;
+            CardPattern lastPattern = null;
+            if (random.nextBoolean()) {
+                MoveGenerator.generate(draw(random, others, 13), moves);
+                lastPattern = moves.toPattern(random.nextInt(moves.size()));
+            }
+            List<Integer> othersCount = new ArrayList<>();
+            for (int p = 0; p < 3; p++) othersCount.add(1 + random.nextInt(13));
+            DecisionContext context = new DecisionContext(CardSet.ofBits(hand), lastPattern, othersCount,
+                    CardSet.ofBits(draw(random, others, random.nextInt(20))));
+
+            CardSet expected = CardSet.of(baseline.makeMove(context));
+            if (!expected.equals(CardSet.of(explicit.makeMove(context)))
+                    || !expected.equals(CardSet.of(reloaded.makeMove(context)))) {
+                throw new AssertionError("默认参数下决策不一致: 手牌=" + CardSet.ofBits(hand) + " 需要压过=" + lastPattern);
+            }
+            if (!expected.equals(CardSet.of(changed.makeMove(context)))) differing++;
+        }
+
+        System.out.println("局面数: " + positions + ", 阈值调到最大后决策改变: " + differing);
+        if (differing == 0) {
+            throw new AssertionError("改动参数后决策没有任何变化");
+        }
+        System.out.println("决策测试完成\n");
+    }
+
+    private static long draw(Random random, long deck, int count) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < count) {
+            long card = 1L << random.nextInt(52);
+            if ((deck & card) != 0L) mask |= card;
+        }
+        return mask;
+    }
+}
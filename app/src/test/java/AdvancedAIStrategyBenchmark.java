@@ -0,0 +1,72 @@
+import models.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 高级AI单次决策的耗时与分配基准：随机生成手牌和需要压过的牌型，
+ * 预热后统计每次决策的平均纳秒数和分配字节数
+ */
+public class AdvancedAIStrategyBenchmark {
+
+    private static final int POSITIONS = 4096;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+
+        Random random = new Random(17);
+        long[] hands = new long[POSITIONS];
+        CardPattern[] lasts = new CardPattern[POSITIONS];
+        List<List<Integer>> others = new ArrayList<>(POSITIONS);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < POSITIONS; i++) {
+            hands[i] = randomMask(random, 5 + random.nextInt(9));
+            if (random.nextInt(4) != 0) { // 四分之三为跟牌
+                MoveGenerator.generate(CardSet.FULL_MASK & ~hands[i], moves);
+                lasts[i] = moves.toPattern(random.nextInt(moves.size()));
+            }
+            others.add(Arrays.asList(1 + random.nextInt(13), 1 + random.nextInt(13), 1 + random.nextInt(13)));
+        }
+
+        AIStrategy strategy = new AdvancedAIStrategy();
+        int sink = 0;
+        for (int round = 0; round < 20; round++) { // 预热，让 JIT 编译完成
+            sink += run(strategy, hands, lasts, others);
+        }
+
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = bean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            sink += run(strategy, hands, lasts, others);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = bean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long decisions = (long) rounds * POSITIONS;
+        System.out.println("=== 高级AI决策基准 ===");
+        System.out.println("决策次数: " + decisions + " (校验值 " + sink + ")");
+        System.out.printf("平均耗时: %.0f ns/次%n", (double) elapsed / decisions);
+        System.out.printf("平均分配: %.0f 字节/次%n", (double) allocated / decisions);
+    }
+
+    private static int run(AIStrategy strategy, long[] hands, CardPattern[] lasts, List<List<Integer>> others) {
+        int played = 0;
+        for (int i = 0; i < hands.length; i++) {
+            played += strategy.makeMove(CardSet.ofBits(hands[i]), lasts[i], others.get(i)).size();
+        }
+        return played;
+    }
+
+    private static long randomMask(Random random, int size) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < size) {
+            mask |= 1L << random.nextInt(52);
+        }
+        return mask;
+    }
+}
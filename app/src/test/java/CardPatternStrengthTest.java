@@ -0,0 +1,106 @@
+import models.*;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 强度键测试 - 从所有合法的单张、对子、五张牌型中随机抽取成对的牌型，
+ * 强度键比较和 canBeat 的结果都与逐条写出的出牌规则一致
+ */
+public class CardPatternStrengthTest {
+
+    public static void main(String[] args) {
+        testAgainstRules();
+    }
+
+    private static void testAgainstRules() {
+        System.out.println("=== 测试强度键与出牌规则一致 ===");
+
+        int[] codes = allPatternCodes();
+        CardPattern[] patterns = new CardPattern[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            patterns[i] = new CardPattern(PatternCode.typeOf(codes[i]), null,
+                    Card.byId(PatternCode.highestIdOf(codes[i])));
+        }
+
+        Random random = new Random(5);
+        int pairs = 3_000_000;
+        int beats = 0;
+        for (int i = 0; i < pairs; i++) {
+            int a = random.nextInt(codes.length);
+            int b = random.nextInt(codes.length);
+            boolean expected = referenceBeats(codes[a], codes[b]);
+            boolean byKey = CardPattern.beats(patterns[a].getStrengthKey(), patterns[b].getStrengthKey());
+            boolean byPattern = patterns[a].canBeat(patterns[b]);
+            if (byKey != expected || byPattern != expected) {
+                throw new AssertionError("比较结果不一致: " + describe(codes[a]) + " 对 " + describe(codes[b])
+                        + " 规则=" + expected + " 强度键=" + byKey + " canBeat=" + byPattern);
+            }
+            if (expected) beats++;
+        }
+
+        System.out.println("合法牌型数: " + codes.length + ", 比较次数: " + pairs + ", 其中能压过: " + beats);
+        System.out.println("强度键测试完成\n");
+    }
+
+    /** 枚举所有 1、2、5 张的子集，保留合法牌型的编码 */
+    private static int[] allPatternCodes() {
+        int[] codes = new int[16];
+        int count = 0;
+        for (int size : new int[] {1, 2, 5}) {
+            for (long mask = (1L << size) - 1; mask < 1L << 52; mask = nextSubset(mask)) {
+                int code = HistogramPatternValidator.classify(mask);
+                if (!PatternCode.isValid(code)) continue;
+                if (count == codes.length) codes = Arrays.copyOf(codes, count * 2);
+                codes[count++] = code;
+            }
+        }
+        return Arrays.copyOf(codes, count);
+    }
+
+    /** 位数相同的下一个更大的掩码（Gosper's hack） */
+    private static long nextSubset(long mask) {
+        long low = mask & -mask;
+        long ripple = mask + low;
+        return ripple | ((mask ^ ripple) >>> 2) / low;
+    }
+
+    /**
+     * 逐条写出的出牌规则：
+     * 单张、对子、顺子只压同类，先比最大牌点数再比花色；同花压顺子，同花之间先比花色再比点数；
+     * 三带二压顺子、同花，之间比点数；炸弹压同花顺以外的任何牌型，之间比点数；
+     * 同花顺压任何其他牌型，之间先比花色再比点数
+     */
+    private static boolean referenceBeats(int code, int otherCode) {
+        int type = PatternCode.typeOf(code);
+        int other = PatternCode.typeOf(otherCode);
+        int rank = PatternCode.highestIdOf(code) >>> 2;
+        int suit = PatternCode.highestIdOf(code) & 3;
+        int otherRank = PatternCode.highestIdOf(otherCode) >>> 2;
+        int otherSuit = PatternCode.highestIdOf(otherCode) & 3;
+        boolean rankThenSuit = rank > otherRank || rank == otherRank && suit > otherSuit;
+        boolean suitThenRank = suit > otherSuit || suit == otherSuit && rank > otherRank;
+
+        switch (type) {
+            case CardPattern.SINGLE:
+            case CardPattern.PAIR:
+            case CardPattern.STRAIGHT:
+                return other == type && rankThenSuit;
+            case CardPattern.FLUSH:
+                return other == CardPattern.STRAIGHT || other == CardPattern.FLUSH && suitThenRank;
+            case CardPattern.THREE_WITH_PAIR:
+                return other == CardPattern.STRAIGHT || other == CardPattern.FLUSH
+                        || other == CardPattern.THREE_WITH_PAIR && rank > otherRank;
+            case CardPattern.BOMB:
+                return other != CardPattern.FLUSH_STRAIGHT && (other != CardPattern.BOMB || rank > otherRank);
+            case CardPattern.FLUSH_STRAIGHT:
+                return other != CardPattern.FLUSH_STRAIGHT || suitThenRank;
+            default:
+                throw new IllegalArgumentException("无效牌型: " + type);
+        }
+    }
+
+    private static String describe(int code) {
+        return CardPattern.getPatternTypeDisplayName(PatternCode.typeOf(code))
+                + "(" + Card.byId(PatternCode.highestIdOf(code)) + ")";
+    }
+}
@@ -0,0 +1,190 @@
+import models.*;
+import java.util.Random;
+
+/**
+ * 控制牌分析测试 - 大牌判断与穷举一致，找到的必胜出牌顺序合法并经残局求解器确认必胜，并统计每次查找的耗时
+ */
+public class ControlAnalyzerTest {
+
+    private static final long DIAMOND_THREE = MoveGenerator.DIAMOND_THREE;
+
+    public static void main(String[] args) {
+        testBossAgainstExhaustiveSearch();
+        testSequencesAreWins();
+        testTiming();
+    }
+
+    /**
+     * 看不到的牌较少时枚举对手所有可能打出的单张、对子、五张：
+     * 判为大牌的出牌不能被任何一手压过，没被判为大牌的出牌一定能被某一手压过
+     */
+    private static void testBossAgainstExhaustiveSearch() {
+        System.out.println("=== 测试大牌判断与穷举一致 ===");
+
+        ControlAnalyzer analyzer = new ControlAnalyzer();
+        MoveList moves = new MoveList();
+        Random random = new Random(23);
+        int checked = 0;
+        int bosses = 0;
+        for (int i = 0; i < 300; i++) {
+            long hand = draw(random, (1L << 52) - 1, 5 + random.nextInt(9));
+            long unseen = draw(random, ~hand & ((1L << 52) - 1), 1 + random.nextInt(12));
+            int maxOpponentCards = 1 + random.nextInt(13);
+            analyzer.reset(unseen, maxOpponentCards);
+
+            MoveGenerator.generate(hand, moves);
+            for (int m = 0; m < moves.size(); m++) {
+                int key = moves.key(m);
+                boolean beatable = canBeBeaten(unseen, Math.min(maxOpponentCards, Long.bitCount(unseen)), key);
+                if (analyzer.isBoss(key) == beatable) {
+                    throw new AssertionError("大牌判断错误: 出牌=" + CardSet.ofBits(moves.cards(m)) + " 看不到的牌="
+                            + CardSet.ofBits(unseen) + " 对手张数=" + maxOpponentCards + " 能被压过=" + beatable);
+                }
+                if (!beatable) bosses++;
+                checked++;
+            }
+        }
+
+        System.out.println("检查出牌数: " + checked + ", 其中大牌: " + bosses);
+        System.out.println("大牌判断测试完成\n");
+    }
+
+    /**
+     * 两人残局中把对手的手牌作为看不到的牌：找到的出牌顺序必须拆完手牌、除最后一手外都是大牌、
+     * 第一手压过需要压的牌型、每次自由出牌时持有方块3就带上它，并且残局求解器判定该局面必胜。
+     * 自由出牌和需要压过牌型的局面各占一半
+     */
+    private static void testSequencesAreWins() {
+        System.out.println("=== 测试必胜出牌顺序 ===");
+
+        ControlAnalyzer analyzer = new ControlAnalyzer();
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(4L << 20), null);
+        MoveList sequence = new MoveList();
+        Random random = new Random(29);
+        int positions = 20000;
+        int[] found = new int[2];
+        for (int i = 0; i < positions; i++) {
+            long deck = (1L << 52) - 1;
+            long hand = draw(random, deck, 1 + random.nextInt(8));
+            deck &= ~hand;
+            long opponent = draw(random, deck, 1 + random.nextInt(8));
+            deck &= ~opponent;
+            int lastKey = i % 2 == 0 ? 0 : randomPatternKey(random, deck);
+
+            analyzer.reset(opponent, Long.bitCount(opponent));
+            if (!analyzer.findWinningSequence(hand, lastKey, sequence)) continue;
+            found[i % 2]++;
+            checkSequence(analyzer, hand, lastKey, sequence);
+            if (!solver.isWin(hand, opponent, lastKey)) {
+                throw new AssertionError("必胜出牌顺序经求解器判定为必败: 手牌=" + CardSet.ofBits(hand)
+                        + " 对手=" + CardSet.ofBits(opponent) + " 需要压过=" + lastKey);
+            }
+        }
+
+        System.out.println("局面数: " + positions + ", 找到必胜顺序: 自由出牌 " + found[0] + ", 需要压牌 " + found[1]);
+        if (found[0] == 0 || found[1] == 0) {
+            throw new AssertionError("两类局面都应当找到必胜顺序");
+        }
+        System.out.println("必胜出牌顺序测试完成\n");
+    }
+
+    private static void checkSequence(ControlAnalyzer analyzer, long hand, int lastKey, MoveList sequence) {
+        long covered = 0L;
+        for (int i = 0; i < sequence.size(); i++) {
+            long move = sequence.cards(i);
+            int key = sequence.key(i);
+            boolean valid = (move & covered) == 0L && (move & ~hand) == 0L
+                    && PatternCode.isValid(HistogramPatternValidator.classify(move));
+            boolean last = i == sequence.size() - 1;
+            if (!valid || !last && !analyzer.isBoss(key)
+                    || i == 0 && lastKey != 0 && !CardPattern.beats(key, lastKey)
+                    || (i > 0 || lastKey == 0) && (hand & ~covered & DIAMOND_THREE) != 0L
+                            && (move & DIAMOND_THREE) == 0L) {
+                throw new AssertionError("出牌顺序不合法: 手牌=" + CardSet.ofBits(hand) + " 需要压过=" + lastKey
+                        + " 第 " + i + " 手=" + CardSet.ofBits(move));
+            }
+            covered |= move;
+        }
+        if (covered != hand) {
+            throw new AssertionError("出牌顺序没有出完手牌: " + CardSet.ofBits(hand));
+        }
+    }
+
+    /**
+     * 随机手牌、随机看不到的牌，预热后统计 6 张和 13 张手牌每次 reset + 查找的平均耗时（只输出，不做断言）
+     */
+    private static void testTiming() {
+        System.out.println("=== 统计查找耗时 ===");
+
+        ControlAnalyzer analyzer = new ControlAnalyzer();
+        MoveList sequence = new MoveList();
+        for (int size : new int[] {6, 13}) {
+            Random random = new Random(31);
+            long[] hands = new long[1024];
+            long[] unseen = new long[hands.length];
+            for (int i = 0; i < hands.length; i++) {
+                hands[i] = draw(random, (1L << 52) - 1, size);
+                unseen[i] = draw(random, ~hands[i] & ((1L << 52) - 1), 26);
+            }
+            int sink = 0;
+            for (int round = 0; round < 50; round++) { // 预热，让 JIT 编译完成
+                for (int i = 0; i < hands.length; i++) {
+                    sink += analyzer.reset(unseen[i], 13).findWinningSequence(hands[i], 0, sequence) ? 1 : 0;
+                }
+            }
+            int calls = 100_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                int j = i & (hands.length - 1);
+                sink += analyzer.reset(unseen[j], 13).findWinningSequence(hands[j], 0, sequence) ? 1 : 0;
+            }
+            double micros = (System.nanoTime() - start) / 1e3 / calls;
+            System.out.printf("%d 张手牌: 平均 %.2f 微秒/次 (校验值 %d)%n", size, micros, sink);
+        }
+        System.out.println("耗时统计完成\n");
+    }
+
+    /** 对手用不超过 maxCards 张的看不到的牌能否打出压过 key 的单张、对子或五张 */
+    private static boolean canBeBeaten(long unseen, int maxCards, int key) {
+        for (int size : new int[] {1, 2, 5}) {
+            if (size > maxCards) break;
+            if (anySubsetBeats(unseen, size, 0L, key)) return true;
+        }
+        return false;
+    }
+
+    private static boolean anySubsetBeats(long rest, int size, long chosen, int key) {
+        if (size == 0) {
+            int code = HistogramPatternValidator.classify(chosen);
+            return PatternCode.isValid(code) && CardPattern.beats(keyOf(code), key);
+        }
+        for (long m = rest; Long.bitCount(m) >= size; m &= m - 1) {
+            long card = Long.lowestOneBit(m);
+            if (anySubsetBeats(m & ~card, size - 1, chosen | card, key)) return true;
+        }
+        return false;
+    }
+
+    private static int keyOf(int code) {
+        return CardPattern.strengthKey(PatternCode.typeOf(code), PatternCode.highestIdOf(code));
+    }
+
+    /** 从剩下的牌中随机组出一个合法牌型（单张、对子或五张），返回其强度键 */
+    private static int randomPatternKey(Random random, long deck) {
+        int[] sizes = {1, 1, 2, 2, 5};
+        while (true) {
+            long move = draw(random, deck, sizes[random.nextInt(sizes.length)]);
+            int code = HistogramPatternValidator.classify(move);
+            if (PatternCode.isValid(code)) return keyOf(code);
+        }
+    }
+
+    private static long draw(Random random, long deck, int count) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < count) {
+            long card = 1L << random.nextInt(52);
+            if ((deck & card) != 0L) mask |= card;
+        }
+        return mask;
+    }
+}
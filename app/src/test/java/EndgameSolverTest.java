@@ -0,0 +1,123 @@
+import models.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 两人残局求解器测试 - 在随机的小残局上与朴素的穷举搜索比对胜负，并检查给出的出牌合法且保持必胜
+ */
+public class EndgameSolverTest {
+
+    private static final long DIAMOND_THREE = MoveGenerator.DIAMOND_THREE;
+
+    public static void main(String[] args) {
+        testAgainstExhaustiveSearch("串行", new EndgameSolver(new TranspositionTable(1L << 20), null), 2000, 5, 1);
+        testAgainstExhaustiveSearch("根节点并行", new EndgameSolver(new TranspositionTable(1L << 20), ForkJoinPool.commonPool()),
+                200, 8, 7);
+    }
+
+    /**
+     * 双方各 1..maxCards 张的随机局面，一半自由出牌、一半需要压过对手打出的牌型
+     */
+    private static void testAgainstExhaustiveSearch(String name, EndgameSolver solver, int positions, int maxCards,
+                                                    int minCards) {
+        System.out.println("=== 测试残局求解器与穷举一致（" + name + "） ===");
+
+        Random random = new Random(17 + maxCards);
+        int wins = 0;
+        for (int i = 0; i < positions; i++) {
+            long deck = (1L << 52) - 1;
+            long hand = draw(random, deck, minCards + random.nextInt(maxCards - minCards + 1));
+            deck &= ~hand;
+            long opponent = draw(random, deck, minCards + random.nextInt(maxCards - minCards + 1));
+            deck &= ~opponent;
+            int lastKey = random.nextBoolean() ? 0 : randomPatternKey(random, deck);
+
+            Map<String, Boolean> memo = new HashMap<>();
+            boolean expected = exhaustiveWin(hand, opponent, lastKey, memo);
+            boolean actual = solver.isWin(hand, opponent, lastKey);
+            if (expected != actual) {
+                throw new AssertionError("胜负不一致: " + describe(hand, opponent, lastKey)
+                        + " 穷举=" + expected + " 求解器=" + actual);
+            }
+
+            long move = solver.bestMove(hand, opponent, lastKey);
+            checkLegal(hand, lastKey, move);
+            if (expected) {
+                wins++;
+                boolean keepsWin = move != EndgameSolver.PASS && move == hand
+                        || !exhaustiveWin(opponent, hand & ~move, move == EndgameSolver.PASS ? 0 : keyOf(move), memo);
+                if (!keepsWin) {
+                    throw new AssertionError("最佳出牌没有保持必胜: " + describe(hand, opponent, lastKey)
+                            + " 出牌=" + CardSet.ofBits(move));
+                }
+            }
+        }
+
+        System.out.println("局面数: " + positions + ", 其中必胜: " + wins);
+        System.out.println("残局求解器测试完成\n");
+    }
+
+    /**
+     * 朴素的穷举：枚举手牌的所有子集，用 {@link HistogramPatternValidator} 判定牌型，不依赖 {@link MoveGenerator}
+     * 规则与求解器相同：自由出牌且持有方块3时必须带上它；pass 后由上一手的出牌者自由出牌
+     */
+    private static boolean exhaustiveWin(long hand, long opponent, int lastKey, Map<String, Boolean> memo) {
+        String state = hand + "/" + opponent + "/" + lastKey;
+        Boolean cached = memo.get(state);
+        if (cached != null) return cached;
+
+        boolean win = false;
+        if (lastKey != 0 && !exhaustiveWin(opponent, hand, 0, memo)) {
+            win = true; // pass
+        }
+        for (long move = hand; !win && move != 0L; move = (move - 1) & hand) {
+            if (!isLegal(hand, lastKey, move)) continue;
+            long rest = hand & ~move;
+            win = rest == 0L || !exhaustiveWin(opponent, rest, keyOf(move), memo);
+        }
+        memo.put(state, win);
+        return win;
+    }
+
+    private static boolean isLegal(long hand, int lastKey, long move) {
+        if ((move & ~hand) != 0L || !PatternCode.isValid(HistogramPatternValidator.classify(move))) return false;
+        if (lastKey == 0) return (hand & DIAMOND_THREE) == 0L || (move & DIAMOND_THREE) != 0L;
+        return CardPattern.beats(keyOf(move), lastKey);
+    }
+
+    private static void checkLegal(long hand, int lastKey, long move) {
+        boolean legal = move == EndgameSolver.PASS ? lastKey != 0 : isLegal(hand, lastKey, move);
+        if (!legal) {
+            throw new AssertionError("最佳出牌不合法: " + describe(hand, 0L, lastKey) + " 出牌=" + CardSet.ofBits(move));
+        }
+    }
+
+    private static int keyOf(long move) {
+        int code = HistogramPatternValidator.classify(move);
+        return CardPattern.strengthKey(PatternCode.typeOf(code), PatternCode.highestIdOf(code));
+    }
+
+    /** 从剩下的牌中随机组出一个合法牌型（单张、对子或五张），返回其强度键 */
+    private static int randomPatternKey(Random random, long deck) {
+        int[] sizes = {1, 1, 2, 2, 5};
+        while (true) {
+            long move = draw(random, deck, sizes[random.nextInt(sizes.length)]);
+            if (PatternCode.isValid(HistogramPatternValidator.classify(move))) return keyOf(move);
+        }
+    }
+
+    private static long draw(Random random, long deck, int count) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < count) {
+            long card = 1L << random.nextInt(52);
+            if ((deck & card) != 0L) mask |= card;
+        }
+        return mask;
+    }
+
+    private static String describe(long hand, long opponent, int lastKey) {
+        return "手牌=" + CardSet.ofBits(hand) + " 对手=" + CardSet.ofBits(opponent) + " 需要压过=" + lastKey;
+    }
+}
@@ -0,0 +1,151 @@
+import models.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 手牌分析测试 - 增量更新（remove）与重新分析（reset）的结果完全一致，复制（copyFrom）得到独立的相同结果，
+ * 以及附带增量维护的分析时 {@link AdvancedAIStrategy} 的决策与自己重新分析时相同
+ */
+public class HandAnalysisTest {
+
+    public static void main(String[] args) {
+        testRemoveMatchesReset();
+        testCopyFrom();
+        testDecisionsWithSharedAnalysis();
+    }
+
+    /**
+     * 随机的 13..20 张手牌，每次移除 1..5 张（偶尔夹带不在手中的牌）直到出完，每一步都与重新分析比对
+     */
+    private static void testRemoveMatchesReset() {
+        System.out.println("=== 测试增量更新与重新分析一致 ===");
+
+        Random random = new Random(19);
+        HandAnalysis incremental = new HandAnalysis();
+        HandAnalysis fresh = new HandAnalysis();
+        int hands = 92_000;
+        long removals = 0;
+        for (int i = 0; i < hands; i++) {
+            long hand = draw(random, CardSet.FULL_MASK, 13 + random.nextInt(8));
+            incremental.reset(hand);
+            while (hand != 0L) {
+                long removed = draw(random, hand, Math.min(1 + random.nextInt(5), Long.bitCount(hand)));
+                if (random.nextInt(8) == 0) removed |= draw(random, CardSet.FULL_MASK & ~hand, 1);
+                incremental.remove(removed);
+                hand &= ~removed;
+                assertSame(fresh.reset(hand), incremental, "移除 " + CardSet.ofBits(removed) + " 之后");
+                removals++;
+            }
+        }
+
+        System.out.println("手牌数: " + hands + ", 移除次数: " + removals);
+        System.out.println("增量更新测试完成\n");
+    }
+
+    /** 复制的结果与原来的相同，之后原来的分析再更新也不影响副本 */
+    private static void testCopyFrom() {
+        System.out.println("=== 测试复制手牌分析 ===");
+
+        Random random = new Random(20);
+        HandAnalysis source = new HandAnalysis();
+        HandAnalysis copy = new HandAnalysis(draw(random, CardSet.FULL_MASK, 20)); // 先装入更多的候选
+        HandAnalysis fresh = new HandAnalysis();
+        for (int i = 0; i < 20_000; i++) {
+            long hand = draw(random, CardSet.FULL_MASK, 1 + random.nextInt(20));
+            source.reset(hand);
+            source.remove(draw(random, hand, random.nextInt(Long.bitCount(hand) + 1)));
+            long copied = source.hand();
+            copy.copyFrom(source);
+            assertSame(fresh.reset(copied), copy, "复制之后");
+            source.reset(draw(random, CardSet.FULL_MASK, 13));
+            assertSame(fresh, copy, "原来的分析重新分析之后");
+        }
+
+        System.out.println("复制测试完成\n");
+    }
+
+    /**
+     * 随机局面（自由出牌或需要压过对手的牌型），手牌由更大的手牌移除出过的牌得到：
+     * 附带增量维护的分析与不附带（策略自己重新分析）时出牌相同
+     */
+    private static void testDecisionsWithSharedAnalysis() {
+        System.out.println("=== 测试附带分析时决策不变 ===");
+
+        AdvancedAIStrategy withShared = new AdvancedAIStrategy();
+        AdvancedAIStrategy withoutShared = new AdvancedAIStrategy();
+        HandAnalysis analysis = new HandAnalysis();
+        MoveList moves = new MoveList();
+        Random random = new Random(21);
+        int positions = 200_000;
+        for (int i = 0; i < positions; i++) {
+            long dealt = draw(random, CardSet.FULL_MASK, 13);
+            long hand = dealt & ~draw(random, dealt, random.nextInt(13));
+            analysis.reset(dealt);
+            analysis.remove(dealt & ~hand);
+
+            long others = CardSet.FULL_MASK & ~dealt;
+            CardPattern lastPattern = null;
+            if (random.nextBoolean()) {
+                MoveGenerator.generate(draw(random, others, 13), moves);
+                lastPattern = moves.toPattern(random.nextInt(moves.size()));
+            }
+            List<Integer> othersCount = new ArrayList<>();
+            for (int p = 0; p < 3; p++) othersCount.add(1 + random.nextInt(13));
+            long played = draw(random, others, random.nextInt(20));
+            DecisionContext context = new DecisionContext(CardSet.ofBits(hand), lastPattern, othersCount,
+                    CardSet.ofBits(played));
+
+            List<Card> expected = withoutShared.makeMove(context);
+            List<Card> actual = withShared.makeMove(context.withAnalysis(analysis));
+            if (!CardSet.of(expected).equals(CardSet.of(actual))) {
+                throw new AssertionError("决策不一致: 手牌=" + CardSet.ofBits(hand) + " 需要压过=" + lastPattern
+                        + " 重新分析=" + expected + " 附带分析=" + actual);
+            }
+        }
+
+        System.out.println("局面数: " + positions);
+        System.out.println("决策一致性测试完成\n");
+    }
+
+    private static void assertSame(HandAnalysis expected, HandAnalysis actual, String when) {
+        boolean same = expected.hand() == actual.hand() && expected.threeCount() == actual.threeCount();
+        for (int rank = Card.THREE; same && rank <= Card.TWO; rank++) {
+            same = expected.rankCount(rank) == actual.rankCount(rank);
+        }
+        for (int suit = Card.DIAMOND; same && suit <= Card.SPADE; suit++) {
+            same = expected.suitCount(suit) == actual.suitCount(suit);
+        }
+        for (int t = 0; same && t < expected.threeCount(); t++) {
+            same = expected.three(t) == actual.three(t);
+        }
+        same = same && sameMoves(expected.pairs(), actual.pairs())
+                && sameMoves(expected.threeWithPairs(), actual.threeWithPairs())
+                && sameMoves(expected.bombs(), actual.bombs())
+                && sameMoves(expected.straights(), actual.straights())
+                && sameMoves(expected.flushes(), actual.flushes())
+                && sameMoves(expected.flushStraights(), actual.flushStraights());
+        if (!same) {
+            throw new AssertionError("手牌分析不一致（" + when + "）: 手牌=" + CardSet.ofBits(expected.hand()));
+        }
+    }
+
+    /** 候选相同且顺序相同 */
+    private static boolean sameMoves(MoveList expected, MoveList actual) {
+        if (expected.size() != actual.size()) return false;
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.cards(i) != actual.cards(i) || expected.code(i) != actual.code(i)
+                    || expected.key(i) != actual.key(i)) return false;
+        }
+        return true;
+    }
+
+    private static long draw(Random random, long deck, int count) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < count) {
+            long card = 1L << random.nextInt(52);
+            if ((deck & card) != 0L) mask |= card;
+        }
+        return mask;
+    }
+}
@@ -20,9 +20,9 @@ public class ModelTest {
         System.out.println("=== 测试Card类 ===");
         
         // 创建不同的卡牌
-        Card diamondThree = new Card(Card.DIAMOND, Card.THREE);
-        Card heartAce = new Card(Card.HEART, Card.ACE);
-        Card spadeKing = new Card(Card.SPADE, Card.KING);
+        Card diamondThree = Card.of(Card.DIAMOND, Card.THREE);
+        Card heartAce = Card.of(Card.HEART, Card.ACE);
+        Card spadeKing = Card.of(Card.SPADE, Card.KING);
         
         // 验证卡牌属性
         System.out.println("方块3: " + diamondThree);
@@ -33,9 +33,14 @@ public class ModelTest {
         System.out.println("方块3 < 红桃A: " + (diamondThree.compareTo(heartAce) < 0));
         System.out.println("红桃A > 黑桃K: " + (heartAce.compareTo(spadeKing) > 0));
         
-        // 测试选择功能
-        diamondThree.setSelected(true);
-        System.out.println("方块3被选中: " + diamondThree.isSelected());
+        // 验证共享实例
+        System.out.println("方块3为唯一实例: " + (diamondThree == Card.of(Card.DIAMOND, Card.THREE)));
+        
+        // 测试选择功能（选中状态由玩家记录）
+        Player player = new Player("测试玩家", true);
+        player.setHand(List.of(diamondThree, heartAce, spadeKing));
+        player.toggleCardSelection(diamondThree);
+        System.out.println("方块3被选中: " + player.getSelectedSet().contains(diamondThree));
         
         System.out.println("Card类测试完成\n");
     }
@@ -97,7 +102,7 @@ public class ModelTest {
      * 测试单张
      */
     private static void testSingleCard(PatternValidator validator) {
-        Card card = new Card(Card.HEART, Card.ACE);
+        Card card = Card.of(Card.HEART, Card.ACE);
         List<Card> cards = new ArrayList<>();
         cards.add(card);
         
@@ -112,8 +117,8 @@ public class ModelTest {
      */
     private static void testPair(PatternValidator validator) {
         List<Card> cards = new ArrayList<>();
-        cards.add(new Card(Card.HEART, Card.TEN));
-        cards.add(new Card(Card.DIAMOND, Card.TEN));
+        cards.add(Card.of(Card.HEART, Card.TEN));
+        cards.add(Card.of(Card.DIAMOND, Card.TEN));
         
         CardPattern pattern = validator.validate(cards);
         System.out.println("对子 [红桃10, 方块10] 验证结果: " + 
@@ -122,8 +127,8 @@ public class ModelTest {
         
         // 无效对子
         cards.clear();
-        cards.add(new Card(Card.HEART, Card.TEN));
-        cards.add(new Card(Card.DIAMOND, Card.NINE));
+        cards.add(Card.of(Card.HEART, Card.TEN));
+        cards.add(Card.of(Card.DIAMOND, Card.NINE));
         
         pattern = validator.validate(cards);
         System.out.println("无效对子 [红桃10, 方块9] 验证结果: " + 
@@ -135,9 +140,9 @@ public class ModelTest {
      */
     private static void testThreeOfKind(PatternValidator validator) {
         List<Card> cards = new ArrayList<>();
-        cards.add(new Card(Card.HEART, Card.SEVEN));
-        cards.add(new Card(Card.DIAMOND, Card.SEVEN));
-        cards.add(new Card(Card.SPADE, Card.SEVEN));
+        cards.add(Card.of(Card.HEART, Card.SEVEN));
+        cards.add(Card.of(Card.DIAMOND, Card.SEVEN));
+        cards.add(Card.of(Card.SPADE, Card.SEVEN));
         
         CardPattern pattern = validator.validate(cards);
         System.out.println("三张 [三张7] 验证结果: " + 
@@ -150,11 +155,11 @@ public class ModelTest {
      */
     private static void testStraight(PatternValidator validator) {
         List<Card> cards = new ArrayList<>();
-        cards.add(new Card(Card.HEART, Card.THREE));
-        cards.add(new Card(Card.DIAMOND, Card.FOUR));
-        cards.add(new Card(Card.SPADE, Card.FIVE));
-        cards.add(new Card(Card.CLUB, Card.SIX));
-        cards.add(new Card(Card.HEART, Card.SEVEN));
+        cards.add(Card.of(Card.HEART, Card.THREE));
+        cards.add(Card.of(Card.DIAMOND, Card.FOUR));
+        cards.add(Card.of(Card.SPADE, Card.FIVE));
+        cards.add(Card.of(Card.CLUB, Card.SIX));
+        cards.add(Card.of(Card.HEART, Card.SEVEN));
         
         CardPattern pattern = validator.validate(cards);
         System.out.println("顺子 [3,4,5,6,7] 验证结果: " + 
@@ -167,11 +172,11 @@ public class ModelTest {
      */
     private static void testFullHouse(PatternValidator validator) {
         List<Card> cards = new ArrayList<>();
-        cards.add(new Card(Card.HEART, Card.FIVE));
-        cards.add(new Card(Card.DIAMOND, Card.FIVE));
-        cards.add(new Card(Card.SPADE, Card.FIVE));
-        cards.add(new Card(Card.CLUB, Card.NINE));
-        cards.add(new Card(Card.HEART, Card.NINE));
+        cards.add(Card.of(Card.HEART, Card.FIVE));
+        cards.add(Card.of(Card.DIAMOND, Card.FIVE));
+        cards.add(Card.of(Card.SPADE, Card.FIVE));
+        cards.add(Card.of(Card.CLUB, Card.NINE));
+        cards.add(Card.of(Card.HEART, Card.NINE));
         
         CardPattern pattern = validator.validate(cards);
         System.out.println("葫芦 [三张5,两张9] 验证结果: " + 
@@ -0,0 +1,70 @@
+import models.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 蒙特卡洛策略可复现性测试 - 相同种子、按次数限定预算时，不同大小的线程池必须给出相同的出牌
+ */
+public class MonteCarloReproducibilityTest {
+
+    public static void main(String[] args) {
+        testSameMoveForAnyPoolSize();
+    }
+
+    private static void testSameMoveForAnyPoolSize() {
+        System.out.println("=== 测试蒙特卡洛策略与线程数无关 ===");
+
+        int[] sizes = {1, 2, 8};
+        List<ForkJoinPool> pools = new ArrayList<>();
+        List<MonteCarloAIStrategy> strategies = new ArrayList<>();
+        for (int size : sizes) {
+            ForkJoinPool pool = new ForkJoinPool(size);
+            pools.add(pool);
+            strategies.add(new MonteCarloAIStrategy(3000, 0L, 7L, pool));
+        }
+
+        Random random = new Random(5);
+        PatternValidator validator = new HistogramPatternValidator();
+        int positions = 40;
+        try {
+            for (int i = 0; i < positions; i++) {
+                long hand = draw(random, (1L << 52) - 1, 8);
+                long played = draw(random, ~hand & ((1L << 52) - 1), 20);
+                CardPattern last = null;
+                if (i % 2 == 1) {
+                    long single = draw(random, ~(hand | played) & ((1L << 52) - 1), 1);
+                    last = validator.validate(Collections.singletonList(Card.byId(Long.numberOfTrailingZeros(single))));
+                }
+                DecisionContext context = new DecisionContext(CardSet.ofBits(hand), last, Arrays.asList(8, 8, 8),
+                        CardSet.ofBits(played));
+
+                List<Card> expected = strategies.get(0).makeMove(context);
+                for (int s = 1; s < strategies.size(); s++) {
+                    List<Card> actual = strategies.get(s).makeMove(context);
+                    if (!expected.equals(actual)) {
+                        throw new AssertionError("线程数不同时出牌不同: 手牌=" + CardSet.ofBits(hand) + " "
+                                + sizes[0] + " 线程=" + expected + " " + sizes[s] + " 线程=" + actual);
+                    }
+                }
+            }
+        } finally {
+            for (ForkJoinPool pool : pools) pool.shutdown();
+        }
+
+        System.out.println("局面数: " + positions + ", 线程数: " + Arrays.toString(sizes));
+        System.out.println("可复现性测试完成\n");
+    }
+
+    private static long draw(Random random, long deck, int count) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < count) {
+            long card = 1L << random.nextInt(52);
+            if ((deck & card) != 0L) mask |= card;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,110 @@
+import models.*;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 合法出牌生成器测试 - 在随机的 13、17、20 张手牌和随机的过滤条件下，
+ * 生成的候选与朴素的子集枚举完全一致（不多、不少、不重复），每个候选的编码和强度键正确
+ */
+public class MoveGeneratorTest {
+
+    public static void main(String[] args) {
+        testAgainstSubsetEnumeration();
+    }
+
+    private static void testAgainstSubsetEnumeration() {
+        System.out.println("=== 测试出牌生成与子集枚举一致 ===");
+
+        MoveList moves = new MoveList();
+        Random random = new Random(6);
+        int[] sizes = {13, 17, 20};
+        int hands = 600;
+        long total = 0;
+        for (int i = 0; i < hands; i++) {
+            long hand = draw(random, CardSet.FULL_MASK, sizes[i % sizes.length]);
+            int beatKey = random.nextInt(3) == 0 ? 0 : randomPatternKey(random, CardSet.FULL_MASK);
+            long mustContain;
+            switch (random.nextInt(3)) {
+                case 0: mustContain = 0L; break;
+                case 1: mustContain = MoveGenerator.DIAMOND_THREE; break;
+                default: mustContain = draw(random, hand, 1); break;
+            }
+
+            MoveGenerator.generate(hand, beatKey, mustContain, moves);
+            long[] actual = new long[moves.size()];
+            for (int m = 0; m < moves.size(); m++) {
+                long cards = moves.cards(m);
+                int code = HistogramPatternValidator.classify(cards);
+                if (moves.key(m) != keyOf(code)) {
+                    throw new AssertionError("强度键错误: " + CardSet.ofBits(cards) + " 键=" + moves.key(m));
+                }
+                actual[m] = cards;
+            }
+            long[] expected = enumerate(hand, beatKey, mustContain);
+            Arrays.sort(actual);
+            if (!Arrays.equals(actual, expected)) {
+                throw new AssertionError("候选不一致: 手牌=" + CardSet.ofBits(hand) + " 需要压过=" + beatKey
+                        + " 必须包含=" + CardSet.ofBits(mustContain)
+                        + " 生成=" + actual.length + " 枚举=" + expected.length);
+            }
+            total += expected.length;
+        }
+
+        System.out.println("手牌数: " + hands + ", 候选总数: " + total);
+        System.out.println("出牌生成测试完成\n");
+    }
+
+    /** 枚举手牌中所有 1、2、5 张的子集，保留满足条件的合法牌型，按位掩码升序返回 */
+    private static long[] enumerate(long hand, int beatKey, long mustContain) {
+        int[] ids = new int[Long.bitCount(hand)];
+        int n = 0;
+        for (long m = hand; m != 0L; m &= m - 1) ids[n++] = Long.numberOfTrailingZeros(m);
+
+        long[] result = new long[64];
+        int count = 0;
+        for (int size : new int[] {1, 2, 5}) {
+            if (size > n) break;
+            for (int pick = (1 << size) - 1; pick < 1 << n; pick = nextSubset(pick)) {
+                long cards = 0L;
+                for (int p = pick; p != 0; p &= p - 1) cards |= 1L << ids[Integer.numberOfTrailingZeros(p)];
+                int code = HistogramPatternValidator.classify(cards);
+                if (!PatternCode.isValid(code) || (cards & mustContain) != mustContain) continue;
+                if (beatKey != 0 && !CardPattern.beats(keyOf(code), beatKey)) continue;
+                if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                result[count++] = cards;
+            }
+        }
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** 位数相同的下一个更大的整数（Gosper's hack） */
+    private static int nextSubset(int pick) {
+        int low = pick & -pick;
+        int ripple = pick + low;
+        return ripple | ((pick ^ ripple) >>> 2) / low;
+    }
+
+    private static int keyOf(int code) {
+        return CardPattern.strengthKey(PatternCode.typeOf(code), PatternCode.highestIdOf(code));
+    }
+
+    /** 从给定的牌中随机组出一个合法牌型（单张、对子或五张），返回其强度键 */
+    private static int randomPatternKey(Random random, long deck) {
+        int[] sizes = {1, 1, 2, 2, 5};
+        while (true) {
+            int code = HistogramPatternValidator.classify(draw(random, deck, sizes[random.nextInt(sizes.length)]));
+            if (PatternCode.isValid(code)) return keyOf(code);
+        }
+    }
+
+    private static long draw(Random random, long deck, int count) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < count) {
+            long card = 1L << random.nextInt(52);
+            if ((deck & card) != 0L) mask |= card;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,105 @@
+import models.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 快速牌型验证器测试 - 与标准实现逐一比对结果，并统计每次判定分配的字节数
+ */
+public class PatternValidatorAllocationTest {
+
+    public static void main(String[] args) {
+        testSameResultsAsStandard();
+        testZeroAllocation();
+    }
+
+    /**
+     * 所有单张、对子、五张组合以及随机的三/四张，结果必须与 PatternValidatorImpl 相同
+     */
+    private static void testSameResultsAsStandard() {
+        System.out.println("=== 测试快速验证器与标准实现一致 ===");
+
+        PatternValidator standard = new PatternValidatorImpl();
+        PatternValidator fast = new HistogramPatternValidator();
+        int checked = 0;
+
+        for (int a = 0; a < 52; a++) {
+            checked += compare(standard, fast, 1L << a);
+            for (int b = a + 1; b < 52; b++) {
+                checked += compare(standard, fast, 1L << a | 1L << b);
+            }
+        }
+
+        for (int e = 4; e < 52; e++)
+            for (int d = 3; d < e; d++)
+                for (int c = 2; c < d; c++)
+                    for (int b = 1; b < c; b++)
+                        for (int a = 0; a < b; a++)
+                            checked += compare(standard, fast, 1L << a | 1L << b | 1L << c | 1L << d | 1L << e);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            checked += compare(standard, fast, randomMask(random, 3 + random.nextInt(2)));
+        }
+
+        System.out.println("比对组合数: " + checked);
+        System.out.println("一致性测试完成\n");
+    }
+
+    /**
+     * 预热后连续判定一百万次，线程分配的字节数必须为 0
+     */
+    private static void testZeroAllocation() {
+        System.out.println("=== 测试快速验证器零分配 ===");
+
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        Random random = new Random(11);
+        long[] masks = new long[4096];
+        int[] sizes = {1, 2, 5};
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = randomMask(random, sizes[i % sizes.length]);
+        }
+
+        int sink = 0;
+        for (int round = 0; round < 200; round++) { // 预热，让 JIT 编译完成
+            for (long m : masks) sink += HistogramPatternValidator.classify(m);
+        }
+
+        int calls = 1_000_000;
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) {
+            sink += HistogramPatternValidator.classify(masks[i & (masks.length - 1)]);
+        }
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.println("判定次数: " + calls + ", 分配字节: " + allocated + " (校验值 " + sink + ")");
+        if (allocated != 0) {
+            throw new AssertionError("快速验证器每次判定应当零分配，实际共分配 " + allocated + " 字节");
+        }
+        System.out.println("零分配测试完成\n");
+    }
+
+    private static int compare(PatternValidator standard, PatternValidator fast, long mask) {
+        List<Card> cards = new ArrayList<>(CardSet.ofBits(mask).toList());
+        CardPattern expected = standard.validate(cards);
+        CardPattern actual = fast.validate(cards);
+        if (expected.getPatternType() != actual.getPatternType()
+                || expected.getHighestCard() != actual.getHighestCard()) {
+            throw new AssertionError("牌型不一致: " + cards + " 标准=" + expected.getPatternType()
+                    + " 快速=" + actual.getPatternType());
+        }
+        return 1;
+    }
+
+    private static long randomMask(Random random, int size) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < size) {
+            mask |= 1L << random.nextInt(52);
+        }
+        return mask;
+    }
+}
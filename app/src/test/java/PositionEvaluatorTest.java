@@ -0,0 +1,356 @@
+import models.*;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 局面评估测试 - 特征与逐张数牌的直接算法一致，评估结果与按文档的权重排列直接计算的线性模型/MLP 一致，
+ * 模型文件读写前后不变，并统计每次评估分配的字节数（必须为 0）和耗时
+ */
+public class PositionEvaluatorTest {
+
+    private static final int N = PositionFeatures.COUNT;
+
+    public static void main(String[] args) throws IOException {
+        testFeaturesAgainstReference();
+        testWeightLayout();
+        testLoadSave();
+        testZeroAllocation();
+    }
+
+    /**
+     * 随机的 2..4 人局面，自由出牌或需要压过某个座位打出的牌型，
+     * 从每个座位的视角提取特征，与直接算出的特征逐个比对
+     */
+    private static void testFeaturesAgainstReference() {
+        System.out.println("=== 测试局面特征与直接计算一致 ===");
+
+        Random random = new Random(21);
+        Playout position = new Playout();
+        float[] actual = new float[N];
+        float[] shifted = new float[N + 7];
+        float[] expected = new float[N];
+        int checked = 0;
+        for (int i = 0; i < 50_000; i++) {
+            randomPosition(random, position);
+            for (int seat = 0; seat < position.seats(); seat++) {
+                PositionFeatures.extract(position, seat, actual);
+                reference(position, seat, expected);
+                for (int f = 0; f < N; f++) {
+                    if (Math.abs(actual[f] - expected[f]) > 1e-6f) {
+                        throw new AssertionError("特征 " + f + " 不一致: 手牌=" + CardSet.ofBits(position.hand(seat))
+                                + " 需要压过=" + position.lastKey() + " 实际=" + actual[f] + " 期望=" + expected[f]);
+                    }
+                }
+                checked++;
+            }
+        }
+
+        // 写到偏移位置的版本与写到开头的结果相同
+        long hand = draw(random, CardSet.FULL_MASK, 13);
+        long unseen = CardSet.FULL_MASK & ~hand;
+        PositionFeatures.extract(hand, unseen, 13, 13, 0, 0, -1, actual);
+        PositionFeatures.extract(hand, unseen, 13, 13, 0, 0, -1, shifted, 7);
+        for (int f = 0; f < N; f++) {
+            if (actual[f] != shifted[7 + f]) throw new AssertionError("偏移写入的特征 " + f + " 不一致");
+        }
+
+        System.out.println("比对视角数: " + checked);
+        System.out.println("特征测试完成\n");
+    }
+
+    /**
+     * 随机权重的线性模型和各种大小的 MLP：评估结果与按文档排列（隐藏层按输入排列、偏置、输出层）
+     * 直接计算的结果一致；权重个数或隐藏层大小不对时构造失败
+     */
+    private static void testWeightLayout() {
+        System.out.println("=== 测试权重排列 ===");
+
+        Random random = new Random(22);
+        Playout position = new Playout();
+        float[] features = new float[N];
+        for (int hidden : new int[] {0, 1, 8, LearnedPositionEvaluator.MAX_HIDDEN}) {
+            float[] weights = randomWeights(random, hidden);
+            LearnedPositionEvaluator evaluator = new LearnedPositionEvaluator(hidden, weights);
+            for (int i = 0; i < 5_000; i++) {
+                randomPosition(random, position);
+                int seat = random.nextInt(position.seats());
+                reference(position, seat, features);
+                double expected = referenceEvaluate(hidden, weights, features);
+                float actual = evaluator.evaluate(position, seat);
+                if (Math.abs(actual - expected) > 1e-4) {
+                    throw new AssertionError("隐藏层 " + hidden + " 的评估结果不一致: 实际=" + actual + " 期望=" + expected);
+                }
+            }
+        }
+
+        expectRejected(() -> new LearnedPositionEvaluator(0, new float[N]));
+        expectRejected(() -> new LearnedPositionEvaluator(4, new float[LearnedPositionEvaluator.weightCount(8)]));
+        expectRejected(() -> new LearnedPositionEvaluator(LearnedPositionEvaluator.MAX_HIDDEN + 1,
+                new float[LearnedPositionEvaluator.weightCount(LearnedPositionEvaluator.MAX_HIDDEN + 1)]));
+
+        System.out.println("权重排列测试完成\n");
+    }
+
+    /** 保存后读回的隐藏层大小、权重和评估结果不变；魔数不对或文件过短时读取失败 */
+    private static void testLoadSave() throws IOException {
+        System.out.println("=== 测试模型文件读写 ===");
+
+        Random random = new Random(23);
+        Playout position = new Playout();
+        File file = File.createTempFile("evaluator", ".bin");
+        try {
+            for (int hidden : new int[] {0, 16}) {
+                LearnedPositionEvaluator saved = new LearnedPositionEvaluator(hidden, randomWeights(random, hidden));
+                saved.save(file);
+                LearnedPositionEvaluator loaded = LearnedPositionEvaluator.load(file);
+                if (loaded.getHidden() != hidden
+                        || !Arrays.equals(loaded.getWeights(), saved.getWeights())) {
+                    throw new AssertionError("读回的模型不一致: 隐藏层=" + hidden);
+                }
+                for (int i = 0; i < 1000; i++) {
+                    randomPosition(random, position);
+                    if (loaded.evaluate(position, 0) != saved.evaluate(position, 0)) {
+                        throw new AssertionError("读回的模型评估结果不一致");
+                    }
+                }
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+                out.writeInt(0x12345678);
+            }
+            expectLoadFails(file);
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+                out.writeBytes("B2EV");
+                out.writeInt(1);
+                out.writeInt(N);
+                out.writeInt(0);
+                out.writeFloat(1f);
+            }
+            expectLoadFails(file);
+        } finally {
+            file.delete();
+        }
+
+        System.out.println("模型文件测试完成\n");
+    }
+
+    /**
+     * 预热后用最大的 MLP 连续评估一百万次（含特征提取），线程分配的字节数必须为 0，并输出平均耗时（不做断言）
+     */
+    private static void testZeroAllocation() {
+        System.out.println("=== 测试局面评估零分配 ===");
+
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        Random random = new Random(24);
+        int hidden = LearnedPositionEvaluator.MAX_HIDDEN;
+        LearnedPositionEvaluator evaluator = new LearnedPositionEvaluator(hidden, randomWeights(random, hidden));
+        Playout[] positions = new Playout[1024];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = new Playout();
+            randomPosition(random, positions[i]);
+        }
+
+        float sink = 0f;
+        for (int round = 0; round < 200; round++) { // 预热，让 JIT 编译完成
+            for (Playout p : positions) sink += evaluator.evaluate(p, 0);
+        }
+
+        int calls = 1_000_000;
+        long before = bean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            sink += evaluator.evaluate(positions[i & (positions.length - 1)], 0);
+        }
+        double nanos = (double) (System.nanoTime() - start) / calls;
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.printf("评估次数: %d, 分配字节: %d, 平均 %.0f 纳秒/次 (校验值 %.1f)%n", calls, allocated, nanos, sink);
+        if (allocated != 0) {
+            throw new AssertionError("局面评估不应分配内存，实际分配 " + allocated + " 字节");
+        }
+        System.out.println("零分配测试完成\n");
+    }
+
+    /* ---------- 直接计算 ---------- */
+
+    /** 按特征的定义逐张数牌算出 seat 视角的特征 */
+    private static void reference(Playout position, int seat, float[] out) {
+        int seats = position.seats();
+        long hand = position.hand(seat);
+        long unseen = 0L;
+        int minCount = Integer.MAX_VALUE;
+        int shortOpponents = 0;
+        for (int s = 0; s < seats; s++) {
+            if (s == seat) continue;
+            unseen |= position.hand(s);
+            minCount = Math.min(minCount, Long.bitCount(position.hand(s)));
+            if (Long.bitCount(position.hand(s)) <= 2) shortOpponents++;
+        }
+
+        int singles = 0;
+        int pairs = 0;
+        int triples = 0;
+        int quads = 0;
+        for (int rank = Card.THREE; rank <= Card.TWO; rank++) {
+            int count = CardSet.rankCount(hand, rank);
+            out[PositionFeatures.RANK_COUNTS + rank] = count / 4f;
+            if (count == 1) singles++;
+            if (count >= 2) pairs++;
+            if (count >= 3) triples++;
+            if (count == 4) quads++;
+        }
+        out[PositionFeatures.HAND_SIZE] = Long.bitCount(hand) / 13f;
+        out[PositionFeatures.SINGLES] = singles / 13f;
+        out[PositionFeatures.PAIRS] = pairs / 13f;
+        out[PositionFeatures.TRIPLES] = triples / 4f;
+        out[PositionFeatures.QUADS] = quads / 3f;
+        out[PositionFeatures.CONTROLS] = (CardSet.rankCount(hand, Card.ACE) + CardSet.rankCount(hand, Card.TWO)) / 8f;
+
+        int runs = 0;
+        for (int low = Card.THREE; low + 4 <= Card.TWO; low++) {
+            boolean run = true;
+            for (int rank = low; rank < low + 5; rank++) run &= CardSet.rankCount(hand, rank) > 0;
+            if (run) runs++;
+        }
+        out[PositionFeatures.STRAIGHT_RUNS] = runs / 9f;
+        int flushSuits = 0;
+        for (int suit = Card.DIAMOND; suit <= Card.SPADE; suit++) {
+            if (Long.bitCount(hand & CardSet.suitMask(suit)) >= 5) flushSuits++;
+        }
+        out[PositionFeatures.FLUSH_SUITS] = flushSuits / 4f;
+
+        int topSingle = highestId(hand);
+        int above = 0;
+        for (int id = topSingle + 1; id < 52; id++) {
+            if ((unseen & 1L << id) != 0L) above++;
+        }
+        out[PositionFeatures.UNSEEN_ABOVE_TOP] = unseen == 0L ? 0f : (float) above / Long.bitCount(unseen);
+        out[PositionFeatures.UNSEEN_CONTROLS] =
+                (CardSet.rankCount(unseen, Card.ACE) + CardSet.rankCount(unseen, Card.TWO)) / 8f;
+        int myPair = topPairId(hand);
+        out[PositionFeatures.TOP_PAIR_BOSS] = myPair >= 0 && myPair >= topPairId(unseen) ? 1f : 0f;
+        out[PositionFeatures.TOP_SINGLE_BOSS] = topSingle >= 0 && topSingle > highestId(unseen) ? 1f : 0f;
+
+        int next = (seat + 1) % seats;
+        out[PositionFeatures.NEXT_COUNT] = Long.bitCount(position.hand(next)) / 13f;
+        out[PositionFeatures.MIN_COUNT] = minCount / 13f;
+        out[PositionFeatures.SHORT_OPPONENTS] = shortOpponents / 3f;
+
+        int lastKey = position.lastKey();
+        int lastType = lastKey == 0 ? 0 : lastKey >>> 12;
+        out[PositionFeatures.FREE_LEAD] = lastKey == 0 ? 1f : 0f;
+        for (int family = 1; family <= 3; family++) {
+            out[PositionFeatures.LAST_FAMILY + family - 1] = lastType == family ? 1f : 0f;
+        }
+        out[PositionFeatures.LAST_STRENGTH] = lastType == 0 ? 0f
+                : lastType == 3 ? (lastKey >>> 8 & 0xF) / 5f : (lastKey & 0xFF) / 4 / 12f;
+        int owner = position.lastOwner();
+        out[PositionFeatures.LAST_BY_NEXT] = owner >= 0 && owner == next ? 1f : 0f;
+
+        // 能用同类的单张或对子压过：生成所有压过它的出牌，看有没有同一大类的
+        boolean canBeat = false;
+        if (lastType == 1 || lastType == 2) {
+            MoveList moves = new MoveList();
+            MoveGenerator.generate(hand, lastKey, 0L, moves);
+            for (int m = 0; m < moves.size(); m++) canBeat |= moves.key(m) >>> 12 == lastType;
+        }
+        out[PositionFeatures.CAN_BEAT_SMALL] = canBeat ? 1f : 0f;
+    }
+
+    /** 按文档的权重排列直接计算获胜概率 */
+    private static double referenceEvaluate(int hidden, float[] w, float[] x) {
+        double sum;
+        if (hidden == 0) {
+            sum = w[N];
+            for (int i = 0; i < N; i++) sum += (double) w[i] * x[i];
+        } else {
+            int output = hidden * (N + 1);
+            sum = w[output + hidden];
+            for (int h = 0; h < hidden; h++) {
+                double a = w[N * hidden + h];
+                for (int i = 0; i < N; i++) a += (double) x[i] * w[i * hidden + h];
+                sum += w[output + h] * Math.max(a, 0.0);
+            }
+        }
+        return 1.0 / (1.0 + Math.exp(-sum));
+    }
+
+    /** 最大对子（点数最大的至少两张的点数）中最大一张的编号，没有对子时为 -1 */
+    private static int topPairId(long cards) {
+        for (int rank = Card.TWO; rank >= Card.THREE; rank--) {
+            if (CardSet.rankCount(cards, rank) >= 2) return highestId(cards & CardSet.rankMask(rank));
+        }
+        return -1;
+    }
+
+    private static int highestId(long cards) {
+        return 63 - Long.numberOfLeadingZeros(cards);
+    }
+
+    /* ---------- 随机数据 ---------- */
+
+    private static void randomPosition(Random random, Playout position) {
+        int seats = 2 + random.nextInt(3);
+        long[] hands = new long[seats];
+        long deck = CardSet.FULL_MASK;
+        for (int s = 0; s < seats; s++) {
+            hands[s] = draw(random, deck, 1 + random.nextInt(13));
+            deck &= ~hands[s];
+        }
+        int lastOwner = random.nextBoolean() ? -1 : random.nextInt(seats);
+        int lastKey = lastOwner < 0 ? 0 : randomPatternKey(random, CardSet.FULL_MASK); // 剩下的牌可能组不出牌型
+        position.reset(hands, seats, random.nextInt(seats), lastKey, lastOwner);
+    }
+
+    private static float[] randomWeights(Random random, int hidden) {
+        float[] weights = new float[LearnedPositionEvaluator.weightCount(hidden)];
+        for (int i = 0; i < weights.length; i++) weights[i] = (float) random.nextGaussian() * 0.5f;
+        return weights;
+    }
+
+    /** 从给定的牌中随机组出一个合法牌型（单张、对子或五张），返回其强度键 */
+    private static int randomPatternKey(Random random, long deck) {
+        int[] sizes = {1, 1, 2, 2, 5};
+        while (true) {
+            int code = HistogramPatternValidator.classify(draw(random, deck, sizes[random.nextInt(sizes.length)]));
+            if (PatternCode.isValid(code)) {
+                return CardPattern.strengthKey(PatternCode.typeOf(code), PatternCode.highestIdOf(code));
+            }
+        }
+    }
+
+    private static long draw(Random random, long deck, int count) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < count) {
+            long card = 1L << random.nextInt(52);
+            if ((deck & card) != 0L) mask |= card;
+        }
+        return mask;
+    }
+
+    private static void expectRejected(Runnable construct) {
+        try {
+            construct.run();
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError("应当拒绝不合法的权重");
+    }
+
+    private static void expectLoadFails(File file) {
+        try {
+            LearnedPositionEvaluator.load(file);
+        } catch (IOException e) {
+            return;
+        }
+        throw new AssertionError("应当拒绝不合法的模型文件");
+    }
+}
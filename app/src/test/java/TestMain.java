@@ -26,6 +26,87 @@ public class TestMain {
             e.printStackTrace();
         }
         
+        // 运行快速牌型验证器测试
+        System.out.println("\n[3] 运行快速牌型验证器测试");
+        try {
+            PatternValidatorAllocationTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("快速牌型验证器测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // 运行残局求解器测试
+        System.out.println("\n[4] 运行残局求解器测试");
+        try {
+            EndgameSolverTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("残局求解器测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // 运行控制牌分析测试
+        System.out.println("\n[5] 运行控制牌分析测试");
+        try {
+            ControlAnalyzerTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("控制牌分析测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // 运行蒙特卡洛策略可复现性测试
+        System.out.println("\n[6] 运行蒙特卡洛策略可复现性测试");
+        try {
+            MonteCarloReproducibilityTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("蒙特卡洛策略可复现性测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // 运行强度键测试
+        System.out.println("\n[7] 运行强度键测试");
+        try {
+            CardPatternStrengthTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("强度键测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // 运行出牌生成测试
+        System.out.println("\n[8] 运行出牌生成测试");
+        try {
+            MoveGeneratorTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("出牌生成测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // 运行手牌分析测试
+        System.out.println("\n[9] 运行手牌分析测试");
+        try {
+            HandAnalysisTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("手牌分析测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // 运行策略参数测试
+        System.out.println("\n[10] 运行策略参数测试");
+        try {
+            AIParametersTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("策略参数测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        // 运行局面评估测试
+        System.out.println("\n[11] 运行局面评估测试");
+        try {
+            PositionEvaluatorTest.main(args);
+        } catch (Exception | AssertionError e) {
+            System.err.println("局面评估测试异常: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
         // 测试完成
         System.out.println("\n=============================================");
         System.out.println("  BigTwo游戏系统测试完成");